@@ -0,0 +1,35 @@
+/**
+* Copyright 2016 FabricMC
+* Copyright 2024 Flint Loader Contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package net.flintloader.loader.core.entrypoints;
+
+/**
+ * Module entrypoint for {@link EntryPointBenchmark}, only used through the copy defined by the Punch class loader.
+ */
+public final class BenchmarkEntryPoint implements Runnable {
+	static int counter;
+
+	public BenchmarkEntryPoint() { }
+
+	public static void tick() {
+		counter++;
+	}
+
+	@Override
+	public void run() {
+		counter++;
+	}
+}
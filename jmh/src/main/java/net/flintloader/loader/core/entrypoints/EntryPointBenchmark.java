@@ -0,0 +1,154 @@
+/**
+* Copyright 2016 FabricMC
+* Copyright 2024 Flint Loader Contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package net.flintloader.loader.core.entrypoints;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandleProxies;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.flintloader.loader.core.PunchLauncherHooks;
+import net.flintloader.loader.modules.FlintModuleMetadata;
+import net.flintloader.punch.impl.util.LoaderUtil;
+import net.flintloader.punch.jmh.BenchmarkLauncher;
+import net.flintloader.punch.jmh.SyntheticJars;
+
+/**
+ * Entrypoint stage invocation through {@link FlintEntryPoints} for class and method entrypoints, and the call overhead
+ * of the generated method adapter compared to the proxy fallback.
+ *
+ * <p>{@link BenchmarkEntryPoint} is copied into a jar on the launcher's class path, so it gets defined by the Punch
+ * class loader like a mod class instead of the benchmark class loader.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EntryPointBenchmark {
+	private static final String CLASS_KEY = "bench_main";
+	private static final String METHOD_KEY = "bench_method";
+
+	@Param("50")
+	public int moduleCount;
+
+	private Path dir;
+	private Runnable adapter;
+	private Runnable proxy;
+
+	@Setup
+	public void setup() throws ReflectiveOperationException {
+		BenchmarkLauncher launcher = BenchmarkLauncher.get();
+		String name = BenchmarkEntryPoint.class.getName();
+
+		if (!FlintEntryPoints.isFrozen()) {
+			dir = SyntheticJars.createTempDir();
+			Path jar = dir.resolve("module.jar");
+			SyntheticJars.writeJar(jar, Collections.singletonMap(LoaderUtil.getClassFileName(name), readClass(BenchmarkEntryPoint.class)));
+			launcher.addToClassPath(jar);
+
+			for (int i = 0; i < moduleCount; i++) {
+				FlintModuleMetadata metadata = PunchLauncherHooks.gson.fromJson("{\"id\":\"bench_"+i+"\"}", FlintModuleMetadata.class);
+				FlintEntryPoints.add(metadata, CLASS_KEY, name);
+				FlintEntryPoints.add(metadata, METHOD_KEY, name+"::tick");
+			}
+
+			FlintEntryPoints.freeze();
+		}
+
+		Class<?> target = launcher.loadIntoTarget(name);
+		if (target == BenchmarkEntryPoint.class) throw new IllegalStateException(name+" wasn't defined by the Punch class loader");
+
+		Method tick = target.getMethod("tick");
+		adapter = EntryPointAdapterFactory.create(target, tick, null, Runnable.class);
+		proxy = MethodHandleProxies.asInterfaceInstance(Runnable.class, MethodHandles.lookup().unreflect(tick));
+
+		if (adapter == null && EntryPointAdapterFactory.isSupported()) {
+			throw new IllegalStateException("Adapter generation failed for a module class, check the log");
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		if (dir != null) SyntheticJars.delete(dir);
+	}
+
+	private static byte[] readClass(Class<?> cls) {
+		try (InputStream is = cls.getClassLoader().getResourceAsStream(LoaderUtil.getClassFileName(cls.getName()))) {
+			ByteArrayOutputStream os = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int len;
+
+			while ((len = is.read(buffer)) > 0) {
+				os.write(buffer, 0, len);
+			}
+
+			return os.toByteArray();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Benchmark
+	public void invokeClass() {
+		FlintEntryPoints.invoke(CLASS_KEY, Runnable.class, Runnable::run);
+	}
+
+	@Benchmark
+	public void invokeMethod() {
+		FlintEntryPoints.invoke(METHOD_KEY, Runnable.class, Runnable::run);
+	}
+
+	@Benchmark
+	public List<Runnable> getEntrypoints() {
+		return FlintEntryPoints.getEntrypoints(CLASS_KEY, Runnable.class);
+	}
+
+	/**
+	 * Call through the adapter, null on Java 8 where it can't be generated.
+	 */
+	@Benchmark
+	public void callAdapter() {
+		if (adapter != null) adapter.run();
+	}
+
+	@Benchmark
+	public void callProxy() {
+		proxy.run();
+	}
+}
@@ -0,0 +1,111 @@
+/**
+* Copyright 2016 FabricMC
+* Copyright 2024 Flint Loader Contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package net.flintloader.punch.impl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.fabricmc.mapping.tree.TinyTree;
+
+import net.flintloader.punch.jmh.SyntheticJars;
+
+/**
+ * Runtime name lookups through {@link MappingResolverImpl} from intermediary to named, rotating over all classes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MappingResolverBenchmark {
+	private static final String NAMESPACE = "intermediary";
+
+	@Param("5000")
+	public int classCount;
+
+	private MappingResolverImpl resolver;
+	private String[] intermediaryClasses;
+	private String[] namedClasses;
+	private String[] fields;
+	private String[] methods;
+	private int index;
+
+	@Setup
+	public void setup() {
+		TinyTree mappings = SyntheticJars.loadMappings(SyntheticJars.createMappings(classCount));
+		resolver = new MappingResolverImpl(() -> mappings, "named");
+
+		intermediaryClasses = new String[classCount];
+		namedClasses = new String[classCount];
+		fields = new String[classCount];
+		methods = new String[classCount];
+
+		for (int i = 0; i < classCount; i++) {
+			int member = i * (SyntheticJars.MEMBERS + 1);
+			intermediaryClasses[i] = "net.minecraft.class_"+i;
+			namedClasses[i] = "net.minecraft.bench.Named"+i;
+			fields[i] = "field_"+member;
+			methods[i] = "method_"+member;
+		}
+
+		// build the namespace data outside of the measurement
+		resolver.mapClassName(NAMESPACE, intermediaryClasses[0]);
+	}
+
+	private int next() {
+		int ret = index;
+		index = ret + 1 < classCount ? ret + 1 : 0;
+
+		return ret;
+	}
+
+	@Benchmark
+	public String mapClassName() {
+		return resolver.mapClassName(NAMESPACE, intermediaryClasses[next()]);
+	}
+
+	@Benchmark
+	public String unmapClassName() {
+		return resolver.unmapClassName(NAMESPACE, namedClasses[next()]);
+	}
+
+	@Benchmark
+	public String mapFieldName() {
+		int i = next();
+
+		return resolver.mapFieldName(NAMESPACE, intermediaryClasses[i], fields[i], "I");
+	}
+
+	@Benchmark
+	public String mapMethodName() {
+		int i = next();
+
+		return resolver.mapMethodName(NAMESPACE, intermediaryClasses[i], methods[i], "()I");
+	}
+}
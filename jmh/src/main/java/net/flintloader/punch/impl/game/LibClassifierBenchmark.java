@@ -0,0 +1,104 @@
+/**
+* Copyright 2016 FabricMC
+* Copyright 2024 Flint Loader Contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package net.flintloader.punch.impl.game;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.flintloader.punch.jmh.BenchmarkGameProvider;
+import net.flintloader.punch.jmh.SyntheticJars;
+
+/**
+ * Classification of a class path by {@link LibClassifier}, including its setup, like a game provider does it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LibClassifierBenchmark {
+	@Param("40")
+	public int jarCount;
+	@Param("500")
+	public int classesPerJar;
+
+	private final BenchmarkGameProvider provider = new BenchmarkGameProvider();
+	private Path dir;
+	private List<Path> jars;
+
+	@Setup
+	public void setup() {
+		dir = SyntheticJars.createTempDir();
+		jars = new ArrayList<>(jarCount);
+
+		for (int i = 0; i < jarCount; i++) {
+			String prefix = i < BenchLibrary.PREFIXES.length ? BenchLibrary.PREFIXES[i] : "bench.other"+i;
+			jars.add(SyntheticJars.writeClassJar(dir.resolve("lib"+i+".jar"), SyntheticJars.classNames(prefix, classesPerJar)));
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		SyntheticJars.delete(dir);
+	}
+
+	@Benchmark
+	public LibClassifier<BenchLibrary> classify() throws IOException {
+		LibClassifier<BenchLibrary> ret = new LibClassifier<>(BenchLibrary.class, provider);
+		ret.process(jars);
+
+		return ret;
+	}
+
+	public enum BenchLibrary implements LibClassifier.LibraryType {
+		GAME("bench/game/Main.class", "bench/game/p0/C0.class"),
+		LIB_A("bench/lib0/p0/C0.class"),
+		LIB_B("bench/lib1/p1/C64.class"),
+		LIB_C("bench/lib2/Marker.class", "bench/lib2/p0/C1.class"),
+		MISSING("bench/missing/Marker.class");
+
+		static final String[] PREFIXES = { "bench.game", "bench.lib0", "bench.lib1", "bench.lib2" };
+
+		private final String[] paths;
+
+		BenchLibrary(String... paths) {
+			this.paths = paths;
+		}
+
+		@Override
+		public String[] getPaths() {
+			return paths;
+		}
+	}
+}
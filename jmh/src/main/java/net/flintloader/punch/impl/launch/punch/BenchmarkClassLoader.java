@@ -0,0 +1,68 @@
+/**
+* Copyright 2016 FabricMC
+* Copyright 2024 Flint Loader Contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package net.flintloader.punch.impl.launch.punch;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.jar.Manifest;
+
+import net.flintloader.punch.impl.game.GameProvider;
+
+/**
+ * Public handle on a production {@link PunchClassLoader} for benchmark code outside of this package.
+ */
+public final class BenchmarkClassLoader {
+	private final PunchClassLoaderInterface delegate;
+
+	public BenchmarkClassLoader(GameProvider provider) {
+		this.delegate = PunchClassLoaderInterface.create(false, false, provider);
+	}
+
+	public ClassLoader getClassLoader() {
+		return delegate.getClassLoader();
+	}
+
+	public void addCodeSource(Path path, String... allowedPrefixes) {
+		delegate.setAllowedPrefixes(path, allowedPrefixes);
+		delegate.addCodeSource(path);
+	}
+
+	public void setAllowedPrefixes(Path codeSource, String... prefixes) {
+		delegate.setAllowedPrefixes(codeSource, prefixes);
+	}
+
+	public void setValidParentClassPath(Collection<Path> codeSources) {
+		delegate.setValidParentClassPath(codeSources);
+	}
+
+	public Manifest getManifest(Path codeSource) {
+		return delegate.getManifest(codeSource);
+	}
+
+	public boolean isClassLoaded(String name) {
+		return delegate.isClassLoaded(name);
+	}
+
+	public Class<?> loadIntoTarget(String name) throws ClassNotFoundException {
+		return delegate.loadIntoTarget(name);
+	}
+
+	public byte[] getRawClassBytes(String name) throws IOException {
+		return delegate.getRawClassBytes(name);
+	}
+}
@@ -0,0 +1,170 @@
+/**
+* Copyright 2016 FabricMC
+* Copyright 2024 Flint Loader Contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package net.flintloader.punch.impl.launch.punch;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.objectweb.asm.ClassReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.spongepowered.asm.mixin.transformer.IMixinTransformer;
+
+import net.fabricmc.accesswidener.AccessWidenerReader;
+
+import net.flintloader.punch.impl.PunchLoaderImpl;
+import net.flintloader.punch.impl.util.UrlUtil;
+import net.flintloader.punch.jmh.BenchmarkGameProvider;
+import net.flintloader.punch.jmh.BenchmarkLauncher;
+import net.flintloader.punch.jmh.SyntheticJars;
+
+/**
+ * Class loading through {@link PunchClassDelegate#loadClass}, from the code source lookup to the class definition.
+ *
+ * <p>With {@code transform} the loader runs {@link net.flintloader.punch.impl.transformer.PunchTransformer}, which
+ * applies an access widener to every fourth game class, and a pass-through Mixin transformer. With {@code isolation}
+ * the jar is restricted to the generated packages through allowed prefixes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClassLoadBenchmark {
+	@Param("500")
+	public int classCount;
+	@Param({"false", "true"})
+	public boolean transform;
+	@Param({"false", "true"})
+	public boolean isolation;
+
+	private final BenchmarkGameProvider provider = new BenchmarkGameProvider();
+	private Path dir;
+	private Path jar;
+	private List<String> classNames;
+	private PunchClassLoader parentLoader;
+
+	@Setup
+	public void setup() throws Exception {
+		BenchmarkLauncher.get();
+		dir = SyntheticJars.createTempDir();
+
+		List<String> gameClasses = SyntheticJars.classNames("net.minecraft.bench", classCount / 2);
+		classNames = new ArrayList<>(gameClasses);
+		classNames.addAll(SyntheticJars.classNames("bench.mod", classCount - gameClasses.size()));
+		jar = SyntheticJars.writeClassJar(dir.resolve("classes.jar"), classNames);
+
+		if (transform) {
+			StringBuilder sb = new StringBuilder("accessWidener\tv2\tintermediary\n");
+
+			for (int i = 0; i < gameClasses.size(); i += 4) {
+				String name = gameClasses.get(i).replace('.', '/');
+				sb.append("accessible\tmethod\t").append(name).append("\tm0\t()I\n");
+			}
+
+			new AccessWidenerReader(PunchLoaderImpl.INSTANCE.getAccessWidener()).read(new BufferedReader(new StringReader(sb.toString())), "intermediary");
+		}
+
+		parentLoader = createLoader();
+		parentLoader.getDelegate().setValidParentClassPath(Collections.singletonList(UrlUtil.getCodeSource(ClassReader.class)));
+	}
+
+	@TearDown
+	public void tearDown() {
+		SyntheticJars.delete(dir);
+	}
+
+	private PunchClassLoader createLoader() throws ReflectiveOperationException {
+		PunchClassLoader ret = new PunchClassLoader(false, provider);
+		PunchClassDelegate<?> delegate = ret.getDelegate();
+		delegate.addCodeSource(jar);
+
+		if (transform) enableTransforms(delegate);
+		if (isolation) delegate.setAllowedPrefixes(jar, "net.minecraft.bench.", "bench.mod.");
+
+		return ret;
+	}
+
+	/**
+	 * Mark the transformers as initialized with a pass-through Mixin transformer, bootstrapping Mixin isn't possible
+	 * outside of a launch.
+	 */
+	private static void enableTransforms(PunchClassDelegate<?> delegate) throws ReflectiveOperationException {
+		Object passThrough = Proxy.newProxyInstance(IMixinTransformer.class.getClassLoader(), new Class<?>[] { IMixinTransformer.class }, (proxy, method, args) -> {
+			if (method.getName().equals("transformClassBytes")) return args[2];
+
+			return method.getReturnType() == boolean.class ? Boolean.FALSE : null;
+		});
+
+		Field transformer = PunchClassDelegate.class.getDeclaredField("mixinTransformer");
+		transformer.setAccessible(true);
+		transformer.set(delegate, passThrough);
+
+		Field initialized = PunchClassDelegate.class.getDeclaredField("transformInitialized");
+		initialized.setAccessible(true);
+		initialized.setBoolean(delegate, true);
+	}
+
+	/**
+	 * Load all generated classes into a fresh class loader.
+	 */
+	@Benchmark
+	public Class<?> loadClasses() throws Exception {
+		PunchClassLoader loader = createLoader();
+		Class<?> ret = null;
+
+		for (String name : classNames) {
+			ret = loader.loadClass(name);
+		}
+
+		return ret;
+	}
+
+	/**
+	 * Load a library class from the parent class loader, running the isolation checks on every call.
+	 */
+	@Benchmark
+	public Class<?> loadParentClass() throws Exception {
+		return parentLoader.loadClass(ClassReader.class.getName());
+	}
+
+	/**
+	 * Load a JDK class, which skips the code source lookup.
+	 */
+	@Benchmark
+	public Class<?> loadJavaClass() throws Exception {
+		return parentLoader.loadClass(String.class.getName());
+	}
+}
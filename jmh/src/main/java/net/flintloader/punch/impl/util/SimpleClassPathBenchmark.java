@@ -0,0 +1,104 @@
+/**
+* Copyright 2016 FabricMC
+* Copyright 2024 Flint Loader Contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package net.flintloader.punch.impl.util;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.flintloader.punch.jmh.SyntheticJars;
+
+/**
+ * {@link SimpleClassPath#getEntry} over several jars, for entries in the last jar and for missing entries.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SimpleClassPathBenchmark {
+	@Param({"4", "32"})
+	public int jarCount;
+	@Param("200")
+	public int classesPerJar;
+
+	private Path dir;
+	private SimpleClassPath classPath;
+	private String[] hits;
+	private String[] misses;
+	private int index;
+
+	@Setup
+	public void setup() {
+		dir = SyntheticJars.createTempDir();
+		List<Path> jars = new ArrayList<>(jarCount);
+		List<String> lastClasses = null;
+
+		for (int i = 0; i < jarCount; i++) {
+			lastClasses = SyntheticJars.classNames("bench.jar"+i, classesPerJar);
+			jars.add(SyntheticJars.writeClassJar(dir.resolve("lib"+i+".jar"), lastClasses));
+		}
+
+		classPath = new SimpleClassPath(jars);
+		hits = new String[lastClasses.size()];
+		misses = new String[lastClasses.size()];
+
+		for (int i = 0; i < hits.length; i++) {
+			hits[i] = LoaderUtil.getClassFileName(lastClasses.get(i));
+			misses[i] = LoaderUtil.getClassFileName("bench.missing.C"+i);
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		classPath.close();
+		SyntheticJars.delete(dir);
+	}
+
+	private int next() {
+		int ret = index;
+		index = ret + 1 < hits.length ? ret + 1 : 0;
+
+		return ret;
+	}
+
+	@Benchmark
+	public SimpleClassPath.CpEntry getEntryHit() throws IOException {
+		return classPath.getEntry(hits[next()]);
+	}
+
+	@Benchmark
+	public SimpleClassPath.CpEntry getEntryMiss() throws IOException {
+		return classPath.getEntry(misses[next()]);
+	}
+}
@@ -0,0 +1,82 @@
+/**
+* Copyright 2016 FabricMC
+* Copyright 2024 Flint Loader Contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package net.flintloader.punch.impl.util.log;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link Log#logFormat} for enabled and disabled levels, with a handler discarding all messages.
+ *
+ * <p>With {@code async} the handler is wrapped like the builtin handler, moving the output to the logging thread.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LogBenchmark {
+	@Param({"false", "true"})
+	public boolean async;
+
+	private final Object[] args = { "bench_module", 42, 3.5 };
+
+	@Setup
+	public void setup() {
+		LogHandler handler = new LogHandler() {
+			@Override
+			public void log(long time, LogLevel level, LogCategory category, String msg, Throwable exc, boolean fromReplay, boolean wasSuppressed) { }
+
+			@Override
+			public boolean shouldLog(LogLevel level, LogCategory category) {
+				return !level.isLessThan(LogLevel.INFO);
+			}
+
+			@Override
+			public void close() { }
+		};
+
+		Log.init(async ? AsyncLogHandler.wrap(handler) : handler);
+	}
+
+	@Benchmark
+	public void logEnabled() {
+		Log.logFormat(LogLevel.INFO, LogCategory.GENERAL, "Loading module %s with %d classes in %.1f ms", args);
+	}
+
+	@Benchmark
+	public void logDisabled() {
+		Log.logFormat(LogLevel.DEBUG, LogCategory.GENERAL, "Loading module %s with %d classes in %.1f ms", args);
+	}
+
+	@Benchmark
+	public void debugDisabled() {
+		Log.debug(LogCategory.KNOT, "loading class %s", "net.minecraft.bench.p0.C0");
+	}
+}
@@ -0,0 +1,130 @@
+/**
+* Copyright 2016 FabricMC
+* Copyright 2024 Flint Loader Contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package net.flintloader.punch.impl.util.mappings;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.fabricmc.mapping.tree.TinyTree;
+
+import net.flintloader.punch.jmh.SyntheticJars;
+
+/**
+ * Member lookups by {@link MixinIntermediaryDevRemapper} as done for Mixin targets in a named development environment.
+ *
+ * <p>Only lookups resolved from the tables are measured, owners missing there would require Mixin's class info.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MixinIntermediaryDevRemapperBenchmark {
+	@Param("5000")
+	public int classCount;
+
+	private MixinIntermediaryDevRemapper remapper;
+	private String[] intermediaryClasses;
+	private String[] namedClasses;
+	private String[] fields;
+	private String[] methods;
+	private String[] refMethods;
+	private String[] refDescs;
+	private int index;
+
+	@Setup
+	public void setup() {
+		TinyTree mappings = SyntheticJars.loadMappings(SyntheticJars.createMappings(classCount));
+		remapper = new MixinIntermediaryDevRemapper(mappings, "intermediary", "named");
+
+		intermediaryClasses = new String[classCount];
+		namedClasses = new String[classCount];
+		fields = new String[classCount];
+		methods = new String[classCount];
+		refMethods = new String[classCount];
+		refDescs = new String[classCount];
+
+		for (int i = 0; i < classCount; i++) {
+			int member = i * (SyntheticJars.MEMBERS + 1);
+			intermediaryClasses[i] = "net/minecraft/class_"+i;
+			namedClasses[i] = "net/minecraft/bench/Named"+i;
+			fields[i] = "field_"+member;
+			methods[i] = "method_"+member;
+			refMethods[i] = "method_"+(member + SyntheticJars.MEMBERS);
+			refDescs[i] = "(Lnet/minecraft/class_"+Math.max(0, i - 1)+";)V";
+		}
+	}
+
+	private int next() {
+		int ret = index;
+		index = ret + 1 < classCount ? ret + 1 : 0;
+
+		return ret;
+	}
+
+	@Benchmark
+	public String mapClass() {
+		return remapper.map(intermediaryClasses[next()]);
+	}
+
+	@Benchmark
+	public String mapFieldName() {
+		int i = next();
+
+		return remapper.mapFieldName(namedClasses[i], fields[i], "I");
+	}
+
+	@Benchmark
+	public String mapMethodName() {
+		int i = next();
+
+		return remapper.mapMethodName(namedClasses[i], methods[i], "()I");
+	}
+
+	@Benchmark
+	public String mapMethodNameClassDesc() {
+		int i = next();
+
+		return remapper.mapMethodName(namedClasses[i], refMethods[i], refDescs[i]);
+	}
+
+	@Benchmark
+	public String mapMethodNameNoDesc() {
+		int i = next();
+
+		return remapper.mapMethodName(null, methods[i], null);
+	}
+
+	@Benchmark
+	public String mapMethodNameMiss() {
+		int i = next();
+
+		return remapper.mapMethodName(namedClasses[i], "missing", "()V");
+	}
+}
@@ -0,0 +1,132 @@
+/**
+* Copyright 2016 FabricMC
+* Copyright 2024 Flint Loader Contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package net.flintloader.punch.impl.util.version;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import net.flintloader.punch.api.SemanticVersion;
+import net.flintloader.punch.api.Version;
+import net.flintloader.punch.api.VersionParsingException;
+import net.flintloader.punch.api.metadata.version.VersionInterval;
+import net.flintloader.punch.api.metadata.version.VersionPredicate;
+
+/**
+ * Version parsing, comparison, predicate and interval operations as used by dependency checks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VersionBenchmark {
+	private static final String VERSION = "1.20.4";
+	private static final String PRERELEASE_VERSION = "1.21.0-beta.12";
+	private static final String PREDICATE = ">=1.20.1 <1.21.0-beta.13";
+
+	private SemanticVersion version;
+	private SemanticVersion prereleaseVersion;
+	private SemanticVersion otherPrereleaseVersion;
+	private VersionPredicate singlePredicate;
+	private VersionPredicate multiPredicate;
+	private List<VersionInterval> intervalsA;
+	private List<VersionInterval> intervalsB;
+
+	@Setup
+	public void setup() throws VersionParsingException {
+		version = SemanticVersion.parse(VERSION);
+		prereleaseVersion = SemanticVersion.parse(PRERELEASE_VERSION);
+		otherPrereleaseVersion = SemanticVersion.parse("1.21.0-beta.9");
+		singlePredicate = VersionPredicate.parse("~1.20.2");
+		multiPredicate = VersionPredicate.parse(PREDICATE);
+
+		// two normalized sets of disjoint ranges: [i.0, i.5) and [i.3, i+1.1)
+		intervalsA = new ArrayList<>();
+		intervalsB = new ArrayList<>();
+
+		for (int i = 0; i < 16; i += 2) {
+			intervalsA = VersionInterval.or(intervalsA, VersionPredicate.parse(">="+i+".0 <"+i+".5").getInterval());
+			intervalsB = VersionInterval.or(intervalsB, VersionPredicate.parse(">="+i+".3 <"+(i + 1)+".1").getInterval());
+		}
+	}
+
+	@Benchmark
+	public Version parseVersion() throws VersionParsingException {
+		return Version.parse(VERSION);
+	}
+
+	@Benchmark
+	public Version parseVersionUncached() throws VersionParsingException {
+		return new SemanticVersionImpl(VERSION, false);
+	}
+
+	@Benchmark
+	public VersionPredicate parsePredicate() throws VersionParsingException {
+		return VersionPredicate.parse(PREDICATE);
+	}
+
+	@Benchmark
+	public int compare() {
+		return version.compareTo((Version) prereleaseVersion);
+	}
+
+	@Benchmark
+	public int comparePrerelease() {
+		return prereleaseVersion.compareTo((Version) otherPrereleaseVersion);
+	}
+
+	@Benchmark
+	public void testPredicates(Blackhole bh) {
+		bh.consume(singlePredicate.test(version));
+		bh.consume(multiPredicate.test(version));
+		bh.consume(multiPredicate.test(prereleaseVersion));
+	}
+
+	@Benchmark
+	public VersionInterval predicateInterval() {
+		return multiPredicate.getInterval();
+	}
+
+	@Benchmark
+	public List<VersionInterval> intervalAnd() {
+		return VersionInterval.and(intervalsA, intervalsB);
+	}
+
+	@Benchmark
+	public List<VersionInterval> intervalOr() {
+		return VersionInterval.or(intervalsA, intervalsB.get(3));
+	}
+
+	@Benchmark
+	public List<VersionInterval> intervalNot() {
+		return VersionInterval.not(intervalsA);
+	}
+}
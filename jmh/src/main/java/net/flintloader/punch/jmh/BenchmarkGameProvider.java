@@ -0,0 +1,114 @@
+/**
+* Copyright 2016 FabricMC
+* Copyright 2024 Flint Loader Contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package net.flintloader.punch.jmh;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import net.flintloader.punch.impl.game.GameProvider;
+import net.flintloader.punch.impl.game.patch.GameTransformer;
+import net.flintloader.punch.impl.launch.PunchLauncher;
+import net.flintloader.punch.impl.util.Arguments;
+
+/**
+ * Game provider without a game, for components that need a provider instance but don't launch anything.
+ */
+public final class BenchmarkGameProvider implements GameProvider {
+	private final GameTransformer transformer = new GameTransformer();
+	private final Arguments arguments = new Arguments();
+
+	@Override
+	public String getGameId() {
+		return "bench";
+	}
+
+	@Override
+	public String getGameName() {
+		return "Benchmark";
+	}
+
+	@Override
+	public String getRawGameVersion() {
+		return "1.0.0";
+	}
+
+	@Override
+	public String getNormalizedGameVersion() {
+		return "1.0.0";
+	}
+
+	@Override
+	public String getEntrypoint() {
+		return null;
+	}
+
+	@Override
+	public Path getLaunchDirectory() {
+		return Paths.get(".");
+	}
+
+	@Override
+	public boolean isObfuscated() {
+		return false;
+	}
+
+	@Override
+	public boolean requiresUrlClassLoader() {
+		return false;
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return false;
+	}
+
+	@Override
+	public boolean locateGame(PunchLauncher launcher, String[] args) {
+		return false;
+	}
+
+	@Override
+	public void initialize(PunchLauncher launcher) { }
+
+	@Override
+	public GameTransformer getEntrypointTransformer() {
+		return transformer;
+	}
+
+	@Override
+	public void unlockClassPath(PunchLauncher launcher) { }
+
+	@Override
+	public void launch(ClassLoader loader) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public Arguments getArguments() {
+		return arguments;
+	}
+
+	@Override
+	public String[] getLaunchArguments(boolean sanitize) {
+		return new String[0];
+	}
+
+	@Override
+	public boolean canOpenErrorGui() {
+		return false;
+	}
+}
@@ -0,0 +1,131 @@
+/**
+* Copyright 2016 FabricMC
+* Copyright 2024 Flint Loader Contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package net.flintloader.punch.jmh;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.Manifest;
+
+import net.flintloader.punch.impl.launch.PunchLauncherBase;
+import net.flintloader.punch.impl.launch.punch.BenchmarkClassLoader;
+
+/**
+ * Minimal production launcher for code paths that query {@link PunchLauncherBase#getLauncher()}.
+ *
+ * <p>There can only be one launcher per JVM. The target class loader is a production Punch class loader, classes from
+ * paths added through {@link #addToClassPath} get defined by it like mod classes. Everything else is loaded from the
+ * benchmark class path through its parent.
+ */
+public final class BenchmarkLauncher extends PunchLauncherBase {
+	private static BenchmarkLauncher instance;
+
+	private final BenchmarkClassLoader classLoader = new BenchmarkClassLoader(new BenchmarkGameProvider());
+
+	private BenchmarkLauncher() {
+		classLoader.setValidParentClassPath(getJvmClassPath());
+	}
+
+	private static List<Path> getJvmClassPath() {
+		List<Path> ret = new ArrayList<>();
+
+		for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+			Path path = Paths.get(entry);
+			if (Files.exists(path)) ret.add(path);
+		}
+
+		return ret;
+	}
+
+	public static synchronized BenchmarkLauncher get() {
+		if (instance == null) instance = new BenchmarkLauncher();
+
+		return instance;
+	}
+
+	@Override
+	public void addToClassPath(Path path, String... allowedPrefixes) {
+		classLoader.addCodeSource(path, allowedPrefixes);
+	}
+
+	@Override
+	public void setAllowedPrefixes(Path path, String... prefixes) {
+		classLoader.setAllowedPrefixes(path, prefixes);
+	}
+
+	@Override
+	public void setValidParentClassPath(Collection<Path> paths) {
+		classLoader.setValidParentClassPath(paths);
+	}
+
+	@Override
+	public boolean isClassLoaded(String name) {
+		return classLoader.isClassLoaded(name);
+	}
+
+	@Override
+	public Class<?> loadIntoTarget(String name) throws ClassNotFoundException {
+		return classLoader.loadIntoTarget(name);
+	}
+
+	@Override
+	public InputStream getResourceAsStream(String name) {
+		return classLoader.getClassLoader().getResourceAsStream(name);
+	}
+
+	@Override
+	public ClassLoader getTargetClassLoader() {
+		return classLoader.getClassLoader();
+	}
+
+	@Override
+	public byte[] getClassByteArray(String name, boolean runTransformers) throws IOException {
+		return classLoader.getRawClassBytes(name);
+	}
+
+	@Override
+	public Manifest getManifest(Path originPath) {
+		return classLoader.getManifest(originPath);
+	}
+
+	@Override
+	public boolean isDevelopment() {
+		return false;
+	}
+
+	@Override
+	public String getEntrypoint() {
+		return null;
+	}
+
+	@Override
+	public String getTargetNamespace() {
+		return "intermediary";
+	}
+
+	@Override
+	public List<Path> getClassPath() {
+		return Collections.emptyList();
+	}
+}
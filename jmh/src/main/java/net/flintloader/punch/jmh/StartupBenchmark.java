@@ -0,0 +1,236 @@
+/**
+* Copyright 2016 FabricMC
+* Copyright 2024 Flint Loader Contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package net.flintloader.punch.jmh;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import net.flintloader.loader.core.PunchLauncherHooks;
+import net.flintloader.punch.impl.launch.punch.PunchClient;
+import net.flintloader.punch.impl.util.SystemProperties;
+
+/**
+ * End-to-end startup benchmark launching the game from {@link SyntheticGame} through {@link PunchClient} in new JVMs.
+ *
+ * <p>The first launch runs without the loader's caches (cold), the following ones reuse them (warm). Phase timings are
+ * taken from the startup trace of every launch, see {@link SystemProperties#TRACE_FILE}.
+ *
+ * <pre>
+ * StartupBenchmark [--classes 2000] [--modules 20] [--mixins 5] [--warm 5] [--dir path] [--jvmArg arg]..
+ * </pre>
+ */
+public final class StartupBenchmark {
+	private static final long TIMEOUT_MINUTES = 10;
+
+	private int classCount = 2000;
+	private int moduleCount = 20;
+	private int mixinsPerModule = 5;
+	private int warmRuns = 5;
+	private Path dir;
+	private final List<String> jvmArgs = new ArrayList<>();
+
+	public static void main(String[] args) throws Exception {
+		StartupBenchmark benchmark = new StartupBenchmark();
+		benchmark.parseArgs(args);
+		benchmark.run();
+	}
+
+	private void parseArgs(String[] args) {
+		for (int i = 0; i < args.length; i++) {
+			String arg = args[i];
+			if (i + 1 >= args.length) throw new IllegalArgumentException("missing value for "+arg);
+			String value = args[++i];
+
+			switch (arg) {
+			case "--classes": classCount = Integer.parseInt(value); break;
+			case "--modules": moduleCount = Integer.parseInt(value); break;
+			case "--mixins": mixinsPerModule = Integer.parseInt(value); break;
+			case "--warm": warmRuns = Integer.parseInt(value); break;
+			case "--dir": dir = Paths.get(value); break;
+			case "--jvmArg": jvmArgs.add(value); break;
+			default: throw new IllegalArgumentException("unknown option "+arg);
+			}
+		}
+
+		if (classCount <= 0) throw new IllegalArgumentException("class count must be positive");
+	}
+
+	private void run() throws IOException, InterruptedException {
+		boolean tempDir = dir == null;
+		Path baseDir = tempDir ? SyntheticJars.createTempDir() : dir;
+
+		try {
+			System.out.printf("Generating %d classes, %d modules with %d mixins each in %s%n", classCount, moduleCount, mixinsPerModule, baseDir);
+			SyntheticGame game = SyntheticGame.generate(baseDir, classCount, moduleCount, mixinsPerModule);
+
+			game.clearCaches();
+			Result cold = launch(game, baseDir, 0);
+			List<Result> warm = new ArrayList<>(warmRuns);
+
+			for (int i = 1; i <= warmRuns; i++) {
+				warm.add(launch(game, baseDir, i));
+			}
+
+			print(cold, warm);
+		} finally {
+			if (tempDir) SyntheticJars.delete(baseDir);
+		}
+	}
+
+	private Result launch(SyntheticGame game, Path baseDir, int index) throws IOException, InterruptedException {
+		Path trace = baseDir.resolve("trace-"+index+".json").toAbsolutePath();
+		Path log = baseDir.resolve("launch-"+index+".log").toAbsolutePath();
+		Files.deleteIfExists(trace);
+
+		List<String> cmd = new ArrayList<>();
+		cmd.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+		cmd.add("-cp");
+		cmd.add(System.getProperty("java.class.path")+File.pathSeparator+game.getMappingsJar().toAbsolutePath());
+		cmd.add("-D"+SyntheticGameProvider.ENABLE_PROPERTY+"=true");
+		cmd.add("-D"+SystemProperties.SKIP_MC_PROVIDER+"=true");
+		cmd.add("-D"+SystemProperties.GAME_JAR_PATH_CLIENT+"="+game.getGameJar().toAbsolutePath());
+		cmd.add("-D"+SystemProperties.TRACE_FILE+"="+trace);
+		cmd.addAll(jvmArgs);
+		cmd.add(PunchClient.class.getName());
+
+		long startTime = System.nanoTime();
+		Process process = new ProcessBuilder(cmd)
+				.directory(game.getRunDir().toFile())
+				.redirectErrorStream(true)
+				.redirectOutput(log.toFile())
+				.start();
+
+		if (!process.waitFor(TIMEOUT_MINUTES, TimeUnit.MINUTES)) {
+			process.destroyForcibly();
+			throw new RuntimeException("Launch "+index+" timed out, see "+log);
+		}
+
+		long wallTime = System.nanoTime() - startTime;
+
+		if (process.exitValue() != 0) throw new RuntimeException("Launch "+index+" failed with exit code "+process.exitValue()+", see "+log);
+		if (!Files.exists(trace)) throw new RuntimeException("Launch "+index+" didn't write a startup trace, see "+log);
+
+		return Result.read(trace, wallTime);
+	}
+
+	private static void print(Result cold, List<Result> warm) {
+		List<String> phases = new ArrayList<>(cold.phases.keySet());
+
+		for (Result result : warm) {
+			for (String phase : result.phases.keySet()) {
+				if (!phases.contains(phase)) phases.add(phase);
+			}
+		}
+
+		System.out.printf("%n%-56s %10s %10s%n", "phase", "cold ms", "warm ms");
+
+		for (String phase : phases) {
+			printRow(phase, cold.phases.get(phase), median(warm, r -> r.phases.get(phase)));
+		}
+
+		printRow("startup (trace)", cold.startupMicros, median(warm, r -> r.startupMicros));
+		printRow("process (wall)", cold.wallMicros, median(warm, r -> r.wallMicros));
+		System.out.printf("%-56s %10d %10s%n", "class loads", cold.classLoads, warm.isEmpty() ? "-" : String.valueOf(warm.get(0).classLoads));
+	}
+
+	private static void printRow(String name, Double cold, Double warm) {
+		System.out.printf("%-56s %10s %10s%n", name, format(cold), format(warm));
+	}
+
+	private static String format(Double micros) {
+		return micros != null ? String.format(Locale.ENGLISH, "%.1f", micros / 1e3) : "-";
+	}
+
+	private static Double median(List<Result> results, Function<Result, Double> getter) {
+		List<Double> values = new ArrayList<>(results.size());
+
+		for (Result result : results) {
+			Double value = getter.apply(result);
+			if (value != null) values.add(value);
+		}
+
+		if (values.isEmpty()) return null;
+
+		Collections.sort(values);
+		int mid = values.size() / 2;
+
+		return values.size() % 2 != 0 ? values.get(mid) : (values.get(mid - 1) + values.get(mid)) / 2;
+	}
+
+	/**
+	 * Timings of a single launch in microseconds, launch phases and entrypoint stages are summed up by name.
+	 */
+	private static final class Result {
+		final Map<String, Double> phases = new LinkedHashMap<>();
+		double startupMicros;
+		double wallMicros;
+		int classLoads;
+
+		static Result read(Path file, long wallTime) throws IOException {
+			TraceFile trace;
+
+			try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+				trace = PunchLauncherHooks.gson.fromJson(reader, TraceFile.class);
+			}
+
+			Result ret = new Result();
+			ret.wallMicros = wallTime / 1e3;
+			TraceEvent[] events = trace.traceEvents != null ? trace.traceEvents : new TraceEvent[0];
+			Arrays.sort(events, (a, b) -> Double.compare(a.ts, b.ts));
+
+			for (TraceEvent event : events) {
+				if (!"X".equals(event.ph)) continue;
+
+				ret.startupMicros = Math.max(ret.startupMicros, event.ts + event.dur);
+
+				if ("classload".equals(event.cat)) {
+					ret.classLoads++;
+				} else if ("launch".equals(event.cat) || "entrypoint".equals(event.cat) && event.name.indexOf(':') < 0) {
+					ret.phases.merge(event.cat+" "+event.name, event.dur, Double::sum);
+				}
+			}
+
+			return ret;
+		}
+	}
+
+	private static final class TraceFile {
+		TraceEvent[] traceEvents;
+	}
+
+	private static final class TraceEvent {
+		String ph;
+		String cat;
+		String name;
+		double ts;
+		double dur;
+	}
+}
@@ -0,0 +1,242 @@
+/**
+* Copyright 2016 FabricMC
+* Copyright 2024 Flint Loader Contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package net.flintloader.punch.jmh;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import net.flintloader.punch.impl.PunchLoaderImpl;
+
+/**
+ * Generates an installation of the synthetic game run by {@link SyntheticGameProvider}.
+ *
+ * <p>The layout below the base directory is:
+ * <ul>
+ * <li>{@code game.jar} with the obfuscated classes from {@link SyntheticJars#createMappings} and the unobfuscated
+ * main class {@value #MAIN_CLASS}
+ * <li>{@code mappings.jar} with {@code mappings/mappings.tiny}, to be put on the class path
+ * <li>{@code run/modules} with modules, each having a main entrypoint, an access widener and a Mixin config whose
+ * mixins inject into a method of a distinct game class
+ * </ul>
+ */
+public final class SyntheticGame {
+	public static final String GAME_ID = "synthetic";
+	public static final String VERSION = "1.0.0";
+	public static final String MAIN_CLASS = "net.minecraft.bench.Main";
+
+	private static final String MODULE_INTERFACE = "net/flintloader/loader/api/FlintModule";
+	private static final String CALLBACK_INFO_RETURNABLE = "org/spongepowered/asm/mixin/injection/callback/CallbackInfoReturnable";
+
+	private final Path gameJar;
+	private final Path mappingsJar;
+	private final Path runDir;
+
+	private SyntheticGame(Path gameJar, Path mappingsJar, Path runDir) {
+		this.gameJar = gameJar;
+		this.mappingsJar = mappingsJar;
+		this.runDir = runDir;
+	}
+
+	public Path getGameJar() {
+		return gameJar;
+	}
+
+	public Path getMappingsJar() {
+		return mappingsJar;
+	}
+
+	/**
+	 * Game directory, to be used as the working directory since modules are discovered relative to it.
+	 */
+	public Path getRunDir() {
+		return runDir;
+	}
+
+	/**
+	 * Remove the loader's caches, making the next launch a cold start.
+	 */
+	public void clearCaches() {
+		SyntheticJars.delete(runDir.resolve(PunchLoaderImpl.CACHE_DIR_NAME));
+	}
+
+	public static SyntheticGame generate(Path dir, int classCount, int moduleCount, int mixinsPerModule) {
+		Map<String, byte[]> gameEntries = new LinkedHashMap<>(classCount + 1);
+		String mainClass = MAIN_CLASS.replace('.', '/');
+		gameEntries.put(mainClass+".class", createMainClass(mainClass));
+
+		for (int i = 0; i < classCount; i++) {
+			String name = SyntheticJars.obfuscatedName(i);
+			gameEntries.put(name+".class", SyntheticJars.createClass(name));
+		}
+
+		Path gameJar = SyntheticJars.writeJar(dir.resolve("game.jar"), gameEntries);
+
+		Map<String, String> attributes = new LinkedHashMap<>(2);
+		attributes.put("Game-Id", GAME_ID);
+		attributes.put("Game-Version", VERSION);
+		byte[] mappings = SyntheticJars.createMappings(classCount).getBytes(StandardCharsets.UTF_8);
+		Path mappingsJar = SyntheticJars.writeJar(dir.resolve("mappings.jar"), Collections.singletonMap("mappings/mappings.tiny", mappings), attributes);
+
+		Path runDir = dir.resolve("run");
+		Path modulesDir = runDir.resolve("modules");
+
+		try {
+			Files.createDirectories(modulesDir);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		for (int i = 0; i < moduleCount; i++) {
+			int[] targets = new int[mixinsPerModule];
+
+			for (int j = 0; j < mixinsPerModule; j++) {
+				targets[j] = (i * mixinsPerModule + j) % classCount;
+			}
+
+			SyntheticJars.writeJar(modulesDir.resolve("bench_"+i+".jar"), createModule(i, targets));
+		}
+
+		return new SyntheticGame(gameJar, mappingsJar, runDir);
+	}
+
+	private static Map<String, byte[]> createModule(int index, int[] targets) {
+		String id = "bench_"+index;
+		String pkg = "bench/mod"+index;
+		Map<String, byte[]> ret = new LinkedHashMap<>();
+
+		StringBuilder mixins = new StringBuilder();
+		StringBuilder accessWidener = new StringBuilder("accessWidener\tv2\tintermediary\n");
+
+		for (int i = 0; i < targets.length; i++) {
+			String mixin = "Mixin"+i;
+			String target = "net/minecraft/class_"+targets[i];
+			String method = "method_"+targets[i] * (SyntheticJars.MEMBERS + 1);
+
+			ret.put(pkg+"/mixin/"+mixin+".class", createMixinClass(pkg+"/mixin/"+mixin, target, method));
+			if (i > 0) mixins.append(',');
+			mixins.append('"').append(mixin).append('"');
+
+			accessWidener.append("extendable\tclass\t").append(target).append('\n');
+			accessWidener.append("accessible\tmethod\t").append(target).append('\t').append(method).append("\t()I\n");
+		}
+
+		String moduleClass = pkg+"/BenchModule";
+		ret.put(moduleClass+".class", createModuleClass(moduleClass));
+		ret.put(id+".mixins.json", utf8("{\"required\":true,\"minVersion\":\"0.8\",\"package\":\""+pkg.replace('/', '.')+".mixin\","
+				+ "\"compatibilityLevel\":\"JAVA_8\",\"mixins\":["+mixins+"],\"injectors\":{\"defaultRequire\":1}}"));
+		ret.put(id+".accesswidener", utf8(accessWidener.toString()));
+		ret.put("flintmodule.json", utf8("{\"id\":\""+id+"\",\"version\":\"1.0.0\",\"name\":\"Benchmark Module "+index+"\","
+				+ "\"mixins\":[\""+id+".mixins.json\"],\"accessWidener\":\""+id+".accesswidener\","
+				+ "\"entryPoints\":{\"main\":\""+moduleClass.replace('/', '.')+"\"}}"));
+
+		return ret;
+	}
+
+	private static byte[] utf8(String s) {
+		return s.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static byte[] createMainClass(String internalName) {
+		ClassWriter writer = new ClassWriter(0);
+		writer.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, internalName, null, "java/lang/Object", null);
+
+		MethodVisitor mv = writer.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "main", "([Ljava/lang/String;)V", null, null);
+		mv.visitCode();
+		mv.visitInsn(Opcodes.RETURN);
+		mv.visitMaxs(0, 1);
+		mv.visitEnd();
+
+		writer.visitEnd();
+
+		return writer.toByteArray();
+	}
+
+	private static byte[] createModuleClass(String internalName) {
+		ClassWriter writer = new ClassWriter(0);
+		writer.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, internalName, null, "java/lang/Object", new String[] { MODULE_INTERFACE });
+		visitConstructor(writer);
+
+		MethodVisitor mv = writer.visitMethod(Opcodes.ACC_PUBLIC, "initializeModule", "()V", null, null);
+		mv.visitCode();
+		mv.visitInsn(Opcodes.RETURN);
+		mv.visitMaxs(0, 1);
+		mv.visitEnd();
+
+		writer.visitEnd();
+
+		return writer.toByteArray();
+	}
+
+	/**
+	 * Create a mixin injecting an empty callback at the head of {@code method()I} in the target class.
+	 */
+	private static byte[] createMixinClass(String internalName, String target, String method) {
+		ClassWriter writer = new ClassWriter(0);
+		writer.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, internalName, null, "java/lang/Object", null);
+
+		AnnotationVisitor mixin = writer.visitAnnotation("Lorg/spongepowered/asm/mixin/Mixin;", false);
+		AnnotationVisitor targets = mixin.visitArray("targets");
+		targets.visit(null, target.replace('/', '.'));
+		targets.visitEnd();
+		mixin.visitEnd();
+
+		visitConstructor(writer);
+
+		MethodVisitor mv = writer.visitMethod(Opcodes.ACC_PRIVATE, "bench$onHead", "(L"+CALLBACK_INFO_RETURNABLE+";)V",
+				"(L"+CALLBACK_INFO_RETURNABLE+"<Ljava/lang/Integer;>;)V", null);
+		AnnotationVisitor inject = mv.visitAnnotation("Lorg/spongepowered/asm/mixin/injection/Inject;", true);
+		AnnotationVisitor methods = inject.visitArray("method");
+		methods.visit(null, method+"()I");
+		methods.visitEnd();
+		AnnotationVisitor at = inject.visitArray("at");
+		AnnotationVisitor head = at.visitAnnotation(null, "Lorg/spongepowered/asm/mixin/injection/At;");
+		head.visit("value", "HEAD");
+		head.visitEnd();
+		at.visitEnd();
+		inject.visitEnd();
+
+		mv.visitCode();
+		mv.visitInsn(Opcodes.RETURN);
+		mv.visitMaxs(0, 2);
+		mv.visitEnd();
+
+		writer.visitEnd();
+
+		return writer.toByteArray();
+	}
+
+	private static void visitConstructor(ClassWriter writer) {
+		MethodVisitor mv = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(Opcodes.ALOAD, 0);
+		mv.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+		mv.visitInsn(Opcodes.RETURN);
+		mv.visitMaxs(1, 1);
+		mv.visitEnd();
+	}
+}
@@ -0,0 +1,256 @@
+/**
+* Copyright 2016 FabricMC
+* Copyright 2024 Flint Loader Contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package net.flintloader.punch.jmh;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import net.flintloader.loader.api.FlintModule;
+import net.flintloader.loader.core.entrypoints.FlintEntryPoints;
+import net.flintloader.punch.impl.FormattedException;
+import net.flintloader.punch.impl.PunchLoaderImpl;
+import net.flintloader.punch.impl.game.GameProvider;
+import net.flintloader.punch.impl.game.GameProviderHelper;
+import net.flintloader.punch.impl.game.LibClassifier;
+import net.flintloader.punch.impl.game.patch.GameTransformer;
+import net.flintloader.punch.impl.launch.PunchLauncher;
+import net.flintloader.punch.impl.metrics.Tracer;
+import net.flintloader.punch.impl.util.Arguments;
+import net.flintloader.punch.impl.util.ExceptionUtil;
+import net.flintloader.punch.impl.util.SystemProperties;
+import net.flintloader.punch.impl.util.log.Log;
+
+/**
+ * Headless provider for the game generated by {@link SyntheticGame}, located through
+ * {@link SystemProperties#GAME_JAR_PATH_CLIENT}.
+ *
+ * <p>The provider is only enabled with {@value #ENABLE_PROPERTY} set. The JVM class path only holds the loader and the
+ * benchmark harness, so all of it stays on the parent class loader. Launching runs the empty game main method and then
+ * does what the game patches do for Minecraft: it loads every game class, applying the module's mixins and access
+ * wideners, and runs the startup hooks.
+ */
+public final class SyntheticGameProvider implements GameProvider {
+	public static final String ENABLE_PROPERTY = "flint.syntheticGame";
+
+	private final GameTransformer transformer = new GameTransformer();
+	private Arguments arguments;
+	private String version;
+	private String entrypoint;
+	private Path gameJar;
+	private Collection<Path> validParentClassPath;
+
+	@Override
+	public String getGameId() {
+		return SyntheticGame.GAME_ID;
+	}
+
+	@Override
+	public String getGameName() {
+		return "Synthetic Game";
+	}
+
+	@Override
+	public String getRawGameVersion() {
+		return version;
+	}
+
+	@Override
+	public String getNormalizedGameVersion() {
+		return version;
+	}
+
+	@Override
+	public String getEntrypoint() {
+		return entrypoint;
+	}
+
+	@Override
+	public Path getLaunchDirectory() {
+		if (arguments == null) {
+			return Paths.get(".");
+		}
+
+		return Paths.get(arguments.getOrDefault("gameDir", "."));
+	}
+
+	@Override
+	public boolean isObfuscated() {
+		return true;
+	}
+
+	@Override
+	public boolean requiresUrlClassLoader() {
+		return false;
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return Boolean.getBoolean(ENABLE_PROPERTY);
+	}
+
+	@Override
+	public boolean locateGame(PunchLauncher launcher, String[] args) {
+		try (Tracer.Span span = Tracer.begin("launch", "SyntheticGameProvider.locateGame")) {
+			return locateGame0(launcher, args);
+		}
+	}
+
+	private boolean locateGame0(PunchLauncher launcher, String[] args) {
+		arguments = new Arguments();
+		arguments.parse(args);
+
+		Path envGameJar = GameProviderHelper.getEnvGameJar();
+		if (envGameJar == null) return false;
+
+		try {
+			LibClassifier<SyntheticLibrary> classifier = new LibClassifier<>(SyntheticLibrary.class, this);
+			classifier.process(envGameJar);
+
+			gameJar = classifier.getOrigin(SyntheticLibrary.GAME);
+			if (gameJar == null) return false;
+
+			entrypoint = classifier.getClassName(SyntheticLibrary.GAME);
+		} catch (IOException e) {
+			throw ExceptionUtil.wrap(e);
+		}
+
+		version = System.getProperty(SystemProperties.GAME_VERSION, SyntheticGame.VERSION);
+		validParentClassPath = new ArrayList<>(launcher.getClassPath());
+		Log.configureBuiltin(false, true);
+
+		return true;
+	}
+
+	@Override
+	public void initialize(PunchLauncher launcher) {
+		try (Tracer.Span span = Tracer.begin("launch", "SyntheticGameProvider.initialize")) {
+			launcher.setValidParentClassPath(validParentClassPath);
+
+			Map<String, Path> obfJars = new HashMap<>(1);
+			obfJars.put("client", gameJar);
+			gameJar = GameProviderHelper.deobfuscate(obfJars, getGameId(), getNormalizedGameVersion(), getLaunchDirectory(), launcher).get("client");
+
+			transformer.locateEntrypoints(launcher, Collections.singletonList(gameJar), getLaunchDirectory().resolve(PunchLoaderImpl.CACHE_DIR_NAME));
+		}
+	}
+
+	@Override
+	public GameTransformer getEntrypointTransformer() {
+		return transformer;
+	}
+
+	@Override
+	public void unlockClassPath(PunchLauncher launcher) {
+		launcher.addToClassPath(gameJar);
+	}
+
+	@Override
+	public void launch(ClassLoader loader) {
+		try (Tracer.Span span = Tracer.begin("launch", "SyntheticGameProvider.main")) {
+			MethodHandle invoker;
+
+			try {
+				Class<?> c = loader.loadClass(entrypoint);
+				invoker = MethodHandles.lookup().findStatic(c, "main", MethodType.methodType(void.class, String[].class));
+			} catch (NoSuchMethodException | IllegalAccessException | ClassNotFoundException e) {
+				throw new FormattedException("Failed to start the synthetic game", e);
+			}
+
+			try {
+				invoker.invokeExact(arguments.toArray());
+			} catch (Throwable t) {
+				throw new FormattedException("The synthetic game has crashed!", t);
+			}
+		}
+
+		try (Tracer.Span span = Tracer.begin("launch", "SyntheticGameProvider.loadGameClasses")) {
+			for (String name : getGameClasses()) {
+				Class.forName(name, true, loader);
+			}
+		} catch (ClassNotFoundException | IOException e) {
+			throw new FormattedException("The synthetic game has crashed!", e);
+		}
+
+		PunchLoaderImpl.INSTANCE.prepareModuleInit(getLaunchDirectory(), null);
+		FlintEntryPoints.invoke("main", FlintModule.class, FlintModule::initializeModule);
+		PunchLoaderImpl.INSTANCE.finishStartup();
+	}
+
+	private List<String> getGameClasses() throws IOException {
+		List<String> ret = new ArrayList<>();
+
+		try (ZipFile zf = new ZipFile(gameJar.toFile())) {
+			for (Enumeration<? extends ZipEntry> e = zf.entries(); e.hasMoreElements(); ) {
+				String name = e.nextElement().getName();
+
+				if (name.endsWith(".class")) {
+					ret.add(name.substring(0, name.length() - 6).replace('/', '.'));
+				}
+			}
+		}
+
+		return ret;
+	}
+
+	@Override
+	public Arguments getArguments() {
+		return arguments;
+	}
+
+	@Override
+	public String[] getLaunchArguments(boolean sanitize) {
+		return arguments != null ? arguments.toArray() : new String[0];
+	}
+
+	@Override
+	public boolean canOpenErrorGui() {
+		return false;
+	}
+
+	@Override
+	public boolean hasAwtSupport() {
+		return false;
+	}
+
+	enum SyntheticLibrary implements LibClassifier.LibraryType {
+		GAME(SyntheticGame.MAIN_CLASS.replace('.', '/')+".class");
+
+		private final String[] paths;
+
+		SyntheticLibrary(String... paths) {
+			this.paths = paths;
+		}
+
+		@Override
+		public String[] getPaths() {
+			return paths;
+		}
+	}
+}
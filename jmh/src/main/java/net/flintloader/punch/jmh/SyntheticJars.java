@@ -0,0 +1,222 @@
+/**
+* Copyright 2016 FabricMC
+* Copyright 2024 Flint Loader Contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package net.flintloader.punch.jmh;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import net.fabricmc.mapping.tree.TinyMappingFactory;
+import net.fabricmc.mapping.tree.TinyTree;
+
+/**
+ * Generates the jars, classes and mappings the benchmarks run against, so no game or network access is needed.
+ *
+ * <p>Generated classes have {@value #MEMBERS} int fields {@code f<i>} and methods {@code m<i>()I}. Mappings use the
+ * namespaces official, intermediary and named, mapping class {@code i} from an obfuscated name to
+ * {@code net/minecraft/class_<i>} and {@code net/minecraft/bench/Named<i>}.
+ */
+public final class SyntheticJars {
+	public static final int MEMBERS = 4;
+
+	private SyntheticJars() { }
+
+	public static Path createTempDir() {
+		try {
+			return Files.createTempDirectory("punch-jmh");
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public static void delete(Path path) {
+		if (path == null || !Files.exists(path)) return;
+
+		try {
+			Files.walkFileTree(path, new SimpleFileVisitor<Path>() {
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+					Files.delete(file);
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+					Files.delete(dir);
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Binary class names spread over packages of up to 64 classes, e.g. {@code bench.mod.p0.C0}.
+	 */
+	public static List<String> classNames(String packagePrefix, int count) {
+		List<String> ret = new ArrayList<>(count);
+
+		for (int i = 0; i < count; i++) {
+			ret.add(packagePrefix+".p"+(i / 64)+".C"+i);
+		}
+
+		return ret;
+	}
+
+	/**
+	 * Short obfuscated names without package like {@code a}, {@code b}, .., {@code aa}.
+	 */
+	public static String obfuscatedName(int index) {
+		StringBuilder sb = new StringBuilder();
+
+		do {
+			sb.append((char) ('a' + index % 26));
+			index = index / 26 - 1;
+		} while (index >= 0);
+
+		return sb.reverse().toString();
+	}
+
+	public static byte[] createClass(String internalName) {
+		ClassWriter writer = new ClassWriter(0);
+		writer.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, internalName, null, "java/lang/Object", null);
+
+		MethodVisitor mv = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(Opcodes.ALOAD, 0);
+		mv.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+		mv.visitInsn(Opcodes.RETURN);
+		mv.visitMaxs(1, 1);
+		mv.visitEnd();
+
+		for (int i = 0; i < MEMBERS; i++) {
+			writer.visitField(Opcodes.ACC_PUBLIC, "f"+i, "I", null, null).visitEnd();
+
+			mv = writer.visitMethod(Opcodes.ACC_PUBLIC, "m"+i, "()I", null, null);
+			mv.visitCode();
+			mv.visitLdcInsn(i);
+			mv.visitInsn(Opcodes.IRETURN);
+			mv.visitMaxs(1, 1);
+			mv.visitEnd();
+		}
+
+		writer.visitEnd();
+
+		return writer.toByteArray();
+	}
+
+	/**
+	 * Write a jar containing a generated class for each binary class name.
+	 */
+	public static Path writeClassJar(Path file, List<String> classNames) {
+		Map<String, byte[]> entries = new LinkedHashMap<>(classNames.size());
+
+		for (String name : classNames) {
+			String internalName = name.replace('.', '/');
+			entries.put(internalName+".class", createClass(internalName));
+		}
+
+		return writeJar(file, entries);
+	}
+
+	public static Path writeJar(Path file, Map<String, byte[]> entries) {
+		return writeJar(file, entries, Collections.emptyMap());
+	}
+
+	/**
+	 * Write a jar with additional main manifest attributes.
+	 */
+	public static Path writeJar(Path file, Map<String, byte[]> entries, Map<String, String> attributes) {
+		Manifest manifest = new Manifest();
+		manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+
+		for (Map.Entry<String, String> entry : attributes.entrySet()) {
+			manifest.getMainAttributes().putValue(entry.getKey(), entry.getValue());
+		}
+
+		try {
+			Files.createDirectories(file.toAbsolutePath().getParent());
+
+			try (OutputStream os = Files.newOutputStream(file);
+					JarOutputStream jos = new JarOutputStream(os, manifest)) {
+				for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+					jos.putNextEntry(new JarEntry(entry.getKey()));
+					jos.write(entry.getValue());
+					jos.closeEntry();
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		return file;
+	}
+
+	/**
+	 * Create tiny v2 mappings for {@code classCount} classes with the generated members.
+	 */
+	public static String createMappings(int classCount) {
+		StringBuilder sb = new StringBuilder("tiny\t2\t0\tofficial\tintermediary\tnamed\n");
+		int member = 0;
+
+		for (int i = 0; i < classCount; i++) {
+			String obf = obfuscatedName(i);
+			sb.append("c\t").append(obf).append("\tnet/minecraft/class_").append(i).append("\tnet/minecraft/bench/Named").append(i).append('\n');
+
+			for (int j = 0; j < MEMBERS; j++, member++) {
+				sb.append("\tf\tI\tf").append(j).append("\tfield_").append(member).append("\tvalue").append(member).append('\n');
+				sb.append("\tm\t()I\tm").append(j).append("\tmethod_").append(member).append("\tcompute").append(member).append('\n');
+			}
+
+			// method referencing the previous class to require descriptor mapping
+			String other = obfuscatedName(Math.max(0, i - 1));
+			sb.append("\tm\t(L").append(other).append(";)V\tm").append(MEMBERS).append("\tmethod_").append(member).append("\taccept").append(member).append('\n');
+			member++;
+		}
+
+		return sb.toString();
+	}
+
+	public static TinyTree loadMappings(String mappings) {
+		try (BufferedReader reader = new BufferedReader(new StringReader(mappings))) {
+			return TinyMappingFactory.loadWithDetection(reader);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -49,6 +49,7 @@ public final class Hooks {
 
 		PunchLoaderImpl.INSTANCE.prepareModuleInit(runDir.toPath(), gameInstance);
 		FlintEntryPoints.invoke("main", FlintModule.class, FlintModule::initializeModule);
+		PunchLoaderImpl.INSTANCE.finishStartup();
 	}
 
 	public static void setGameInstance(Object gameInstance) {
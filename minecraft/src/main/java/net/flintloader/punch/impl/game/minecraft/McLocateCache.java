@@ -0,0 +1,159 @@
+/**
+* Copyright 2016 FabricMC
+* Copyright 2024 Flint Loader Contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package net.flintloader.punch.impl.game.minecraft;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.OptionalInt;
+
+import net.flintloader.punch.impl.PunchLoaderImpl;
+import net.flintloader.punch.impl.game.ClassPathFingerprint;
+import net.flintloader.punch.impl.game.LibClassifier;
+import net.flintloader.punch.impl.util.SystemProperties;
+import net.flintloader.punch.impl.util.log.Log;
+import net.flintloader.punch.impl.util.log.LogCategory;
+
+/**
+ * Persists the class path classification and version detection of {@link MinecraftGameProvider#locateGame}.
+ *
+ * <p>The stored result is only reused if the configuration key and the fingerprint of all input jars still match, which
+ * costs one stat per class path entry instead of scanning every jar and analyzing the game classes.
+ */
+final class McLocateCache {
+	private static final int MAGIC = 0x464C4D43;
+	private static final int FORMAT_VERSION = 1;
+	private static final String FILE_NAME = "minecraft-locate.bin";
+
+	private final Path file;
+	private final String key;
+	private final ClassPathFingerprint fingerprint;
+
+	private McLocateCache(Path file, String key, ClassPathFingerprint fingerprint) {
+		this.file = file;
+		this.key = key;
+		this.fingerprint = fingerprint;
+	}
+
+	/**
+	 * Create the cache for the current launch.
+	 *
+	 * @param inputs all jars the result is derived from
+	 * @param key other inputs affecting the result, such as system properties
+	 * @return the cache or null if it is disabled or the inputs can't be fingerprinted
+	 */
+	static McLocateCache create(Path gameDir, Collection<Path> inputs, String key) {
+		if (System.getProperty(SystemProperties.DEBUG_DISABLE_PROVIDER_CACHE) != null) return null;
+
+		ClassPathFingerprint fingerprint = ClassPathFingerprint.create(inputs);
+
+		if (fingerprint == null) {
+			Log.debug(LogCategory.GAME_PROVIDER, "Class path contains directories or missing entries, not caching its classification");
+			return null;
+		}
+
+		return new McLocateCache(gameDir.resolve(PunchLoaderImpl.CACHE_DIR_NAME).resolve(FILE_NAME), key, fingerprint);
+	}
+
+	/**
+	 * Restore the classification into the unused classifier and return the game version if the cache is valid.
+	 *
+	 * @return the cached version or null if there is no valid cache, leaving the classifier untouched
+	 */
+	McVersion read(LibClassifier<McLibrary> classifier) {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			if (in.readInt() != MAGIC
+					|| in.readInt() != FORMAT_VERSION
+					|| !in.readUTF().equals(key)
+					|| !ClassPathFingerprint.read(in).equals(fingerprint)) {
+				Log.debug(LogCategory.GAME_PROVIDER, "Game provider cache %s is outdated", file);
+				return null;
+			}
+
+			String id = readNullableUTF(in);
+			String name = readNullableUTF(in);
+			String raw = in.readUTF();
+			String normalized = in.readUTF();
+			int classVersion = in.readInt();
+			McVersion ret = new McVersion(id, name, raw, normalized, classVersion >= 0 ? OptionalInt.of(classVersion) : OptionalInt.empty());
+
+			classifier.read(in);
+			Log.debug(LogCategory.GAME_PROVIDER, "Reusing game provider cache %s", file);
+
+			return ret;
+		} catch (NoSuchFileException e) {
+			return null;
+		} catch (IOException e) {
+			Log.debug(LogCategory.GAME_PROVIDER, "Error reading game provider cache %s", file, e);
+			return null;
+		}
+	}
+
+	void write(LibClassifier<McLibrary> classifier, McVersion version) {
+		Path tmpFile = file.resolveSibling(file.getFileName()+".tmp");
+
+		try {
+			Files.createDirectories(file.getParent());
+
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+				out.writeInt(MAGIC);
+				out.writeInt(FORMAT_VERSION);
+				out.writeUTF(key);
+				fingerprint.write(out);
+
+				writeNullableUTF(out, version.getId());
+				writeNullableUTF(out, version.getName());
+				out.writeUTF(version.getRaw());
+				out.writeUTF(version.getNormalized());
+				out.writeInt(version.getClassVersion().orElse(-1));
+
+				classifier.write(out);
+			}
+
+			try {
+				Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException e) {
+			Log.warn(LogCategory.GAME_PROVIDER, "Error writing game provider cache %s", file, e);
+
+			try {
+				Files.deleteIfExists(tmpFile);
+			} catch (IOException ignore) {
+				// pass
+			}
+		}
+	}
+
+	private static String readNullableUTF(DataInputStream in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+
+	private static void writeNullableUTF(DataOutputStream out, String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) out.writeUTF(value);
+	}
+}
@@ -42,11 +42,11 @@ public final class McVersion {
 	private final String normalized;
 	private final OptionalInt classVersion;
 
-	private McVersion(String id, String name, String raw, String release, OptionalInt classVersion) {
+	McVersion(String id, String name, String raw, String normalized, OptionalInt classVersion) {
 		this.id = id;
 		this.name = name;
 		this.raw = raw;
-		this.normalized = McVersionLookup.normalizeVersion(raw, release);
+		this.normalized = normalized;
 		this.classVersion = classVersion;
 	}
 
@@ -124,7 +124,7 @@ public final class McVersion {
 		}
 
 		public McVersion build() {
-			return new McVersion(this.id, this.name, this.version, this.release, this.classVersion);
+			return new McVersion(this.id, this.name, this.version, McVersionLookup.normalizeVersion(this.version, this.release), this.classVersion);
 		}
 	}
 }
@@ -16,6 +16,7 @@
 **/
 package net.flintloader.punch.impl.game.minecraft;
 
+import java.io.File;
 import java.io.IOException;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
@@ -25,6 +26,7 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -44,6 +46,7 @@ import net.flintloader.punch.impl.game.minecraft.patch.EntrypointPatchFML125;
 import net.flintloader.punch.impl.game.minecraft.patch.TinyFDPatch;
 import net.flintloader.punch.impl.game.patch.GameTransformer;
 import net.flintloader.punch.impl.launch.PunchLauncher;
+import net.flintloader.punch.impl.metrics.Tracer;
 import net.flintloader.punch.impl.util.Arguments;
 import net.flintloader.punch.impl.util.ExceptionUtil;
 import net.flintloader.punch.impl.util.LoaderUtil;
@@ -139,6 +142,12 @@ public class MinecraftGameProvider implements GameProvider {
 
 	@Override
 	public boolean locateGame(PunchLauncher launcher, String[] args) {
+		try (Tracer.Span span = Tracer.begin("launch", "MinecraftGameProvider.locateGame")) {
+			return locateGame0(launcher, args);
+		}
+	}
+
+	private boolean locateGame0(PunchLauncher launcher, String[] args) {
 		this.arguments = new Arguments();
 		arguments.parse(args);
 
@@ -149,11 +158,19 @@ public class MinecraftGameProvider implements GameProvider {
 			Path envGameJar = GameProviderHelper.getEnvGameJar();
 			boolean commonGameJarDeclared = commonGameJar != null;
 
-			if (envGameJar != null) {
-				classifier.process(envGameJar);
-			}
+			String version = arguments.remove(Arguments.GAME_VERSION);
+			if (version == null) version = System.getProperty(SystemProperties.GAME_VERSION);
+
+			McLocateCache cache = createLocateCache(launcher, classifier, envGameJar, commonGameJar, version);
+			versionData = cache != null ? cache.read(classifier) : null;
+
+			if (versionData == null) {
+				if (envGameJar != null) {
+					classifier.process(envGameJar);
+				}
 
-			classifier.process(launcher.getClassPath());
+				classifier.process(launcher.getClassPath());
+			}
 
 			envGameJar = classifier.getOrigin(envGameLib);
 			if (envGameJar == null) return false;
@@ -187,6 +204,11 @@ public class MinecraftGameProvider implements GameProvider {
 
 			miscGameLibraries.addAll(classifier.getUnmatchedOrigins());
 			validParentClassPath = classifier.getSystemLibraries();
+
+			if (versionData == null) {
+				versionData = McVersionLookup.getVersion(gameJars, entrypoint, version);
+				if (cache != null) cache.write(classifier, versionData);
+			}
 		} catch (IOException e) {
 			throw ExceptionUtil.wrap(e);
 		}
@@ -197,15 +219,34 @@ public class MinecraftGameProvider implements GameProvider {
 		share.put("flint-loader:inputGameJars", gameJars);
 		if (realmsJar != null) share.put("flint-loader:inputRealmsJar", realmsJar);
 
-		String version = arguments.remove(Arguments.GAME_VERSION);
-		if (version == null) version = System.getProperty(SystemProperties.GAME_VERSION);
-		versionData = McVersionLookup.getVersion(gameJars, entrypoint, version);
-
 		processArgumentMap(arguments);
 
 		return true;
 	}
 
+	private McLocateCache createLocateCache(PunchLauncher launcher, LibClassifier<McLibrary> classifier, Path envGameJar, Path commonGameJar, String version) {
+		List<Path> inputs = new ArrayList<>(launcher.getClassPath().size() + 2);
+		if (envGameJar != null) inputs.add(envGameJar);
+		if (commonGameJar != null) inputs.add(commonGameJar);
+		inputs.addAll(launcher.getClassPath());
+
+		List<String> systemLibraries = new ArrayList<>();
+
+		for (Path path : classifier.getSystemLibraries()) {
+			systemLibraries.add(path.toString());
+		}
+
+		Collections.sort(systemLibraries);
+
+		String key = String.join("\n", PunchLoaderImpl.VERSION,
+				String.valueOf(envGameJar),
+				String.valueOf(commonGameJar),
+				String.valueOf(version),
+				String.join(File.pathSeparator, systemLibraries));
+
+		return McLocateCache.create(getLaunchDirectory(), inputs, key);
+	}
+
 	private static void processArgumentMap(Arguments argMap) {
 		if (!argMap.containsKey("accessToken")) {
 			argMap.put("accessToken", "FlintMC");
@@ -234,6 +275,12 @@ public class MinecraftGameProvider implements GameProvider {
 
 	@Override
 	public void initialize(PunchLauncher launcher) {
+		try (Tracer.Span span = Tracer.begin("launch", "MinecraftGameProvider.initialize")) {
+			initialize0(launcher);
+		}
+	}
+
+	private void initialize0(PunchLauncher launcher) {
 		launcher.setValidParentClassPath(validParentClassPath);
 
 		if (isObfuscated()) {
@@ -287,7 +334,11 @@ public class MinecraftGameProvider implements GameProvider {
 
 		setupLogHandler(launcher, true);
 
-		transformer.locateEntrypoints(launcher, gameJars);
+		if (entrypoint.contains("Applet")) {
+			Hooks.appletMainClass = entrypoint;
+		}
+
+		transformer.locateEntrypoints(launcher, gameJars, getLaunchDirectory().resolve(PunchLoaderImpl.CACHE_DIR_NAME));
 	}
 
 	private void setupLogHandler(PunchLauncher launcher, boolean useTargetCl) {
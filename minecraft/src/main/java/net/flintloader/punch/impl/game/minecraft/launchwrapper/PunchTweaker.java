@@ -45,6 +45,7 @@ import net.flintloader.punch.impl.launch.FlintMixinBootstrap;
 import net.flintloader.punch.impl.launch.PunchLauncherBase;
 import net.flintloader.punch.impl.util.Arguments;
 import net.flintloader.punch.impl.util.FileSystemUtil;
+import net.flintloader.punch.impl.util.JarRegistry;
 import net.flintloader.punch.impl.util.LoaderUtil;
 import net.flintloader.punch.impl.util.ManifestUtil;
 import net.flintloader.punch.impl.util.SystemProperties;
@@ -144,6 +145,7 @@ public abstract class PunchTweaker extends PunchLauncherBase implements ITweaker
 		arguments = null;
 
 		provider.initialize(this);
+		JarRegistry.get().closeIdle(); // the provider is done reading the game jars
 
 		PunchLoaderImpl loader = PunchLoaderImpl.INSTANCE;
 		loader.setGameProvider(provider);
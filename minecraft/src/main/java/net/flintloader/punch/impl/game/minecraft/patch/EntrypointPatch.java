@@ -70,7 +70,7 @@ public class EntrypointPatch extends GamePatch {
 		String gameEntrypoint = null;
 		boolean serverHasFile = true;
 		boolean isApplet = entrypoint.contains("Applet");
-		ClassNode mainClass = classSource.apply(entrypoint);
+		ClassNode mainClass = inspectClass(classSource, entrypoint); // only searched, re-read below if it has to be patched
 
 		if (mainClass == null) {
 			throw new RuntimeException("Could not load main class " + entrypoint + "!");
@@ -155,7 +155,7 @@ public class EntrypointPatch extends GamePatch {
 		ClassNode gameClass;
 
 		if (gameEntrypoint.equals(entrypoint) || is20w22aServerOrHigher) {
-			gameClass = mainClass;
+			gameClass = classSource.apply(entrypoint);
 		} else {
 			gameClass = classSource.apply(gameEntrypoint);
 			if (gameClass == null) throw new RuntimeException("Could not load game class " + gameEntrypoint + "!");
@@ -222,7 +222,7 @@ public class EntrypointPatch extends GamePatch {
 				}
 			}
 		} else {
-			gameMethod = findMethod(mainClass, (method) -> method.name.equals("main") && method.desc.equals("([Ljava/lang/String;)V") && isPublicStatic(method.access));
+			gameMethod = findMethod(gameClass, (method) -> method.name.equals("main") && method.desc.equals("([Ljava/lang/String;)V") && isPublicStatic(method.access));
 		}
 
 		if (gameMethod == null) {
@@ -332,15 +332,7 @@ public class EntrypointPatch extends GamePatch {
 			throw new RuntimeException("Game constructor patch not applied!");
 		}
 
-		if (gameClass != mainClass) {
-			classEmitter.accept(gameClass);
-		} else {
-			classEmitter.accept(mainClass);
-		}
-
-		if (isApplet) {
-			Hooks.appletMainClass = entrypoint;
-		}
+		classEmitter.accept(gameClass);
 	}
 
 	private boolean hasSuperClass(String cls, String superCls, Function<String, ClassNode> classSource) {
@@ -348,7 +340,7 @@ public class EntrypointPatch extends GamePatch {
 			return false;
 		}
 
-		ClassNode classNode = classSource.apply(cls);
+		ClassNode classNode = inspectClass(classSource, cls);
 
 		return classNode != null && classNode.superName.equals(superCls);
 	}
@@ -358,7 +350,7 @@ public class EntrypointPatch extends GamePatch {
 			return false;
 		}
 
-		ClassNode node = classSource.apply(cls);
+		ClassNode node = inspectClass(classSource, cls);
 		if (node == null) return false;
 
 		for (MethodNode method : node.methods) {
@@ -40,8 +40,8 @@ public class EntrypointPatchFML125 extends GamePatch {
 
 	@Override
 	public void process(PunchLauncher launcher, Function<String, ClassNode> classSource, Consumer<ClassNode> classEmitter) {
-		if (classSource.apply(TO) != null
-				&& classSource.apply("cpw.mods.fml.relauncher.FMLRelauncher") == null) {
+		if (hasClass(classSource, TO)
+				&& !hasClass(classSource, "cpw.mods.fml.relauncher.FMLRelauncher")) {
 			if (!(launcher instanceof Punch)) {
 				throw new RuntimeException("1.2.5 FML patch only supported on Punch!");
 			}
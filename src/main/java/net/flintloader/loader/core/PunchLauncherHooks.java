@@ -29,6 +29,7 @@ import net.flintloader.loader.api.FlintModuleContainer;
 import net.flintloader.loader.core.entrypoints.FlintEntryPoints;
 import net.flintloader.loader.modules.FlintModuleMetadata;
 import net.flintloader.loader.modules.ModuleList;
+import net.flintloader.loader.modules.ModuleRegistry;
 import net.flintloader.loader.modules.Strings;
 import net.flintloader.loader.modules.entrypoint.EntryPointUtil;
 import net.flintloader.punch.impl.launch.PunchLauncherBase;
@@ -59,13 +60,9 @@ public final class PunchLauncherHooks {
 	public static void finishModuleSetup() {
 		checkDependencies();
 
-		for (FlintModuleContainer module : ModuleList.getInstance().allModules()) {
-			if (!module.getMetadata().isBuiltIn()) {
-				if (!module.getMetadata().getId().equalsIgnoreCase("flintloader")) {
-					for (Path p : module.getRootPaths()) {
-						PunchLauncherBase.getLauncher().addToClassPath(LoaderUtil.normalizePath(p));
-					}
-				}
+		for (FlintModuleContainer module : ModuleList.getInstance().getRegistry().getNonBuiltIn()) {
+			for (Path p : module.getRootPaths()) {
+				PunchLauncherBase.getLauncher().addToClassPath(LoaderUtil.normalizePath(p));
 			}
 		}
     }
@@ -77,42 +74,42 @@ public final class PunchLauncherHooks {
 		List<String> missing = new ArrayList<>();
 		List<String> invalid = new ArrayList<>();
 
-		for (FlintModuleContainer container : ModuleList.getInstance().allModules()) {
+		ModuleRegistry registry = ModuleList.getInstance().getRegistry();
+
+		for (FlintModuleContainer container : registry.getNonBuiltIn()) {
 			FlintModuleMetadata meta = container.getMetadata();
 
 			/* Check for required modules */
-			if (!meta.isBuiltIn()) {
-				meta.getDepends().forEach((depId, depVersion) -> {
-					if (!ModuleList.getInstance().isModuleLoaded(depId)) {
-						missing.add(Strings.MISSING_DEP.resolve(meta.getId(), depId));
-					} else {
-						FlintModuleMetadata metadata = ModuleList.getInstance().getModuleMeta(depId);
-						if (metadata == null)
-							return;
-
-						Semver depVer = new Semver(metadata.getVersion(), Semver.SemverType.COCOAPODS);
-						if (!depVer.satisfies(depVersion)) {
-							String errType = depVer.isGreaterThan(depVersion) ? "greater than" : "less than";
-							invalid.add(Strings.WRONG_DEP_VERSION.resolve(meta.getId(), errType, depVersion, depVer.getOriginalValue()));
-						}
+			meta.getDepends().forEach((depId, depVersion) -> {
+				FlintModuleContainer dep = registry.get(depId);
+
+				if (dep == null) {
+					missing.add(Strings.MISSING_DEP.resolve(meta.getId(), depId));
+				} else {
+					FlintModuleMetadata metadata = dep.getMetadata();
+
+					Semver depVer = new Semver(metadata.getVersion(), Semver.SemverType.COCOAPODS);
+					if (!depVer.satisfies(depVersion)) {
+						String errType = depVer.isGreaterThan(depVersion) ? "greater than" : "less than";
+						invalid.add(Strings.WRONG_DEP_VERSION.resolve(meta.getId(), errType, depVersion, depVer.getOriginalValue()));
 					}
-				});
-
-				/* Check for breaking modules */
-				meta.getBreaks().forEach((depid, depVersion) -> {
-					if (ModuleList.getInstance().isModuleLoaded(depid)) {
-						FlintModuleMetadata metadata = ModuleList.getInstance().getModuleMeta(depid);
-						if (metadata == null)
-							return;
-
-						Semver depVer = new Semver(metadata.getVersion(), Semver.SemverType.COCOAPODS);
-						if (depVer.satisfies(depVersion)) {
-							String errType = depVer.isGreaterThan(depVersion) ? "greater than" : "less than";
-							invalid.add(Strings.BREAKS.resolve(meta.getId(), errType, depVersion, depVer.getOriginalValue()));
-						}
+				}
+			});
+
+			/* Check for breaking modules */
+			meta.getBreaks().forEach((depid, depVersion) -> {
+				FlintModuleContainer dep = registry.get(depid);
+
+				if (dep != null) {
+					FlintModuleMetadata metadata = dep.getMetadata();
+
+					Semver depVer = new Semver(metadata.getVersion(), Semver.SemverType.COCOAPODS);
+					if (depVer.satisfies(depVersion)) {
+						String errType = depVer.isGreaterThan(depVersion) ? "greater than" : "less than";
+						invalid.add(Strings.BREAKS.resolve(meta.getId(), errType, depVersion, depVer.getOriginalValue()));
 					}
-				});
-			}
+				}
+			});
 		}
 
 		// TODO - Handle incompatible mod sets!
@@ -122,13 +119,16 @@ public final class PunchLauncherHooks {
 	 * Discover declared entry points from modules
 	 */
 	public static void gatherEntryPoints() {
-		for (FlintModuleContainer container : ModuleList.getInstance().allModules()) {
-			FlintModuleMetadata metadata = container.getMetadata();
-			if (metadata.isBuiltIn() || metadata.getEntryPoints() == null || metadata.getEntryPoints().isEmpty())
-				continue;
+		ModuleRegistry registry = ModuleList.getInstance().getRegistry();
 
-			metadata.getEntryPoints().forEach((s, k) -> FlintEntryPoints.add(metadata, s, k));
+		for (String key : registry.getEntryPointKeys()) {
+			for (FlintModuleContainer container : registry.getEntryPointProviders(key)) {
+				FlintModuleMetadata metadata = container.getMetadata();
+				FlintEntryPoints.add(metadata, key, metadata.getEntryPoints().get(key));
+			}
 		}
+
+		FlintEntryPoints.freeze();
 	}
 
 }
@@ -0,0 +1,175 @@
+/**
+* Copyright 2016 FabricMC
+* Copyright 2024 Flint Loader Contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package net.flintloader.loader.core.entrypoints;
+
+import net.flintloader.punch.impl.util.log.Log;
+import net.flintloader.punch.impl.util.log.LogCategory;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates interface implementations for method entrypoints ({@code Class::method}) through {@link LambdaMetafactory}.
+ *
+ * <p>The generated class calls the target method directly, unlike the {@link java.lang.reflect.Proxy} created by
+ * {@link java.lang.invoke.MethodHandleProxies}. Defining it requires a full privilege lookup on the target class, which
+ * is only available on Java 9+.
+ *
+ * <p>Mod classes live in the unnamed module of the mod class loader, a lookup obtained from here through
+ * {@code privateLookupIn} lacks module access on Java 14+ and gets rejected by the metafactory. A small lookup provider
+ * class is thus defined next to the target class, the lookup it returns is in the target's module.
+ */
+final class EntryPointAdapterFactory {
+	private static final MethodHandle PRIVATE_LOOKUP_IN = findLookupMethod("privateLookupIn",
+			MethodType.methodType(MethodHandles.Lookup.class, Class.class, MethodHandles.Lookup.class), true);
+	private static final MethodHandle DEFINE_CLASS = findLookupMethod("defineClass",
+			MethodType.methodType(Class.class, byte[].class), false);
+	private static final String LOOKUP_PROVIDER_NAME = "FlintLookupProvider$";
+	private static final AtomicInteger LOOKUP_PROVIDER_ID = new AtomicInteger();
+	private static final ClassValue<MethodHandles.Lookup> TARGET_LOOKUPS = new ClassValue<MethodHandles.Lookup>() {
+		@Override
+		protected MethodHandles.Lookup computeValue(Class<?> owner) {
+			try {
+				return createTargetLookup(owner);
+			} catch (Throwable t) {
+				throw new RuntimeException("Can't create lookup for "+owner.getName(), t);
+			}
+		}
+	};
+
+	private EntryPointAdapterFactory() { }
+
+	private static MethodHandle findLookupMethod(String name, MethodType type, boolean isStatic) {
+		try {
+			if (isStatic) {
+				return MethodHandles.lookup().findStatic(MethodHandles.class, name, type);
+			} else {
+				return MethodHandles.lookup().findVirtual(MethodHandles.Lookup.class, name, type);
+			}
+		} catch (NoSuchMethodException | IllegalAccessException e) { // Java 8
+			return null;
+		}
+	}
+
+	/**
+	 * Whether adapters can be generated at all, false on Java 8.
+	 */
+	static boolean isSupported() {
+		return PRIVATE_LOOKUP_IN != null && DEFINE_CLASS != null;
+	}
+
+	/**
+	 * Create an implementation of the functional interface type delegating to the target method.
+	 *
+	 * @param receiver instance to invoke the target on, null for static methods
+	 * @return the implementation or null if it can't be generated and the caller has to fall back to a proxy
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> T create(Class<?> owner, Method target, Object receiver, Class<T> type) {
+		if (!isSupported()) return null;
+
+		Method sam = findSingleAbstractMethod(type);
+
+		if (sam == null) {
+			Log.warn(LogCategory.ENTRYPOINT, "Can't generate adapter for %s::%s, %s isn't a functional interface, falling back to proxy", owner.getName(), target.getName(), type.getName());
+			return null;
+		}
+
+		try {
+			// the interface has to resolve to the same class from the target's loader for the generated class to link
+			if (Class.forName(type.getName(), false, owner.getClassLoader()) != type) {
+				Log.warn(LogCategory.ENTRYPOINT, "Can't generate adapter for %s::%s, %s resolves to a different class from its class loader, falling back to proxy", owner.getName(), target.getName(), type.getName());
+				return null;
+			}
+
+			MethodHandles.Lookup lookup = TARGET_LOOKUPS.get(owner);
+			MethodHandle impl = lookup.unreflect(target);
+			MethodType samType = MethodType.methodType(sam.getReturnType(), sam.getParameterTypes());
+			MethodType factoryType = receiver == null ? MethodType.methodType(type) : MethodType.methodType(type, owner);
+
+			CallSite site = LambdaMetafactory.metafactory(lookup, sam.getName(), factoryType, samType, impl, samType);
+
+			return (T) (receiver == null ? site.getTarget().invoke() : site.getTarget().invoke(receiver));
+		} catch (Throwable t) {
+			Log.warn(LogCategory.ENTRYPOINT, "Can't generate adapter for %s::%s, falling back to proxy", owner.getName(), target.getName(), t);
+			return null;
+		}
+	}
+
+	/**
+	 * Obtain a full privilege lookup on owner by defining a lookup provider class in its package.
+	 */
+	private static MethodHandles.Lookup createTargetLookup(Class<?> owner) throws Throwable {
+		// private access suffices for defining a class in the same package, but lacks module access across modules
+		MethodHandles.Lookup ownerLookup = (MethodHandles.Lookup) PRIVATE_LOOKUP_IN.invokeExact(owner, MethodHandles.lookup());
+		Class<?> provider = (Class<?>) DEFINE_CLASS.invokeExact(ownerLookup, createLookupProvider(owner));
+		MethodHandles.Lookup providerLookup = (MethodHandles.Lookup) provider.getMethod("lookup").invoke(null);
+
+		// the provider's lookup is in the target's module, so its private lookup on owner retains full privileges
+		return (MethodHandles.Lookup) PRIVATE_LOOKUP_IN.invokeExact(owner, providerLookup);
+	}
+
+	private static byte[] createLookupProvider(Class<?> owner) {
+		String ownerName = owner.getName().replace('.', '/');
+		String name = ownerName.substring(0, ownerName.lastIndexOf('/') + 1)+LOOKUP_PROVIDER_NAME+LOOKUP_PROVIDER_ID.incrementAndGet();
+		String lookupDesc = "()Ljava/lang/invoke/MethodHandles$Lookup;";
+
+		ClassWriter writer = new ClassWriter(0);
+		writer.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER | Opcodes.ACC_SYNTHETIC, name, null, "java/lang/Object", null);
+
+		MethodVisitor mv = writer.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "lookup", lookupDesc, null, null);
+		mv.visitCode();
+		mv.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/invoke/MethodHandles", "lookup", lookupDesc, false);
+		mv.visitInsn(Opcodes.ARETURN);
+		mv.visitMaxs(1, 0);
+		mv.visitEnd();
+		writer.visitEnd();
+
+		return writer.toByteArray();
+	}
+
+	private static Method findSingleAbstractMethod(Class<?> type) {
+		Method ret = null;
+
+		for (Method m : type.getMethods()) {
+			if (!Modifier.isAbstract(m.getModifiers()) || isObjectMethod(m)) continue;
+			if (ret != null) return null;
+
+			ret = m;
+		}
+
+		return ret;
+	}
+
+	private static boolean isObjectMethod(Method m) {
+		try {
+			Object.class.getMethod(m.getName(), m.getParameterTypes());
+			return true;
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+}
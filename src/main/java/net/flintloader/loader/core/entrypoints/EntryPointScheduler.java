@@ -0,0 +1,250 @@
+/**
+* Copyright 2016 FabricMC
+* Copyright 2024 Flint Loader Contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package net.flintloader.loader.core.entrypoints;
+
+import net.flintloader.loader.api.FlintModuleContainer;
+import net.flintloader.loader.modules.FlintModuleMetadata;
+import net.flintloader.loader.modules.ModuleList;
+import net.flintloader.loader.modules.ModuleRegistry;
+import net.flintloader.punch.impl.launch.PunchLauncherBase;
+import net.flintloader.punch.impl.util.ExceptionUtil;
+import net.flintloader.punch.impl.util.SystemProperties;
+import net.flintloader.punch.impl.util.log.Log;
+import net.flintloader.punch.impl.util.log.LogCategory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs an entrypoint stage as a dependency graph, letting entrypoints declared in parallelEntryPoints run on worker
+ * threads.
+ *
+ * <p>An entrypoint only starts after the entrypoints of all modules it depends on, directly or through modules without
+ * an entrypoint for the stage, have finished. All other entrypoints still run on the calling thread in dependency
+ * order. Failures don't stop dependents from running, they are gathered like in the sequential path.
+ */
+final class EntryPointScheduler {
+	static final boolean ENABLED = System.getProperty(SystemProperties.DEBUG_DISABLE_PARALLEL_ENTRYPOINTS) == null;
+
+	private static final AtomicInteger THREAD_ID = new AtomicInteger();
+
+	private EntryPointScheduler() { }
+
+	static boolean hasParallel(String name, Collection<? extends EntryPointHolder<?>> entryPoints) {
+		for (EntryPointHolder<?> holder : entryPoints) {
+			if (holder.getProvider().isParallelEntryPoint(name)) return true;
+		}
+
+		return false;
+	}
+
+	static <T> void invoke(String name, Collection<EntryPointHolder<T>> entryPoints, Consumer<? super T> invoker) {
+		List<Node<T>> nodes = sort(name, entryPoints);
+		int parallel = 0;
+
+		for (Node<T> node : nodes) {
+			if (node.parallel) parallel++;
+		}
+
+		int threads = Math.min(parallel, getThreadCount());
+		Log.debug(LogCategory.ENTRYPOINT, "Scheduling entrypoint '%s': %d of %d entries parallel on %d threads", name, parallel, nodes.size(), threads);
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads, EntryPointScheduler::createThread);
+
+		try {
+			// futures are created in dependency order, so every dependency's future already exists
+			for (Node<T> node : nodes) {
+				if (node.parallel) {
+					node.future = CompletableFuture.allOf(node.getDependencyFutures())
+							.handleAsync((ignore, exc) -> node.run(name, invoker), executor);
+				} else {
+					node.future = new CompletableFuture<>();
+				}
+			}
+
+			for (Node<T> node : nodes) {
+				if (node.parallel) continue;
+
+				for (Node<T> dep : node.dependencies) {
+					dep.future.join();
+				}
+
+				node.future.complete(node.run(name, invoker));
+			}
+
+			for (Node<T> node : nodes) {
+				node.future.join();
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		RuntimeException exception = null;
+
+		for (Node<T> node : nodes) {
+			if (node.error == null) continue;
+
+			exception = ExceptionUtil.gatherExceptions(node.error,
+					exception,
+					exc -> FlintEntryPoints.createStageException(name, node.holder, exc));
+		}
+
+		if (exception != null) {
+			throw exception;
+		}
+	}
+
+	private static int getThreadCount() {
+		String value = System.getProperty(SystemProperties.ENTRYPOINT_THREADS);
+
+		if (value != null) {
+			try {
+				return Math.max(1, Integer.parseInt(value));
+			} catch (NumberFormatException e) {
+				Log.warn(LogCategory.ENTRYPOINT, "Invalid entrypoint thread count %s", value);
+			}
+		}
+
+		return Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+	}
+
+	private static Thread createThread(Runnable task) {
+		Thread ret = new Thread(task, "Entrypoint Worker-"+THREAD_ID.incrementAndGet());
+		ret.setDaemon(true);
+		ret.setContextClassLoader(PunchLauncherBase.getLauncher().getTargetClassLoader());
+
+		return ret;
+	}
+
+	/**
+	 * Order the entrypoints so every entry comes after its dependencies, keeping the original order otherwise.
+	 *
+	 * <p>Dependency cycles are broken by dropping the edge that closes the cycle.
+	 */
+	private static <T> List<Node<T>> sort(String name, Collection<EntryPointHolder<T>> entryPoints) {
+		Map<String, Node<T>> byId = new HashMap<>(entryPoints.size());
+		List<Node<T>> nodes = new ArrayList<>(entryPoints.size());
+
+		for (EntryPointHolder<T> holder : entryPoints) {
+			Node<T> node = new Node<>(holder, holder.getProvider().isParallelEntryPoint(name));
+			nodes.add(node);
+			byId.putIfAbsent(holder.getProvider().getId(), node);
+		}
+
+		ModuleRegistry registry = ModuleList.getInstance().isFrozen() ? ModuleList.getInstance().getRegistry() : null;
+		List<Node<T>> ret = new ArrayList<>(nodes.size());
+		Set<Node<T>> visiting = new HashSet<>();
+
+		for (Node<T> node : nodes) {
+			visit(node, byId, registry, visiting, ret);
+		}
+
+		return ret;
+	}
+
+	private static <T> void visit(Node<T> node, Map<String, Node<T>> byId, ModuleRegistry registry, Set<Node<T>> visiting, List<Node<T>> out) {
+		if (node.sorted || !visiting.add(node)) return;
+
+		for (Node<T> dep : collectDependencies(node.holder.getProvider(), byId, registry)) {
+			if (dep == node) continue;
+
+			if (visiting.contains(dep)) {
+				Log.debug(LogCategory.ENTRYPOINT, "Ignoring cyclic entrypoint dependency %s -> %s", node.holder.getProvider().getId(), dep.holder.getProvider().getId());
+				continue;
+			}
+
+			visit(dep, byId, registry, visiting, out);
+			node.dependencies.add(dep);
+		}
+
+		visiting.remove(node);
+		node.sorted = true;
+		out.add(node);
+	}
+
+	/**
+	 * Collect the nodes for the dependencies of a module, looking through dependencies without an entry in this stage.
+	 */
+	private static <T> Set<Node<T>> collectDependencies(FlintModuleMetadata meta, Map<String, Node<T>> byId, ModuleRegistry registry) {
+		Set<Node<T>> ret = new LinkedHashSet<>();
+		Set<String> seen = new HashSet<>();
+		Deque<String> queue = new ArrayDeque<>(meta.getDepends().keySet());
+
+		while (!queue.isEmpty()) {
+			String id = queue.poll();
+			if (!seen.add(id)) continue;
+
+			Node<T> node = byId.get(id);
+
+			if (node != null) {
+				ret.add(node);
+			} else if (registry != null) {
+				FlintModuleContainer container = registry.get(id);
+				if (container != null) queue.addAll(container.getMetadata().getDepends().keySet());
+			}
+		}
+
+		return ret;
+	}
+
+	private static final class Node<T> {
+		final EntryPointHolder<T> holder;
+		final boolean parallel;
+		final List<Node<T>> dependencies = new ArrayList<>();
+		boolean sorted;
+		CompletableFuture<Void> future;
+		volatile Throwable error;
+
+		Node(EntryPointHolder<T> holder, boolean parallel) {
+			this.holder = holder;
+			this.parallel = parallel;
+		}
+
+		CompletableFuture<?>[] getDependencyFutures() {
+			CompletableFuture<?>[] ret = new CompletableFuture<?>[dependencies.size()];
+
+			for (int i = 0; i < ret.length; i++) {
+				ret[i] = dependencies.get(i).future;
+			}
+
+			return ret;
+		}
+
+		Void run(String name, Consumer<? super T> invoker) {
+			try {
+				FlintEntryPoints.invokeTimed(name, holder, invoker);
+			} catch (Throwable t) {
+				error = t;
+			}
+
+			return null;
+		}
+	}
+}
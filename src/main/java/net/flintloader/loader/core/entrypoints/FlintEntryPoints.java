@@ -18,7 +18,11 @@ package net.flintloader.loader.core.entrypoints;
 
 import net.flintloader.loader.modules.FlintModuleMetadata;
 import net.flintloader.loader.modules.ModuleList;
+import net.flintloader.punch.api.StartupReport;
 import net.flintloader.punch.impl.launch.PunchLauncherBase;
+import net.flintloader.punch.impl.metrics.LoaderEvents;
+import net.flintloader.punch.impl.metrics.StartupMetrics;
+import net.flintloader.punch.impl.metrics.Tracer;
 import net.flintloader.punch.impl.util.ExceptionUtil;
 import net.flintloader.punch.impl.util.log.Log;
 import net.flintloader.punch.impl.util.log.LogCategory;
@@ -30,27 +34,77 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
 public class FlintEntryPoints {
 
-	private static final Map<String, List<Entry>> entryPoints = new HashMap<>();
+	// registration phase state, guarded by the class lock and discarded once frozen
+	private static Map<String, List<Entry>> pendingEntryPoints = new HashMap<>();
+	// immutable snapshot, set by freeze
+	private static volatile Map<String, List<Entry>> entryPoints;
+	private static final Map<String, Map<Class<?>, List<?>>> containerCache = new ConcurrentHashMap<>();
+	private static final Map<String, Map<Class<?>, List<?>>> instanceCache = new ConcurrentHashMap<>();
 
-	private static List<Entry> getOrCreate(String key) {
-		return entryPoints.computeIfAbsent(key, z -> new ArrayList<>());
+	private static List<Entry> getEntries(String key) {
+		Map<String, List<Entry>> frozen = entryPoints;
+		if (frozen != null) return frozen.get(key);
+
+		synchronized (FlintEntryPoints.class) {
+			frozen = entryPoints;
+			if (frozen != null) return frozen.get(key);
+
+			List<Entry> ret = pendingEntryPoints.get(key);
+
+			return ret != null ? new ArrayList<>(ret) : null;
+		}
 	}
 
 	public static boolean hasEntryPoints(String key) {
-		return entryPoints.containsKey(key);
+		return getEntries(key) != null;
 	}
 
-	public static void add(FlintModuleMetadata metadata, String key, String path) {
+	public static synchronized void add(FlintModuleMetadata metadata, String key, String path) {
+		if (entryPoints != null) throw new IllegalStateException("Frozen - cannot register entry point "+key+" for "+metadata.getId());
+
 		Log.debug(LogCategory.ENTRYPOINT, "Registering entry point %s for %s", key, metadata.getId());
-		getOrCreate(key).add(new FlintEntry(metadata, path));
+		pendingEntryPoints.computeIfAbsent(key, z -> new ArrayList<>()).add(new FlintEntry(metadata, path));
+	}
+
+	/**
+	 * Snapshot the registered entry points, enabling the lock-free and cached lookups.
+	 */
+	public static synchronized void freeze() {
+		if (entryPoints != null) throw new IllegalStateException("Already frozen!");
+
+		Map<String, List<Entry>> frozen = new HashMap<>(pendingEntryPoints.size());
+
+		for (Map.Entry<String, List<Entry>> entry : pendingEntryPoints.entrySet()) {
+			frozen.put(entry.getKey(), Collections.unmodifiableList(new ArrayList<>(entry.getValue())));
+		}
+
+		entryPoints = Collections.unmodifiableMap(frozen);
+		pendingEntryPoints = null;
 	}
 
+	public static boolean isFrozen() {
+		return entryPoints != null;
+	}
+
+	/**
+	 * Returns the entrypoint instances for the key, the returned list is immutable and shared once frozen.
+	 */
+	@SuppressWarnings("unchecked")
 	public static <T> List<T> getEntrypoints(String key, Class<T> type) {
-		List<Entry> entries = entryPoints.get(key);
+		boolean frozen = isFrozen();
+
+		if (frozen) {
+			Map<Class<?>, List<?>> cache = instanceCache.get(key);
+			List<?> ret = cache != null ? cache.get(type) : null;
+			if (ret != null) return (List<T>) ret;
+		}
+
+		List<Entry> entries = getEntries(key);
 		if (entries == null) return Collections.emptyList();
 
 		EntrypointException exception = null;
@@ -76,13 +130,31 @@ public class FlintEntryPoints {
 			throw exception;
 		}
 
+		results = Collections.unmodifiableList(results);
+
+		if (frozen) { // only cache complete results, failed entries get retried
+			List<?> prev = instanceCache.computeIfAbsent(key, ignore -> new ConcurrentHashMap<>()).putIfAbsent(type, results);
+			if (prev != null) return (List<T>) prev;
+		}
+
 		return results;
 	}
 
+	/**
+	 * Returns the lazily initializing entrypoint containers for the key, the returned list is immutable and shared once
+	 * frozen.
+	 */
+	@SuppressWarnings("unchecked")
 	public static <T> List<EntryPointHolder<T>> getEntrypointContainers(String key, Class<T> type) {
-		List<Entry> entries = entryPoints.get(key);
+		List<Entry> entries = getEntries(key);
 		if (entries == null) return Collections.emptyList();
+		if (!isFrozen()) return createContainers(key, type, entries);
+
+		return (List<EntryPointHolder<T>>) containerCache.computeIfAbsent(key, ignore -> new ConcurrentHashMap<>())
+				.computeIfAbsent(type, ignore -> createContainers(key, type, entries));
+	}
 
+	private static <T> List<EntryPointHolder<T>> createContainers(String key, Class<T> type, List<Entry> entries) {
 		List<EntryPointHolder<T>> results = new ArrayList<>(entries.size());
 
 		for (Entry entry : entries) {
@@ -90,7 +162,7 @@ public class FlintEntryPoints {
 			results.add(container);
 		}
 
-		return results;
+		return Collections.unmodifiableList(results);
 	}
 
 	public static <T> void invoke(String name, Class<T> type, Consumer<? super T> invoker) {
@@ -98,24 +170,30 @@ public class FlintEntryPoints {
 			Log.debug(LogCategory.ENTRYPOINT, "No subscribers for entrypoint '%s'", name);
 			return;
 		}
-		invokeInternal(name, type, invoker);
+
+		try (Tracer.Span span = Tracer.begin("entrypoint", name)) {
+			invokeInternal(name, type, invoker);
+		}
 	}
 
 	private static <T> void invokeInternal(String name, Class<T> type, Consumer<? super T> invoker) {
 		RuntimeException exception = null;
 		Collection<EntryPointHolder<T>> entryPoints = getEntrypointContainers(name, type);
 
+		if (EntryPointScheduler.ENABLED && EntryPointScheduler.hasParallel(name, entryPoints)) {
+			EntryPointScheduler.invoke(name, entryPoints, invoker);
+			return;
+		}
+
 		Log.debug(LogCategory.ENTRYPOINT, "Iterating over entrypoint '%s'", name);
 
 		for (EntryPointHolder<T> container : entryPoints) {
 			try {
-				invoker.accept(container.getEntryPoint());
+				invokeTimed(name, container, invoker);
 			} catch (Throwable t) {
 				exception = ExceptionUtil.gatherExceptions(t,
 						exception,
-						exc -> new RuntimeException(String.format("Could not execute entrypoint stage '%s' due to errors, provided by '%s' at %s!",
-								name, container.getProvider().getId(), container.getDefinition()),
-								exc));
+						exc -> createStageException(name, container, exc));
 			}
 		}
 
@@ -124,36 +202,110 @@ public class FlintEntryPoints {
 		}
 	}
 
-	private static <T> T create(FlintModuleMetadata mod, String value, Class<T> type) throws Exception {
-		String[] methodSplit = value.split("::");
+	/**
+	 * Construct (if necessary) and invoke an entrypoint, recording both steps for the startup report.
+	 */
+	static <T> void invokeTimed(String name, EntryPointHolder<T> container, Consumer<? super T> invoker) {
+		String id = container.getProvider().getId();
+
+		try (Tracer.Span span = Tracer.begin("entrypoint", name+":"+id);
+				LoaderEvents.Scope event = LoaderEvents.get().entryPoint(name, id)) {
+			long startTime = System.nanoTime();
+			T entryPoint = container.getEntryPoint();
+			StartupMetrics.record(id, StartupReport.entryPointConstruct(name), startTime);
+
+			startTime = System.nanoTime();
+
+			try {
+				invoker.accept(entryPoint);
+			} finally {
+				StartupMetrics.record(id, StartupReport.entryPointInvoke(name), startTime);
+			}
+		}
+	}
+
+	static RuntimeException createStageException(String name, EntryPointHolder<?> container, Throwable exc) {
+		return new RuntimeException(String.format("Could not execute entrypoint stage '%s' due to errors, provided by '%s' at %s!",
+				name, container.getProvider().getId(), container.getDefinition()),
+				exc);
+	}
+
+	interface Entry {
+		<T> T getOrCreate(Class<T> type) throws Exception;
+		boolean isOptional();
+		FlintModuleMetadata getModuleContainer();
+		String getDefinition();
+	}
+
+	static class FlintEntry implements Entry {
+
+		private final FlintModuleMetadata mod;
+		private final String value;
+		// parsed handle, className is null for an invalid handle
+		private final String className;
+		private final String memberName;
+		private final Map<Class<?>, Object> instanceMap;
+		// resolved on first use, guarded by this
+		private Class<?> resolvedClass;
+		private Field resolvedField;
+		private List<Method> resolvedMethods;
 
-		if (methodSplit.length >= 3) {
-			throw new Exception("Invalid handle format: " + value);
+		public FlintEntry(FlintModuleMetadata metadata, String value) {
+			this.mod = metadata;
+			this.value = value;
+			this.instanceMap = new IdentityHashMap<>(1);
+
+			String[] methodSplit = value.split("::");
+
+			if (methodSplit.length >= 3) {
+				this.className = null;
+				this.memberName = null;
+			} else {
+				this.className = methodSplit[0];
+				this.memberName = methodSplit.length == 2 ? methodSplit[1] : null;
+			}
+		}
+
+		@Override
+		public String toString() {
+			return mod.getId() + "->(0.3.x)" + value;
 		}
 
-		Class<?> c;
+		@SuppressWarnings("unchecked")
+		@Override
+		public synchronized <T> T getOrCreate(Class<T> type) throws Exception {
+			// this impl allows reentrancy (unlike computeIfAbsent)
+			T ret = (T) instanceMap.get(type);
+
+			if (ret == null) {
+				ret = create(type);
+				assert ret != null;
+				T prev = (T) instanceMap.putIfAbsent(type, ret);
+				if (prev != null) ret = prev;
+			}
 
-		try {
-			c = Class.forName(methodSplit[0], true, PunchLauncherBase.getLauncher().getTargetClassLoader());
-		} catch (ClassNotFoundException e) {
-			throw new Exception(e);
+			return ret;
 		}
 
-		if (methodSplit.length == 1) {
-			if (type.isAssignableFrom(c)) {
+		private Class<?> resolveClass() throws Exception {
+			if (resolvedClass == null) {
 				try {
-					return (T) c.getDeclaredConstructor().newInstance();
-				} catch (Exception e) {
+					resolvedClass = Class.forName(className, true, PunchLauncherBase.getLauncher().getTargetClassLoader());
+				} catch (ClassNotFoundException e) {
 					throw new Exception(e);
 				}
-			} else {
-				throw new Exception("Class " + c.getName() + " cannot be cast to " + type.getName() + "!");
 			}
-		} else /* length == 2 */ {
+
+			return resolvedClass;
+		}
+
+		private void resolveMembers(Class<?> c) {
+			if (resolvedMethods != null) return;
+
 			List<Method> methodList = new ArrayList<>();
 
 			for (Method m : c.getDeclaredMethods()) {
-				if (!(m.getName().equals(methodSplit[1]))) {
+				if (!(m.getName().equals(memberName))) {
 					continue;
 				}
 
@@ -161,7 +313,39 @@ public class FlintEntryPoints {
 			}
 
 			try {
-				Field field = c.getDeclaredField(methodSplit[1]);
+				resolvedField = c.getDeclaredField(memberName);
+			} catch (NoSuchFieldException e) {
+				// ignore
+			}
+
+			resolvedMethods = methodList;
+		}
+
+		@SuppressWarnings("unchecked")
+		private <T> T create(Class<T> type) throws Exception {
+			if (className == null) {
+				throw new Exception("Invalid handle format: " + value);
+			}
+
+			Class<?> c = resolveClass();
+
+			if (memberName == null) {
+				if (type.isAssignableFrom(c)) {
+					try {
+						return (T) c.getDeclaredConstructor().newInstance();
+					} catch (Exception e) {
+						throw new Exception(e);
+					}
+				} else {
+					throw new Exception("Class " + c.getName() + " cannot be cast to " + type.getName() + "!");
+				}
+			}
+
+			resolveMembers(c);
+			List<Method> methodList = resolvedMethods;
+			Field field = resolvedField;
+
+			if (field != null) {
 				Class<?> fType = field.getType();
 
 				if ((field.getModifiers() & Modifier.STATIC) == 0) {
@@ -176,11 +360,11 @@ public class FlintEntryPoints {
 					throw new Exception("Field " + value + " cannot be cast to " + type.getName() + "!");
 				}
 
-				return (T) field.get(null);
-			} catch (NoSuchFieldException e) {
-				// ignore
-			} catch (IllegalAccessException e) {
-				throw new Exception("Field " + value + " cannot be accessed!", e);
+				try {
+					return (T) field.get(null);
+				} catch (IllegalAccessException e) {
+					throw new Exception("Field " + value + " cannot be accessed!", e);
+				}
 			}
 
 			if (!type.isInterface()) {
@@ -204,6 +388,9 @@ public class FlintEntryPoints {
 				}
 			}
 
+			T adapter = EntryPointAdapterFactory.create(c, targetMethod, object, type);
+			if (adapter != null) return adapter;
+
 			MethodHandle handle;
 
 			try {
@@ -217,54 +404,13 @@ public class FlintEntryPoints {
 				handle = handle.bindTo(object);
 			}
 
-			// uses proxy as well, but this handles default and object methods
+			// fallback, uses proxy as well, but this handles default and object methods
 			try {
 				return MethodHandleProxies.asInterfaceInstance(type, handle);
 			} catch (Exception ex) {
 				throw new Exception(ex);
 			}
 		}
-	}
-
-	interface Entry {
-		<T> T getOrCreate(Class<T> type) throws Exception;
-		boolean isOptional();
-		FlintModuleMetadata getModuleContainer();
-		String getDefinition();
-	}
-
-	static class FlintEntry implements Entry {
-
-		private final FlintModuleMetadata mod;
-		private final String value;
-		private final Map<Class<?>, Object> instanceMap;
-
-		public FlintEntry(FlintModuleMetadata metadata, String value) {
-			this.mod = metadata;
-			this.value = value;
-			this.instanceMap = new IdentityHashMap<>(1);
-		}
-
-		@Override
-		public String toString() {
-			return mod.getId() + "->(0.3.x)" + value;
-		}
-
-		@SuppressWarnings("unchecked")
-		@Override
-		public synchronized <T> T getOrCreate(Class<T> type) throws Exception {
-			// this impl allows reentrancy (unlike computeIfAbsent)
-			T ret = (T) instanceMap.get(type);
-
-			if (ret == null) {
-				ret = create(mod, value, type);
-				assert ret != null;
-				T prev = (T) instanceMap.putIfAbsent(type, ret);
-				if (prev != null) ret = prev;
-			}
-
-			return ret;
-		}
 
 		@Override
 		public boolean isOptional() {
@@ -17,7 +17,6 @@
 package net.flintloader.loader.modules;
 
 import java.io.IOException;
-import java.nio.file.FileSystem;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -29,7 +28,7 @@ import java.util.Optional;
 import net.flintloader.loader.api.FlintModuleContainer;
 import net.flintloader.loader.api.ModuleOrigin;
 import net.flintloader.punch.impl.PunchLoaderImpl;
-import net.flintloader.punch.impl.util.FileSystemUtil;
+import net.flintloader.punch.impl.util.JarFileSystemPool;
 import net.flintloader.punch.impl.util.log.Log;
 import net.flintloader.punch.impl.util.log.LogCategory;
 
@@ -38,6 +37,7 @@ public final class FlintModuleContainerImpl implements FlintModuleContainer {
 	private final FlintModuleMetadata meta;
 	private final List<Path> paths;
 	private List<Path> rootPaths;
+	private volatile List<JarFileSystemPool.Lease> leases = Collections.emptyList();
 	private final ModuleOrigin origin;
 
 	public FlintModuleContainerImpl(FlintModuleMetadata meta, List<Path> paths, ModuleOrigin origin) {
@@ -55,16 +55,17 @@ public final class FlintModuleContainerImpl implements FlintModuleContainer {
 	public List<Path> getRootPaths() {
 		List<Path> ret = rootPaths;
 
-		if (ret == null || !checkFsOpen(ret)) {
+		if (ret == null || !checkFsOpen()) {
 			rootPaths = ret = obtainRootPaths(); // obtainRootPaths is thread safe, but we need to avoid plain or repeated reads to root
 		}
 
 		return ret;
 	}
 
-	private boolean checkFsOpen(List<Path> paths) {
-		for (Path path : paths) {
-			if (path.getFileSystem().isOpen()) continue;
+	private boolean checkFsOpen() {
+		// only pooled jar file systems can be closed, plain directories don't hold a lease
+		for (JarFileSystemPool.Lease lease : leases) {
+			if (lease.isOpen()) continue;
 
 			if (!warnedClose) {
 				if (!PunchLoaderImpl.INSTANCE.isDevelopmentEnvironment()) warnedClose = true;
@@ -96,7 +97,13 @@ public final class FlintModuleContainerImpl implements FlintModuleContainer {
 		return new ArrayList<>();
 	}
 
-	private List<Path> obtainRootPaths() {
+	private synchronized List<Path> obtainRootPaths() {
+		for (JarFileSystemPool.Lease lease : leases) { // drop stale leases, the pool reopens closed file systems
+			lease.close();
+		}
+
+		leases = Collections.emptyList();
+
 		boolean allDirs = true;
 
 		for (Path path : paths) {
@@ -108,37 +115,36 @@ public final class FlintModuleContainerImpl implements FlintModuleContainer {
 
 		if (allDirs) return paths;
 
+		List<JarFileSystemPool.Lease> leases = new ArrayList<>(paths.size());
+
 		try {
 			if (paths.size() == 1) {
-				return Collections.singletonList(obtainRootPath(paths.get(0)));
+				return Collections.singletonList(obtainRootPath(paths.get(0), leases));
 			} else {
 				List<Path> ret = new ArrayList<>(paths.size());
 
 				for (Path path : paths) {
-					ret.add(obtainRootPath(path));
+					ret.add(obtainRootPath(path, leases));
 				}
 
 				return Collections.unmodifiableList(ret);
 			}
 		} catch (IOException e) {
 			throw new RuntimeException("Failed to obtain root directory for mod '" + meta.getId() + "'!", e);
+		} finally {
+			this.leases = leases;
 		}
 	}
 
-	private static Path obtainRootPath(Path path) throws IOException {
+	private static Path obtainRootPath(Path path, List<JarFileSystemPool.Lease> leases) throws IOException {
 		if (Files.isDirectory(path)) {
 			return path;
 		} else /* JAR */ {
-			FileSystemUtil.FileSystemDelegate delegate = FileSystemUtil.getJarFileSystem(path, false);
-			FileSystem fs = delegate.get();
-
-			if (fs == null) {
-				throw new RuntimeException("Could not open JAR file " + path + " for NIO reading!");
-			}
-
-			return fs.getRootDirectories().iterator().next();
+			// The lease is held for the container's lifetime, the pool shares the file system with other users of the jar
+			JarFileSystemPool.Lease lease = JarFileSystemPool.get().acquire(path);
+			leases.add(lease);
 
-			// We never close here. It's fine. getJarFileSystem() will handle it gracefully, and so should mods
+			return lease.getRoot();
 		}
 	}
 }
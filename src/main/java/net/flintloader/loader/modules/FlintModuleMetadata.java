@@ -44,6 +44,7 @@ public final class FlintModuleMetadata {
 	private HashMap<String, String> depends = new HashMap<>();
 	private HashMap<String, String> breaks = new HashMap<>();
 	private HashMap<String, String> entryPoints = new HashMap<>();
+	private List<String> parallelEntryPoints;
 
 	FlintModuleMetadata(String id, String name, String version) {
 		this(id, name, version, false);
@@ -130,6 +131,20 @@ public final class FlintModuleMetadata {
 		return entryPoints;
 	}
 
+	/**
+	 * Entry point keys this module allows to run off the calling thread, concurrently with other modules
+	 */
+	public List<String> getParallelEntryPoints() {
+		if (parallelEntryPoints == null) {
+			return new ArrayList<>();
+		}
+		return parallelEntryPoints;
+	}
+
+	public boolean isParallelEntryPoint(String type) {
+		return parallelEntryPoints != null && parallelEntryPoints.contains(type);
+	}
+
 	public Optional<String> getEntryPoint(String type) {
 		if (entryPoints.containsKey(type)) {
 			return Optional.of(entryPoints.get(type));
@@ -39,6 +39,7 @@ public final class ModuleList {
 	private final ModuleResolvers moduleResolvers = new ModuleResolvers();
 
     private final Map<String, FlintModuleContainer> MODULES = new HashMap<>();
+	private volatile ModuleRegistry registry;
 
 	public static ModuleList getInstance() {
 		if (instance == null) {
@@ -48,6 +49,8 @@ public final class ModuleList {
 	}
 
 	public void discoverModules() {
+		if (registry != null) throw new IllegalStateException("Frozen - cannot discover additional modules!");
+
 		Log.info(LogCategory.DISCOVERY, "Discovering Modules...");
 		moduleResolvers.addResolver(new ClassPathModuleResolver());
 		moduleResolvers.addResolver(new DirectoryModuleResolver());
@@ -64,32 +67,71 @@ public final class ModuleList {
 		MODULES.put("java", javaContainer);
     }
 
+	/**
+	 * Snapshot the discovered modules, no further modules can be discovered afterwards.
+	 */
+	public void freeze() {
+		if (registry != null) throw new IllegalStateException("Already frozen!");
+
+		registry = new ModuleRegistry(MODULES);
+	}
+
+	public boolean isFrozen() {
+		return registry != null;
+	}
+
+	/**
+	 * Returns the frozen module snapshot.
+	 *
+	 * @throws IllegalStateException if the module list hasn't been frozen yet
+	 */
+	public ModuleRegistry getRegistry() {
+		ModuleRegistry ret = registry;
+		if (ret == null) throw new IllegalStateException("Module list isn't frozen yet");
+
+		return ret;
+	}
+
 	public List<FlintModuleContainer> allModules() {
+		ModuleRegistry registry = this.registry;
+		if (registry != null) return registry.getAll();
+
 		return new ArrayList<>(MODULES.values());
 	}
 
 	public boolean isModuleLoaded(String id) {
+		ModuleRegistry registry = this.registry;
+		if (registry != null) return registry.contains(id);
+
 		return MODULES.containsKey(id);
 	}
 
 	public int getModuleCount() {
-		return (int) MODULES.values().stream().map(m -> !m.getMetadata().isBuiltIn()).count();
+		ModuleRegistry registry = this.registry;
+		if (registry != null) return registry.getNonBuiltIn().size();
+
+		int ret = 0;
+
+		for (FlintModuleContainer container : MODULES.values()) {
+			if (!container.getMetadata().isBuiltIn()) ret++;
+		}
+
+		return ret;
 	}
 
 	@Nullable
 	public FlintModuleContainer getModuleContainer(String id) {
-		if (MODULES.containsKey(id)) {
-			return MODULES.get(id);
-		}
-		return null;
+		ModuleRegistry registry = this.registry;
+		if (registry != null) return registry.get(id);
+
+		return MODULES.get(id);
 	}
 
 	@Nullable
 	public FlintModuleMetadata getModuleMeta(String id) {
-		if (MODULES.containsKey(id)) {
-			return MODULES.get(id).getMetadata();
-		}
-		return null;
+		FlintModuleContainer container = getModuleContainer(id);
+
+		return container != null ? container.getMetadata() : null;
 	}
 
 }
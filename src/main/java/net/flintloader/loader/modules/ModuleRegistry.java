@@ -0,0 +1,118 @@
+/**
+* Copyright 2016 FabricMC
+* Copyright 2024 Flint Loader Contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package net.flintloader.loader.modules;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.flintloader.loader.api.FlintModuleContainer;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Immutable snapshot of the discovered modules, created once the loader is frozen.
+ *
+ * <p>All indexes are computed up front, so lookups don't allocate and the snapshot can be shared
+ * freely between threads.
+ */
+public final class ModuleRegistry {
+	private final Map<String, FlintModuleContainer> byId;
+	private final List<FlintModuleContainer> all;
+	private final List<FlintModuleContainer> nonBuiltIn;
+	private final List<FlintModuleContainer> withMixins;
+	private final List<FlintModuleContainer> withAccessWideners;
+	private final Map<String, List<FlintModuleContainer>> byEntryPoint;
+
+	ModuleRegistry(Map<String, FlintModuleContainer> modules) {
+		Map<String, FlintModuleContainer> byId = new HashMap<>(modules);
+		List<FlintModuleContainer> nonBuiltIn = new ArrayList<>();
+		List<FlintModuleContainer> withMixins = new ArrayList<>();
+		List<FlintModuleContainer> withAccessWideners = new ArrayList<>();
+		Map<String, List<FlintModuleContainer>> byEntryPoint = new LinkedHashMap<>();
+
+		for (FlintModuleContainer container : byId.values()) {
+			FlintModuleMetadata meta = container.getMetadata();
+			if (meta.isBuiltIn()) continue;
+
+			nonBuiltIn.add(container);
+
+			if (!meta.getMixins().isEmpty()) withMixins.add(container);
+			if (!meta.getAccessWidener().isEmpty()) withAccessWideners.add(container);
+
+			for (String key : meta.getEntryPoints().keySet()) {
+				byEntryPoint.computeIfAbsent(key, ignore -> new ArrayList<>()).add(container);
+			}
+		}
+
+		for (Map.Entry<String, List<FlintModuleContainer>> entry : byEntryPoint.entrySet()) {
+			entry.setValue(Collections.unmodifiableList(entry.getValue()));
+		}
+
+		this.byId = Collections.unmodifiableMap(byId);
+		this.all = Collections.unmodifiableList(new ArrayList<>(byId.values()));
+		this.nonBuiltIn = Collections.unmodifiableList(nonBuiltIn);
+		this.withMixins = Collections.unmodifiableList(withMixins);
+		this.withAccessWideners = Collections.unmodifiableList(withAccessWideners);
+		this.byEntryPoint = Collections.unmodifiableMap(byEntryPoint);
+	}
+
+	public List<FlintModuleContainer> getAll() {
+		return all;
+	}
+
+	/**
+	 * Returns the modules that weren't provided by the loader itself (game, java, loader).
+	 */
+	public List<FlintModuleContainer> getNonBuiltIn() {
+		return nonBuiltIn;
+	}
+
+	public List<FlintModuleContainer> getWithMixins() {
+		return withMixins;
+	}
+
+	public List<FlintModuleContainer> getWithAccessWideners() {
+		return withAccessWideners;
+	}
+
+	public Set<String> getEntryPointKeys() {
+		return byEntryPoint.keySet();
+	}
+
+	public List<FlintModuleContainer> getEntryPointProviders(String key) {
+		List<FlintModuleContainer> ret = byEntryPoint.get(key);
+
+		return ret != null ? ret : Collections.emptyList();
+	}
+
+	public boolean contains(String id) {
+		return byId.containsKey(id);
+	}
+
+	@Nullable
+	public FlintModuleContainer get(String id) {
+		return byId.get(id);
+	}
+
+	public int size() {
+		return all.size();
+	}
+}
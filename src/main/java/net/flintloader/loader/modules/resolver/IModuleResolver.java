@@ -30,6 +30,8 @@ import net.flintloader.loader.api.FlintModuleContainer;
 import net.flintloader.loader.modules.FlintModuleContainerImpl;
 import net.flintloader.loader.modules.FlintModuleMetadata;
 import net.flintloader.loader.modules.ModuleOriginImpl;
+import net.flintloader.punch.api.StartupReport;
+import net.flintloader.punch.impl.metrics.StartupMetrics;
 import net.flintloader.punch.impl.util.log.Log;
 import net.flintloader.punch.impl.util.log.LogCategory;
 
@@ -38,6 +40,13 @@ public interface IModuleResolver {
 	void resolve(Map<String, FlintModuleContainer> outList);
 
 	default void readModuleJson(Map<String, FlintModuleContainer> outList, InputStream inputStream, List<Path> source) throws IOException {
+		readModuleJson(outList, inputStream, source, System.nanoTime());
+	}
+
+	/**
+	 * @param startTime {@link System#nanoTime()} when the resolver started processing the source, for the startup report
+	 */
+	default void readModuleJson(Map<String, FlintModuleContainer> outList, InputStream inputStream, List<Path> source, long startTime) throws IOException {
 		try {
 			FlintModuleMetadata moduleContainer = gson.fromJson(new InputStreamReader(inputStream), FlintModuleMetadata.class);
 			FlintModuleContainerImpl container = new FlintModuleContainerImpl(moduleContainer, source, new ModuleOriginImpl(source));
@@ -49,6 +58,7 @@ public interface IModuleResolver {
 
 			outList.put(moduleContainer.getId(), container);
 			Log.info(LogCategory.DISCOVERY, "Loaded module '" + moduleContainer.getId() + "'");
+			StartupMetrics.record(moduleContainer.getId(), StartupReport.DISCOVERY, startTime);
 		} catch (JsonParseException e) {
 			throw new RuntimeException("Could not read flintmodule.json in " + source, e);
 		} finally {
@@ -36,6 +36,7 @@ import java.util.Set;
 import net.flintloader.loader.api.FlintModuleContainer;
 import net.flintloader.loader.modules.resolver.IModuleResolver;
 import net.flintloader.punch.impl.launch.PunchLauncherBase;
+import net.flintloader.punch.impl.metrics.LoaderEvents;
 import net.flintloader.punch.impl.util.LoaderUtil;
 import net.flintloader.punch.impl.util.SystemProperties;
 import net.flintloader.punch.impl.util.UrlConversionException;
@@ -62,16 +63,17 @@ public final class ClassPathModuleResolver implements IModuleResolver {
 
 			while (urlEnumeration.hasMoreElements()) {
 				URL url = urlEnumeration.nextElement();
+				long startTime = System.nanoTime();
 
-				try {
+				try (LoaderEvents.Scope event = LoaderEvents.get().moduleDiscovery(url.toString())) {
 					Path path = LoaderUtil.normalizeExistingPath(UrlUtil.getCodeSource(url, "flintmodule.json"));
 					List<Path> paths = pathGroups.get(path);
 					InputStream in = url.openStream();
 
 					if (paths == null) {
-						readModuleJson(outList, in, Collections.singletonList(path));
+						readModuleJson(outList, in, Collections.singletonList(path), startTime);
 					} else {
-						readModuleJson(outList, in, paths);
+						readModuleJson(outList, in, paths, startTime);
 					}
 
 				} catch (UrlConversionException e) {
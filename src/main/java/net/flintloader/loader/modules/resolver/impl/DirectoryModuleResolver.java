@@ -16,16 +16,22 @@
 **/
 package net.flintloader.loader.modules.resolver.impl;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.FileVisitOption;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.List;
 import java.util.Map;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
@@ -33,6 +39,8 @@ import java.util.zip.ZipException;
 
 import net.flintloader.loader.api.FlintModuleContainer;
 import net.flintloader.loader.modules.resolver.IModuleResolver;
+import net.flintloader.punch.impl.launch.LaunchManifest;
+import net.flintloader.punch.impl.metrics.LoaderEvents;
 import net.flintloader.punch.impl.util.log.Log;
 import net.flintloader.punch.impl.util.log.LogCategory;
 
@@ -56,26 +64,13 @@ public final class DirectoryModuleResolver implements IModuleResolver {
 			throw new RuntimeException(modulesDirectory.getAbsolutePath() + " is not a directory!");
 		}
 
+		List<Path> files = new ArrayList<>();
+
 		try {
 			Files.walkFileTree(this.modulesDirectory.toPath(), EnumSet.of(FileVisitOption.FOLLOW_LINKS), 1, new SimpleFileVisitor<Path>() {
 				@Override
-				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-					if (isValidFile(file)) {
-						try (JarFile jarFile = new JarFile(file.toFile())) {
-
-							JarEntry entry = jarFile.getJarEntry("flintmodule.json");
-							if (entry != null) {
-								readModuleJson(outList, jarFile.getInputStream(entry), Collections.singletonList(file));
-								return FileVisitResult.CONTINUE;
-							}
-
-							Log.warn(LogCategory.DISCOVERY, "Skipped " + file + " since it does not contain flintmodule.json");
-						} catch (ZipException e) {
-							Log.warn(LogCategory.DISCOVERY, "Could not read file " + file + " as a jar file", e);
-						} catch (Throwable t) {
-							Log.error(LogCategory.DISCOVERY, "Exception while checking if file " + file + " is a mod", t);
-						}
-					}
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+					if (isValidFile(file)) files.add(file);
 
 					return FileVisitResult.CONTINUE;
 				}
@@ -83,6 +78,61 @@ public final class DirectoryModuleResolver implements IModuleResolver {
 		} catch (IOException e) {
 			throw new RuntimeException("Exception while searching for modules in '" + modulesDirectory + "'!", e);
 		}
+
+		LaunchManifest manifest = LaunchManifest.get();
+		List<LaunchManifest.ModuleEntry> cached = manifest.getModules(modulesDirectory.toPath(), files);
+
+		if (cached != null) {
+			for (LaunchManifest.ModuleEntry module : cached) {
+				try (LoaderEvents.Scope event = LoaderEvents.get().moduleDiscovery(module.getSource().get(0).toString())) {
+					readModuleJson(outList, new ByteArrayInputStream(module.getMetadata()), module.getSource(), System.nanoTime());
+				} catch (IOException e) {
+					throw new UncheckedIOException(e); // can't happen for an in-memory stream
+				}
+			}
+
+			return;
+		}
+
+		for (Path file : files) {
+			long startTime = System.nanoTime();
+
+			try (LoaderEvents.Scope event = LoaderEvents.get().moduleDiscovery(file.toString());
+					JarFile jarFile = new JarFile(file.toFile())) {
+				JarEntry entry = jarFile.getJarEntry("flintmodule.json");
+
+				if (entry == null) {
+					Log.warn(LogCategory.DISCOVERY, "Skipped " + file + " since it does not contain flintmodule.json");
+					manifest.discard("skipped " + file);
+					continue;
+				}
+
+				byte[] metadata = readFully(jarFile.getInputStream(entry));
+				List<Path> source = Collections.singletonList(file);
+				readModuleJson(outList, new ByteArrayInputStream(metadata), source, startTime);
+				manifest.addModule(source, metadata);
+			} catch (ZipException e) {
+				Log.warn(LogCategory.DISCOVERY, "Could not read file " + file + " as a jar file", e);
+				manifest.discard("failed to read " + file);
+			} catch (Throwable t) {
+				Log.error(LogCategory.DISCOVERY, "Exception while checking if file " + file + " is a mod", t);
+				manifest.discard("failed to read " + file);
+			}
+		}
+	}
+
+	private static byte[] readFully(InputStream is) throws IOException {
+		try (InputStream in = is) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(in.available(), 512));
+			byte[] buffer = new byte[4096];
+			int len;
+
+			while ((len = in.read(buffer)) >= 0) {
+				out.write(buffer, 0, len);
+			}
+
+			return out.toByteArray();
+		}
 	}
 
 	static boolean isValidFile(Path path) {
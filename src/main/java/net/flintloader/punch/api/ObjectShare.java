@@ -16,7 +16,10 @@
 **/
 package net.flintloader.punch.api;
 
+import java.util.Objects;
+import java.util.concurrent.Executor;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 /**
  * Object share for inter-mod communication, obtainable through {@link PunchLoader#getObjectShare}.
@@ -30,6 +33,9 @@ import java.util.function.BiConsumer;
  *
  * <p>It is required to prefix the share key with the mod id like {@code mymod:someProperty}. Mods should not
  * modify entries by other mods. The share is thread safe.
+ *
+ * <p>Frequently accessed entries can be addressed through a {@link Key}, which validates the key once and casts the
+ * values to the key's type.
  */
 public interface ObjectShare {
 	/**
@@ -65,7 +71,8 @@ public interface ObjectShare {
 	 *
 	 * <p>If there is already a value associated with the {@code key}, the consumer will be invoked directly, otherwise
 	 * when one of the {@code put} methods adds a value for the key. The invocation happens on the thread calling
-	 * {@link #whenAvailable} or on whichever thread calls {@code put} with the same {@code key}.
+	 * {@link #whenAvailable} or on whichever thread calls {@code put} with the same {@code key}, use
+	 * {@link #whenAvailable(String, Executor, BiConsumer)} to invoke it elsewhere.
 	 *
 	 * <p>The request will only act once, not if the value changes again.
 	 *
@@ -79,10 +86,26 @@ public interface ObjectShare {
 	 * </pre>
 	 *
 	 * @param key key to react upon, format {@code modid:subkey}
-	 * @paran consumer consumer receiving the key/value pair: key first, value second
+	 * @param consumer consumer receiving the key/value pair: key first, value second
 	 */
 	void whenAvailable(String key, BiConsumer<String, Object> consumer);
 
+	/**
+	 * Request being notified when a key/value becomes available, invoking the consumer through an executor.
+	 *
+	 * <p>This behaves like {@link #whenAvailable(String, BiConsumer)}, but doesn't run the consumer on the thread
+	 * calling {@code put} or {@code whenAvailable}.
+	 *
+	 * @param key key to react upon, format {@code modid:subkey}
+	 * @param executor executor to invoke the consumer with
+	 * @param consumer consumer receiving the key/value pair: key first, value second
+	 */
+	default void whenAvailable(String key, Executor executor, BiConsumer<String, Object> consumer) {
+		Objects.requireNonNull(executor, "null executor");
+
+		whenAvailable(key, (k, v) -> executor.execute(() -> consumer.accept(k, v)));
+	}
+
 	/**
 	 * Set the value for a specific key.
 	 *
@@ -110,4 +133,123 @@ public interface ObjectShare {
 	 * @return previous value associated with the key, null if none
 	 */
 	Object remove(String key);
+
+	/**
+	 * Get the value for a typed key, see {@link #get(String)}.
+	 *
+	 * @throws ClassCastException if the value isn't of the key's type
+	 */
+	default <T> T get(Key<T> key) {
+		return key.cast(get(key.getName()));
+	}
+
+	/**
+	 * Request being notified when a typed key's value becomes available, see {@link #whenAvailable(String, BiConsumer)}.
+	 */
+	default <T> void whenAvailable(Key<T> key, Consumer<? super T> consumer) {
+		whenAvailable(key.getName(), (k, v) -> consumer.accept(key.cast(v)));
+	}
+
+	/**
+	 * Request being notified when a typed key's value becomes available, invoking the consumer through an executor, see
+	 * {@link #whenAvailable(String, Executor, BiConsumer)}.
+	 */
+	default <T> void whenAvailable(Key<T> key, Executor executor, Consumer<? super T> consumer) {
+		whenAvailable(key.getName(), executor, (k, v) -> consumer.accept(key.cast(v)));
+	}
+
+	/**
+	 * Set the value for a typed key, see {@link #put(String, Object)}.
+	 *
+	 * <p>The previous value's type is checked before the entry is changed.
+	 *
+	 * @throws ClassCastException if the previous value isn't of the key's type, the entry is left unchanged then
+	 */
+	default <T> T put(Key<T> key, T value) {
+		T v = key.cast(value);
+		key.cast(get(key.getName())); // fallback check, not atomic with the put unlike the loader's implementation
+
+		return key.cast(put(key.getName(), v));
+	}
+
+	/**
+	 * Set the value for a typed key if there isn't one yet, see {@link #putIfAbsent(String, Object)}.
+	 *
+	 * @throws ClassCastException if the previous value isn't of the key's type, the entry is left unchanged then
+	 */
+	default <T> T putIfAbsent(Key<T> key, T value) {
+		return key.cast(putIfAbsent(key.getName(), key.cast(value)));
+	}
+
+	/**
+	 * Remove the value for a typed key, see {@link #remove(String)}.
+	 *
+	 * <p>The previous value's type is checked before the entry is removed.
+	 *
+	 * @throws ClassCastException if the previous value isn't of the key's type, the entry is left unchanged then
+	 */
+	default <T> T remove(Key<T> key) {
+		key.cast(get(key.getName())); // fallback check, not atomic with the removal unlike the loader's implementation
+
+		return key.cast(remove(key.getName()));
+	}
+
+	/**
+	 * Validated share key with the type of its value.
+	 *
+	 * <p>Keys are meant to be created once and kept in a constant:
+	 * <pre>
+	 * static final ObjectShare.Key{@code<Runnable>} RELOAD = ObjectShare.Key.of("mymod:reload", Runnable.class);
+	 * </pre>
+	 *
+	 * <p>Keys with the same name address the same entry, also when accessed by its String form.
+	 */
+	final class Key<T> {
+		private final String name;
+		private final Class<T> type;
+
+		private Key(String name, Class<T> type) {
+			this.name = name;
+			this.type = type;
+		}
+
+		/**
+		 * Create a typed key.
+		 *
+		 * @param name key name, format {@code modid:subkey}
+		 * @param type value type, values of generic types need the raw type
+		 * @throws IllegalArgumentException if the name doesn't have the required format
+		 */
+		public static <T> Key<T> of(String name, Class<T> type) {
+			Objects.requireNonNull(name, "null key");
+			Objects.requireNonNull(type, "null type");
+
+			int pos = name.indexOf(':');
+			if (pos <= 0 || pos >= name.length() - 1) throw new IllegalArgumentException("invalid key, must be modid:subkey");
+
+			return new Key<>(name, type);
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public Class<T> getType() {
+			return type;
+		}
+
+		/**
+		 * Cast a value of this key's entry to the key's type.
+		 *
+		 * @throws ClassCastException if the value isn't of the key's type
+		 */
+		public T cast(Object value) {
+			return type.cast(value);
+		}
+
+		@Override
+		public String toString() {
+			return name+" ("+type.getName()+")";
+		}
+	}
 }
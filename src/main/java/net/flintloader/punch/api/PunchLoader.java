@@ -60,6 +60,15 @@ public interface PunchLoader {
 	 */
 	ObjectShare getObjectShare();
 
+	/**
+	 * Get the per-module startup timings.
+	 *
+	 * <p>Before startup finished the report only covers the phases measured so far.
+	 *
+	 * @return a snapshot of the startup timings
+	 */
+	StartupReport getStartupReport();
+
 	/**
 	 * Get the current mapping resolver.
 	 *
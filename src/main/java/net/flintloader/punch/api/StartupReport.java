@@ -0,0 +1,114 @@
+/**
+* Copyright 2016 FabricMC
+* Copyright 2024 Flint Loader Contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package net.flintloader.punch.api;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-module startup timings, obtainable through {@link PunchLoader#getStartupReport}.
+ *
+ * <p>The report is also published in the object share under {@code flintloader:startup_report} once the main
+ * entrypoints finished.
+ */
+public interface StartupReport {
+	/**
+	 * Locating the module and reading its metadata.
+	 */
+	String DISCOVERY = "discovery";
+	/**
+	 * Parsing and registering the module's Mixin configs, excluding applying the mixins.
+	 */
+	String MIXIN_CONFIG = "mixin_config";
+	/**
+	 * Applying the Mixins of the module's Mixin configs to their target classes, see {@link #getMixinConfigs}.
+	 *
+	 * <p>Mixins are applied whenever a target class loads, often while another phase like an entrypoint of any module
+	 * is running and already includes that time. This phase is thus reported, but not part of the totals.
+	 */
+	String MIXIN_APPLY = "mixin_apply";
+	/**
+	 * Reading the module's access widener.
+	 */
+	String ACCESS_WIDENER = "access_widener";
+
+	/**
+	 * Phase name for loading and constructing a module's entrypoint for the supplied entrypoint key.
+	 */
+	static String entryPointConstruct(String key) {
+		return "entrypoint_construct:"+key;
+	}
+
+	/**
+	 * Phase name for invoking a module's entrypoint for the supplied entrypoint key.
+	 */
+	static String entryPointInvoke(String key) {
+		return "entrypoint_invoke:"+key;
+	}
+
+	/**
+	 * Whether startup finished, otherwise the report only covers the phases measured so far.
+	 */
+	boolean isComplete();
+
+	/**
+	 * Get the summed time of all measured phases in nanoseconds, excluding {@link #MIXIN_APPLY}.
+	 */
+	long getTotalNanos();
+
+	/**
+	 * Get the timings of all modules with measured phases, slowest first.
+	 */
+	List<ModuleTiming> getModules();
+
+	/**
+	 * Get the time spent applying Mixins per target class in nanoseconds, slowest first.
+	 *
+	 * <p>Only classes targeted by at least one Mixin are included. Loading other classes while transforming a target
+	 * is not counted towards it.
+	 */
+	Map<String, Long> getMixinTargets();
+
+	/**
+	 * Get the time spent applying Mixins per Mixin config in nanoseconds, slowest first.
+	 *
+	 * <p>Mixin doesn't report the progress of every step of applying a mixin, so the time of a target is partially
+	 * split evenly among its mixins. The values are good for finding the expensive configs, not for exact comparisons.
+	 */
+	Map<String, Long> getMixinConfigs();
+
+	/**
+	 * Get the time spent applying Mixins per Mixin class, as {@code config:mixin}, in nanoseconds, slowest first.
+	 *
+	 * <p>The same approximation as for {@link #getMixinConfigs} applies.
+	 */
+	Map<String, Long> getMixins();
+
+	interface ModuleTiming {
+		String getModuleId();
+
+		/**
+		 * Get the measured phases mapped to their duration in nanoseconds, slowest first.
+		 */
+		Map<String, Long> getPhases();
+
+		/**
+		 * Get the summed time of the module's phases in nanoseconds, excluding {@link StartupReport#MIXIN_APPLY}.
+		 */
+		long getTotalNanos();
+	}
+}
@@ -16,88 +16,188 @@
 **/
 package net.flintloader.punch.impl;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 import net.flintloader.punch.api.ObjectShare;
 
+/**
+ * Lock-free object share.
+ *
+ * <p>Pending {@link #whenAvailable} consumers are queued per key. A {@code put} adding a new entry closes and drains
+ * the key's queue, a registration that raced with it re-checks the value and the queue's state afterwards. Every
+ * consumer is claimed exactly once, either by the draining {@code put} or by the registering thread.
+ */
 final class ObjectShareImpl implements ObjectShare {
-	private final Map<String, Object> values = new HashMap<>();
-	private final Map<String, List<BiConsumer<String, Object>>> pendingMap = new HashMap<>();
+	private final Map<String, Object> values = new ConcurrentHashMap<>();
+	private final Map<String, PendingQueue> pendingMap = new ConcurrentHashMap<>();
 
 	@Override
-	public synchronized Object get(String key) {
+	public Object get(String key) {
 		validateKey(key);
 
 		return values.get(key);
 	}
 
+	@Override
+	public <T> T get(Key<T> key) {
+		return key.cast(values.get(key.getName()));
+	}
+
 	@Override
 	public Object put(String key, Object value) {
 		validateKey(key);
-		Objects.requireNonNull(value, "null value");
-
-		List<BiConsumer<String, Object>> pending;
 
-		synchronized (this) {
-			Object prev = values.put(key, value);
-			if (prev != null) return prev; // no new entry -> can't have pending entries for it
+		return put0(key, value);
+	}
 
-			pending = pendingMap.remove(key);
+	@Override
+	public <T> T put(Key<T> key, T value) {
+		String name = key.getName();
+		T v = Objects.requireNonNull(key.cast(value), "null value");
+
+		for (;;) { // check the previous value's type before replacing it
+			Object prev = values.get(name);
+
+			if (prev == null) {
+				if (values.putIfAbsent(name, v) == null) {
+					invokePending(name, v);
+					return null;
+				}
+			} else {
+				T ret = key.cast(prev);
+				if (values.replace(name, prev, v)) return ret;
+			}
 		}
+	}
 
-		if (pending != null) invokePending(key, value, pending);
+	private Object put0(String key, Object value) {
+		Objects.requireNonNull(value, "null value");
 
-		return null;
+		Object prev = values.put(key, value);
+		if (prev == null) invokePending(key, value);
+
+		return prev;
 	}
 
 	@Override
 	public Object putIfAbsent(String key, Object value) {
 		validateKey(key);
-		Objects.requireNonNull(value, "null value");
 
-		List<BiConsumer<String, Object>> pending;
+		return putIfAbsent0(key, value);
+	}
 
-		synchronized (this) {
-			Object prev = values.putIfAbsent(key, value);
-			if (prev != null) return prev; // no new entry -> can't have pending entries for it
+	@Override
+	public <T> T putIfAbsent(Key<T> key, T value) {
+		return key.cast(putIfAbsent0(key.getName(), key.cast(value)));
+	}
 
-			pending = pendingMap.remove(key);
-		}
+	private Object putIfAbsent0(String key, Object value) {
+		Objects.requireNonNull(value, "null value");
 
-		if (pending != null) invokePending(key, value, pending);
+		Object prev = values.putIfAbsent(key, value);
+		if (prev == null) invokePending(key, value);
 
-		return null;
+		return prev;
 	}
 
 	@Override
-	public synchronized Object remove(String key) {
+	public Object remove(String key) {
 		validateKey(key);
 
 		return values.remove(key);
 	}
 
+	@Override
+	public <T> T remove(Key<T> key) {
+		String name = key.getName();
+
+		for (;;) { // check the previous value's type before removing it
+			Object prev = values.get(name);
+			if (prev == null) return null;
+
+			T ret = key.cast(prev);
+			if (values.remove(name, prev)) return ret;
+		}
+	}
+
 	@Override
 	public void whenAvailable(String key, BiConsumer<String, Object> consumer) {
 		validateKey(key);
+		Objects.requireNonNull(consumer, "null consumer");
 
-		Object value;
+		whenAvailable0(key, consumer);
+	}
 
-		synchronized (this) {
-			value = values.get(key);
+	@Override
+	public void whenAvailable(String key, Executor executor, BiConsumer<String, Object> consumer) {
+		validateKey(key);
+		Objects.requireNonNull(executor, "null executor");
+		Objects.requireNonNull(consumer, "null consumer");
 
-			if (value == null) { // value doesn't exist yet, queue invocation for when it gets added
-				pendingMap.computeIfAbsent(key, ignore -> new ArrayList<>()).add(consumer);
+		whenAvailable0(key, (k, v) -> executor.execute(() -> consumer.accept(k, v)));
+	}
+
+	@Override
+	public <T> void whenAvailable(Key<T> key, Consumer<? super T> consumer) {
+		Objects.requireNonNull(consumer, "null consumer");
+
+		whenAvailable0(key.getName(), (k, v) -> consumer.accept(key.cast(v)));
+	}
+
+	@Override
+	public <T> void whenAvailable(Key<T> key, Executor executor, Consumer<? super T> consumer) {
+		Objects.requireNonNull(executor, "null executor");
+		Objects.requireNonNull(consumer, "null consumer");
+
+		whenAvailable0(key.getName(), (k, v) -> executor.execute(() -> consumer.accept(key.cast(v))));
+	}
+
+	private void whenAvailable0(String key, BiConsumer<String, Object> consumer) {
+		for (;;) {
+			Object value = values.get(key);
+
+			if (value != null) { // value exists already, invoke directly
+				consumer.accept(key, value);
+				return;
+			}
+
+			// value doesn't exist yet, queue invocation for when it gets added
+			PendingEntry entry = new PendingEntry(consumer);
+			PendingQueue queue = pendingMap.computeIfAbsent(key, ignore -> new PendingQueue());
+			queue.entries.add(entry);
+
+			if (!queue.closed) {
+				// a put that added the value before the queue existed won't drain it
+				value = values.get(key);
+				if (value == null || !entry.claim()) return;
+
+				consumer.accept(key, value);
 				return;
 			}
+
+			// the queue was drained concurrently, retry unless the drain already took the entry
+			if (!entry.claim()) return;
 		}
+	}
+
+	private void invokePending(String key, Object value) {
+		PendingQueue queue = pendingMap.remove(key);
+		if (queue == null) return;
+
+		queue.closed = true;
+		PendingEntry entry;
 
-		// value exists already, invoke directly
-		consumer.accept(key, value);
+		while ((entry = queue.entries.poll()) != null) {
+			if (entry.claim()) entry.consumer.accept(key, value);
+		}
 	}
 
 	private static void validateKey(String key) {
@@ -107,9 +207,20 @@ final class ObjectShareImpl implements ObjectShare {
 		if (pos <= 0 || pos >= key.length() - 1) throw new IllegalArgumentException("invalid key, must be modid:subkey");
 	}
 
-	private static void invokePending(String key, Object value, List<BiConsumer<String, Object>> pending) {
-		for (BiConsumer<String, Object> consumer : pending) {
-			consumer.accept(key, value);
+	private static final class PendingQueue {
+		final Queue<PendingEntry> entries = new ConcurrentLinkedQueue<>();
+		volatile boolean closed;
+	}
+
+	private static final class PendingEntry extends AtomicBoolean {
+		final BiConsumer<String, Object> consumer;
+
+		PendingEntry(BiConsumer<String, Object> consumer) {
+			this.consumer = consumer;
+		}
+
+		boolean claim() {
+			return compareAndSet(false, true);
 		}
 	}
 }
@@ -19,8 +19,15 @@ package net.flintloader.punch.impl;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import net.flintloader.loader.api.FlintModuleContainer;
 import net.flintloader.loader.core.PunchLauncherHooks;
@@ -28,9 +35,13 @@ import net.flintloader.loader.modules.ModuleList;
 import net.flintloader.punch.PunchLoader;
 import net.flintloader.punch.api.MappingResolver;
 import net.flintloader.punch.api.ObjectShare;
+import net.flintloader.punch.api.StartupReport;
 import net.flintloader.punch.impl.game.GameProvider;
 import net.flintloader.punch.impl.launch.PunchLauncherBase;
 import net.flintloader.punch.impl.launch.punch.Punch;
+import net.flintloader.punch.impl.metrics.LoaderEvents;
+import net.flintloader.punch.impl.metrics.StartupMetrics;
+import net.flintloader.punch.impl.metrics.Tracer;
 import net.flintloader.punch.impl.util.LoaderUtil;
 import net.flintloader.punch.impl.util.log.Log;
 import net.flintloader.punch.impl.util.log.LogCategory;
@@ -74,6 +85,7 @@ public final class PunchLoaderImpl extends PunchLoader {
 		}
 
 		frozen = true;
+		ModuleList.getInstance().freeze();
 		PunchLauncherHooks.finishModuleSetup();
 	}
 
@@ -164,28 +176,68 @@ public final class PunchLoaderImpl extends PunchLoader {
 		return objectShare;
 	}
 
+	@Override
+	public StartupReport getStartupReport() {
+		return StartupMetrics.getReport();
+	}
+
+	/**
+	 * Finalize the startup report once the main entrypoints ran, logging it and publishing it in the object share.
+	 */
+	public void finishStartup() {
+		objectShare.put(StartupMetrics.SHARE_KEY, StartupMetrics.finish());
+		Tracer.finish();
+	}
+
 	@Override
 	public boolean isDevelopmentEnvironment() {
 		return PunchLauncherBase.getLauncher().isDevelopment();
 	}
 
 	public void loadAccessWideners() {
-		AccessWidenerReader accessWidenerReader = new AccessWidenerReader(accessWidener);
+		loadAccessWideners(Runnable::run);
+	}
 
-		for (FlintModuleContainer modContainer : ModuleList.getInstance().allModules()) {
-			if (modContainer.getMetadata().isBuiltIn()) continue;
+	/**
+	 * Load the access wideners of all modules, reading the files through the executor and applying them in module order.
+	 */
+	public void loadAccessWideners(Executor executor) {
+		AccessWidenerReader accessWidenerReader = new AccessWidenerReader(accessWidener);
+		List<FlintModuleContainer> modules = ModuleList.getInstance().getRegistry().getWithAccessWideners();
+		List<CompletableFuture<String>> contents = new ArrayList<>(modules.size());
 
+		for (FlintModuleContainer modContainer : modules) {
 			String accessWidener = modContainer.getMetadata().getAccessWidener();
-			if (accessWidener == null || accessWidener.isEmpty()) continue;
+			String moduleId = modContainer.getMetadata().getId();
 
 			Path path = modContainer.findPath(accessWidener).orElse(null);
-			if (path == null) throw new RuntimeException(String.format("Missing accessWidener file %s from module %s", accessWidener, modContainer.getMetadata().getId()));
+			if (path == null) throw new RuntimeException(String.format("Missing accessWidener file %s from module %s", accessWidener, moduleId));
 
-			try (BufferedReader reader = Files.newBufferedReader(path)) {
+			contents.add(CompletableFuture.supplyAsync(() -> {
+				long startTime = System.nanoTime();
+
+				try (LoaderEvents.Scope event = LoaderEvents.get().accessWidener(moduleId, "read")) {
+					return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				} finally {
+					StartupMetrics.record(moduleId, StartupReport.ACCESS_WIDENER, startTime);
+				}
+			}, executor));
+		}
+
+		for (int i = 0; i < modules.size(); i++) {
+			String moduleId = modules.get(i).getMetadata().getId();
+			long startTime = System.nanoTime();
+
+			try (LoaderEvents.Scope event = LoaderEvents.get().accessWidener(moduleId, "apply");
+					BufferedReader reader = new BufferedReader(new StringReader(contents.get(i).join()))) {
 				accessWidenerReader.read(reader, getMappingResolver().getCurrentRuntimeNamespace());
 			} catch (Exception e) {
-				throw new RuntimeException("Failed to read accessWidener file from mod " + modContainer.getMetadata().getId(), e);
+				throw new RuntimeException("Failed to read accessWidener file from mod " + moduleId, e);
 			}
+
+			StartupMetrics.record(moduleId, StartupReport.ACCESS_WIDENER, startTime);
 		}
 	}
 
@@ -0,0 +1,123 @@
+/**
+* Copyright 2016 FabricMC
+* Copyright 2024 Flint Loader Contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package net.flintloader.punch.impl.game;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Identifies the content of a set of class path jars by their paths, sizes and modification times.
+ *
+ * <p>Comparing fingerprints only needs one stat per entry, which is much cheaper than reading the jars. Directories
+ * can't be fingerprinted this way since their content may change without affecting their own attributes.
+ */
+public final class ClassPathFingerprint {
+	private final String[] paths;
+	private final long[] sizes;
+	private final long[] mtimes;
+
+	private ClassPathFingerprint(String[] paths, long[] sizes, long[] mtimes) {
+		this.paths = paths;
+		this.sizes = sizes;
+		this.mtimes = mtimes;
+	}
+
+	/**
+	 * Create the fingerprint for the current state of the supplied paths.
+	 *
+	 * @return the fingerprint or null if any path isn't a regular file
+	 */
+	public static ClassPathFingerprint create(Collection<Path> paths) {
+		String[] names = new String[paths.size()];
+		long[] sizes = new long[names.length];
+		long[] mtimes = new long[names.length];
+		int i = 0;
+
+		for (Path path : paths) {
+			BasicFileAttributes attrs;
+
+			try {
+				attrs = Files.readAttributes(path, BasicFileAttributes.class);
+			} catch (IOException e) {
+				return null;
+			}
+
+			if (!attrs.isRegularFile()) return null;
+
+			names[i] = path.toAbsolutePath().toString();
+			sizes[i] = attrs.size();
+			mtimes[i] = attrs.lastModifiedTime().toMillis();
+			i++;
+		}
+
+		return new ClassPathFingerprint(names, sizes, mtimes);
+	}
+
+	public static ClassPathFingerprint read(DataInput in) throws IOException {
+		int count = in.readInt();
+		if (count < 0) throw new IOException("invalid fingerprint entry count: "+count);
+
+		String[] paths = new String[count];
+		long[] sizes = new long[count];
+		long[] mtimes = new long[count];
+
+		for (int i = 0; i < count; i++) {
+			paths[i] = in.readUTF();
+			sizes[i] = in.readLong();
+			mtimes[i] = in.readLong();
+		}
+
+		return new ClassPathFingerprint(paths, sizes, mtimes);
+	}
+
+	public void write(DataOutput out) throws IOException {
+		out.writeInt(paths.length);
+
+		for (int i = 0; i < paths.length; i++) {
+			out.writeUTF(paths[i]);
+			out.writeLong(sizes[i]);
+			out.writeLong(mtimes[i]);
+		}
+	}
+
+	public int size() {
+		return paths.length;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (!(obj instanceof ClassPathFingerprint)) return false;
+
+		ClassPathFingerprint o = (ClassPathFingerprint) obj;
+
+		return Arrays.equals(paths, o.paths)
+				&& Arrays.equals(sizes, o.sizes)
+				&& Arrays.equals(mtimes, o.mtimes);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(paths) * 31 + Arrays.hashCode(sizes) * 17 + Arrays.hashCode(mtimes);
+	}
+}
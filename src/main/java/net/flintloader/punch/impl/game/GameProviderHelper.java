@@ -39,6 +39,9 @@ import net.flintloader.punch.impl.FormattedException;
 import net.flintloader.punch.impl.PunchLoaderImpl;
 import net.flintloader.punch.impl.launch.MappingConfiguration;
 import net.flintloader.punch.impl.launch.PunchLauncher;
+import net.flintloader.punch.impl.metrics.LoaderEvents;
+import net.flintloader.punch.impl.metrics.Tracer;
+import net.flintloader.punch.impl.util.JarRegistry;
 import net.flintloader.punch.impl.util.LoaderUtil;
 import net.flintloader.punch.impl.util.SystemProperties;
 import net.flintloader.punch.impl.util.UrlConversionException;
@@ -112,6 +115,53 @@ public final class GameProviderHelper {
 		}
 	}
 
+	/**
+	 * Find the first of the supplied names in the paths, reading jars through the shared {@link JarRegistry}.
+	 */
+	public static FindResult findFirst(List<Path> paths, boolean isClassName, String... names) {
+		JarRegistry.Handle[] jars = new JarRegistry.Handle[paths.size()];
+
+		try {
+			for (String name : names) {
+				String file = isClassName ? LoaderUtil.getClassFileName(name) : name;
+
+				for (int i = 0; i < paths.size(); i++) {
+					Path path = paths.get(i);
+
+					if (Files.isDirectory(path)) {
+						if (Files.exists(path.resolve(file))) {
+							return new FindResult(name, path);
+						}
+					} else {
+						JarRegistry.Handle jar = jars[i];
+
+						if (jar == null) {
+							try {
+								jars[i] = jar = JarRegistry.get().acquire(path);
+							} catch (IOException e) {
+								throw new RuntimeException("Error reading "+path, e);
+							}
+						}
+
+						if (jar.getEntry(file) != null) {
+							return new FindResult(name, path);
+						}
+					}
+				}
+			}
+
+			return null;
+		} finally {
+			for (JarRegistry.Handle jar : jars) {
+				if (jar != null) jar.close();
+			}
+		}
+	}
+
+	/**
+	 * @deprecated use {@link #findFirst(List, boolean, String...)}, which shares the opened jars with the rest of the loader
+	 */
+	@Deprecated
 	public static FindResult findFirst(List<Path> paths, Map<Path, ZipFile> zipFiles, boolean isClassName, String... names) {
 		for (String name : names) {
 			String file = isClassName ? LoaderUtil.getClassFileName(name) : name;
@@ -233,7 +283,7 @@ public final class GameProviderHelper {
 			emittedInfo = true;
 		}
 
-		try {
+		try (Tracer.Span span = Tracer.begin("launch", "deobfuscate")) {
 			Files.createDirectories(deobfJarDir);
 			deobfuscate0(inputFiles, outputFiles, tmpFiles, mappings, targetNamespace, launcher);
 		} catch (IOException e) {
@@ -263,19 +313,23 @@ public final class GameProviderHelper {
 	}
 
 	private static void deobfuscate0(List<Path> inputFiles, List<Path> outputFiles, List<Path> tmpFiles, TinyTree mappings, String targetNamespace, PunchLauncher launcher) throws IOException {
-		TinyRemapper remapper = TinyRemapper.newRemapper()
-				.withMappings(TinyRemapperMappingsHelper.create(mappings, "official", targetNamespace))
-				.rebuildSourceFilenames(true)
-				.build();
-
+		LoaderEvents events = LoaderEvents.get();
+		TinyRemapper remapper;
 		Set<Path> depPaths = new HashSet<>();
 
-		for (Path path : launcher.getClassPath()) {
-			if (!inputFiles.contains(path)) {
-				depPaths.add(path);
+		try (LoaderEvents.Scope event = events.remap("setup", null)) {
+			remapper = TinyRemapper.newRemapper()
+					.withMappings(TinyRemapperMappingsHelper.create(mappings, "official", targetNamespace))
+					.rebuildSourceFilenames(true)
+					.build();
+
+			for (Path path : launcher.getClassPath()) {
+				if (!inputFiles.contains(path)) {
+					depPaths.add(path);
 
-				Log.debug(LogCategory.GAME_REMAP, "Appending '%s' to remapper classpath", path);
-				remapper.readClassPathAsync(path);
+					Log.debug(LogCategory.GAME_REMAP, "Appending '%s' to remapper classpath", path);
+					remapper.readClassPathAsync(path);
+				}
 			}
 		}
 
@@ -287,28 +341,34 @@ public final class GameProviderHelper {
 				Path inputFile = inputFiles.get(i);
 				Path tmpFile = tmpFiles.get(i);
 
-				InputTag inputTag = remapper.createInputTag();
-				OutputConsumerPath outputConsumer = new OutputConsumerPath.Builder(tmpFile)
-						// force jar despite the .tmp extension
-						.assumeArchive(true)
-						.build();
+				try (LoaderEvents.Scope event = events.remap("read", inputFile.toString())) {
+					InputTag inputTag = remapper.createInputTag();
+					OutputConsumerPath outputConsumer = new OutputConsumerPath.Builder(tmpFile)
+							// force jar despite the .tmp extension
+							.assumeArchive(true)
+							.build();
 
-				outputConsumers.add(outputConsumer);
-				inputTags.add(inputTag);
+					outputConsumers.add(outputConsumer);
+					inputTags.add(inputTag);
 
-				outputConsumer.addNonClassFiles(inputFile, NonClassCopyMode.FIX_META_INF, remapper);
-				remapper.readInputsAsync(inputTag, inputFile);
+					outputConsumer.addNonClassFiles(inputFile, NonClassCopyMode.FIX_META_INF, remapper);
+					remapper.readInputsAsync(inputTag, inputFile);
+				}
 			}
 
 			for (int i = 0; i < inputFiles.size(); i++) {
-				remapper.apply(outputConsumers.get(i), inputTags.get(i));
+				try (LoaderEvents.Scope event = events.remap("apply", inputFiles.get(i).toString())) {
+					remapper.apply(outputConsumers.get(i), inputTags.get(i));
+				}
 			}
 		} finally {
-			for (OutputConsumerPath outputConsumer : outputConsumers) {
-				outputConsumer.close();
-			}
+			try (LoaderEvents.Scope event = events.remap("finish", null)) {
+				for (OutputConsumerPath outputConsumer : outputConsumers) {
+					outputConsumer.close();
+				}
 
-			remapper.finish();
+				remapper.finish();
+			}
 		}
 
 		// Minecraft doesn't tend to check if a ZipFileSystem is already present,
@@ -339,7 +399,8 @@ public final class GameProviderHelper {
 
 			boolean found;
 
-			try (JarFile jar = new JarFile(tmpFile.toFile())) {
+			try (LoaderEvents.Scope event = events.remap("verify", outputFile.toString());
+					JarFile jar = new JarFile(tmpFile.toFile())) {
 				found = jar.stream().anyMatch((e) -> e.getName().endsWith(".class"));
 			}
 
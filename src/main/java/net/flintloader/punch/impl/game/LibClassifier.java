@@ -16,13 +16,19 @@
 **/
 package net.flintloader.punch.impl.game;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumMap;
@@ -32,17 +38,19 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
-import java.util.zip.ZipEntry;
 import java.util.zip.ZipError;
-import java.util.zip.ZipFile;
+import java.util.zip.ZipException;
 
 import net.flintloader.punch.impl.game.LibClassifier.LibraryType;
+import net.flintloader.punch.impl.util.JarRegistry;
 import net.flintloader.punch.impl.util.LoaderUtil;
 import net.flintloader.punch.impl.util.ManifestUtil;
 import net.flintloader.punch.impl.util.SystemProperties;
 import net.flintloader.punch.impl.util.UrlUtil;
+import net.flintloader.punch.impl.util.jarfs.JarIndex;
 import net.flintloader.punch.impl.util.log.Log;
 import net.flintloader.punch.impl.util.log.LogCategory;
 
@@ -54,6 +62,7 @@ public final class LibClassifier<L extends Enum<L> & LibraryType> {
 	private final Map<L, String> localPaths;
 	private final Set<Path> systemLibraries = new HashSet<>();
 	private final List<Path> unmatchedOrigins = new ArrayList<>();
+	private final MarkerTrie markers = new MarkerTrie();
 
 	public LibClassifier(Class<L> cls, GameProvider gameProvider) throws IOException {
 		L[] libs = cls.getEnumConstants();
@@ -65,6 +74,14 @@ public final class LibClassifier<L extends Enum<L> & LibraryType> {
 		// game provider libs
 		Collections.addAll(this.libs, libs);
 
+		for (int i = 0; i < libs.length; i++) {
+			String[] paths = libs[i].getPaths();
+
+			for (int j = 0; j < paths.length; j++) {
+				markers.add(paths[j].getBytes(StandardCharsets.UTF_8), i, j);
+			}
+		}
+
 		// system libs configured through system property
 
 		StringBuilder sb = DEBUG ? new StringBuilder() : null;
@@ -124,11 +141,11 @@ public final class LibClassifier<L extends Enum<L> & LibraryType> {
 
 		Manifest manifest;
 
-		try (ZipFile zf = new ZipFile(lib.path.toFile())) {
-			ZipEntry entry = zf.getEntry(JarFile.MANIFEST_NAME);
-			if (entry == null) return;
+		try (JarRegistry.Handle jar = JarRegistry.get().acquire(lib.path);
+				InputStream is = jar.getInputStream(JarFile.MANIFEST_NAME)) {
+			if (is == null) return;
 
-			manifest = new Manifest(zf.getInputStream(entry));
+			manifest = new Manifest(is);
 		}
 
 		List<URL> cp = ManifestUtil.getClassPath(manifest, lib.path);
@@ -143,12 +160,23 @@ public final class LibClassifier<L extends Enum<L> & LibraryType> {
 		process(UrlUtil.asPath(url));
 	}
 
+	/**
+	 * Classify multiple paths.
+	 *
+	 * <p>The paths are scanned in parallel, the results get applied in iteration order. This yields the same matches as
+	 * processing the paths one by one.
+	 */
 	@SafeVarargs
 	public final void process(Iterable<Path> paths, L... excludedLibs) throws IOException {
 		Set<L> excluded = makeSet(excludedLibs);
+		List<CompletableFuture<Classification>> futures = new ArrayList<>();
 
 		for (Path path : paths) {
-			process(path, excluded);
+			futures.add(CompletableFuture.supplyAsync(() -> classify(path)));
+		}
+
+		for (CompletableFuture<Classification> future : futures) {
+			apply(future.join(), excluded);
 		}
 	}
 
@@ -170,40 +198,94 @@ public final class LibClassifier<L extends Enum<L> & LibraryType> {
 	}
 
 	private void process(Path path, Set<L> excludedLibs) throws IOException {
-		path = LoaderUtil.normalizeExistingPath(path);
-		if (systemLibraries.contains(path)) return;
+		apply(classify(path), excludedLibs);
+	}
 
-		boolean matched = false;
+	/**
+	 * Determine all libraries contained in a path, independent of the classifier's current state.
+	 *
+	 * <p>Jars are classified with a single pass over their central directory, matching every entry name against the
+	 * marker paths of all libraries.
+	 */
+	private Classification classify(Path path) {
+		Classification ret = new Classification(libs.size());
 
-		if (Files.isDirectory(path)) {
-			for (L lib : libs) {
-				if (excludedLibs.contains(lib) || origins.containsKey(lib)) continue;
+		try {
+			path = LoaderUtil.normalizeExistingPath(path);
+			ret.path = path;
+			if (systemLibraries.contains(path)) return ret;
 
-				for (String p : lib.getPaths()) {
-					if (Files.exists(path.resolve(p))) {
-						matched = true;
-						addLibrary(lib, path, p);
-						break;
+			if (Files.isDirectory(path)) {
+				for (int i = 0; i < libs.size(); i++) {
+					String[] paths = libs.get(i).getPaths();
+
+					for (int j = 0; j < paths.length; j++) {
+						if (Files.exists(path.resolve(paths[j]))) {
+							ret.offer(i, j, paths[j]);
+							break;
+						}
 					}
 				}
-			}
-		} else {
-			try (ZipFile zf = new ZipFile(path.toFile())) {
-				for (L lib : libs) {
-					if (excludedLibs.contains(lib) || origins.containsKey(lib)) continue;
-
-					for (String p : lib.getPaths()) {
-						if (zf.getEntry(p) != null) {
-							matched = true;
-							addLibrary(lib, path, p);
-							break;
+			} else {
+				try {
+					JarIndex.scanNames(path, (data, offset, length) -> {
+						int[] matches = markers.get(data, offset, length);
+						if (matches == null) return;
+
+						for (int i = 0; i < matches.length; i += 2) {
+							int lib = matches[i];
+							int localPath = matches[i + 1];
+							ret.offer(lib, localPath, libs.get(lib).getPaths()[localPath]);
 						}
+					});
+				} catch (ZipException e) {
+					// unusual zip layout, let ZipFile try
+					classifyZip(path, ret);
+				}
+			}
+		} catch (ZipError | IOException e) {
+			ret.error = new IOException("error reading "+path, e);
+		} catch (RuntimeException e) {
+			ret.error = e;
+		}
+
+		return ret;
+	}
+
+	private void classifyZip(Path path, Classification out) throws IOException {
+		try (JarRegistry.Handle jar = JarRegistry.get().acquire(path)) {
+			for (int i = 0; i < libs.size(); i++) {
+				String[] paths = libs.get(i).getPaths();
+
+				for (int j = 0; j < paths.length; j++) {
+					if (jar.getEntry(paths[j]) != null) {
+						out.offer(i, j, paths[j]);
+						break;
 					}
 				}
-			} catch (ZipError | IOException e) {
-				throw new IOException("error reading "+path, e);
 			}
 		}
+	}
+
+	private void apply(Classification classification, Set<L> excludedLibs) throws IOException {
+		if (classification.error instanceof IOException) throw (IOException) classification.error;
+		if (classification.error != null) throw (RuntimeException) classification.error;
+
+		Path path = classification.path;
+		if (systemLibraries.contains(path)) return;
+
+		boolean matched = false;
+
+		for (int i = 0; i < libs.size(); i++) {
+			String localPath = classification.localPaths[i];
+			if (localPath == null) continue;
+
+			L lib = libs.get(i);
+			if (excludedLibs.contains(lib) || origins.containsKey(lib)) continue;
+
+			matched = true;
+			addLibrary(lib, path, localPath);
+		}
 
 		if (!matched) {
 			unmatchedOrigins.add(path);
@@ -278,6 +360,163 @@ public final class LibClassifier<L extends Enum<L> & LibraryType> {
 		return ret;
 	}
 
+	/**
+	 * Write the matched libraries and unmatched origins, to be restored with {@link #read}.
+	 */
+	public void write(DataOutput out) throws IOException {
+		out.writeInt(origins.size());
+
+		for (Map.Entry<L, Path> entry : origins.entrySet()) {
+			out.writeUTF(entry.getKey().name());
+			out.writeUTF(entry.getValue().toString());
+			out.writeUTF(localPaths.get(entry.getKey()));
+		}
+
+		out.writeInt(unmatchedOrigins.size());
+
+		for (Path path : unmatchedOrigins) {
+			out.writeUTF(path.toString());
+		}
+	}
+
+	/**
+	 * Restore the state written by {@link #write} instead of processing the paths again.
+	 *
+	 * <p>The classifier has to be unused, the data is fully validated before any of it is applied.
+	 */
+	public void read(DataInput in) throws IOException {
+		if (!origins.isEmpty() || !unmatchedOrigins.isEmpty()) throw new IllegalStateException("classifier already in use");
+
+		int count = in.readInt();
+		if (count < 0 || count > libs.size()) throw new IOException("invalid library count: "+count);
+
+		List<L> readLibs = new ArrayList<>(count);
+		List<Path> readOrigins = new ArrayList<>(count);
+		List<String> readLocalPaths = new ArrayList<>(count);
+
+		for (int i = 0; i < count; i++) {
+			String name = in.readUTF();
+			L lib = null;
+
+			for (L l : libs) {
+				if (l.name().equals(name)) {
+					lib = l;
+					break;
+				}
+			}
+
+			if (lib == null || readLibs.contains(lib)) throw new IOException("invalid library: "+name);
+
+			readLibs.add(lib);
+			readOrigins.add(Paths.get(in.readUTF()));
+			readLocalPaths.add(in.readUTF());
+		}
+
+		int unmatchedCount = in.readInt();
+		if (unmatchedCount < 0) throw new IOException("invalid unmatched origin count: "+unmatchedCount);
+
+		List<Path> readUnmatched = new ArrayList<>(unmatchedCount);
+
+		for (int i = 0; i < unmatchedCount; i++) {
+			readUnmatched.add(Paths.get(in.readUTF()));
+		}
+
+		for (int i = 0; i < count; i++) {
+			addLibrary(readLibs.get(i), readOrigins.get(i), readLocalPaths.get(i));
+		}
+
+		unmatchedOrigins.addAll(readUnmatched);
+	}
+
+	private static final class Classification {
+		Path path;
+		final String[] localPaths;
+		final int[] pathIndices; // index of the found local path within the lib's paths, lower is preferred
+		Exception error;
+
+		Classification(int libCount) {
+			this.localPaths = new String[libCount];
+			this.pathIndices = new int[libCount];
+		}
+
+		void offer(int lib, int pathIndex, String localPath) {
+			if (localPaths[lib] == null || pathIndex < pathIndices[lib]) {
+				localPaths[lib] = localPath;
+				pathIndices[lib] = pathIndex;
+			}
+		}
+	}
+
+	/**
+	 * Byte trie of the UTF-8 encoded library marker paths, matched directly against raw zip entry names.
+	 */
+	private static final class MarkerTrie {
+		private final List<byte[]> labels = new ArrayList<>(); // per node, bytes of the outgoing edges
+		private final List<int[]> children = new ArrayList<>(); // per node, target nodes of the outgoing edges
+		private final List<int[]> values = new ArrayList<>(); // per node, (lib, path index) pairs ending there
+
+		MarkerTrie() {
+			addNode();
+		}
+
+		private int addNode() {
+			labels.add(new byte[0]);
+			children.add(new int[0]);
+			values.add(null);
+
+			return labels.size() - 1;
+		}
+
+		void add(byte[] key, int lib, int pathIndex) {
+			int node = 0;
+
+			for (byte b : key) {
+				int next = getChild(node, b);
+
+				if (next < 0) {
+					next = addNode();
+					byte[] nodeLabels = labels.get(node);
+					int[] nodeChildren = children.get(node);
+					nodeLabels = Arrays.copyOf(nodeLabels, nodeLabels.length + 1);
+					nodeChildren = Arrays.copyOf(nodeChildren, nodeChildren.length + 1);
+					nodeLabels[nodeLabels.length - 1] = b;
+					nodeChildren[nodeChildren.length - 1] = next;
+					labels.set(node, nodeLabels);
+					children.set(node, nodeChildren);
+				}
+
+				node = next;
+			}
+
+			int[] prev = values.get(node);
+			int[] value = prev == null ? new int[2] : Arrays.copyOf(prev, prev.length + 2);
+			value[value.length - 2] = lib;
+			value[value.length - 1] = pathIndex;
+			values.set(node, value);
+		}
+
+		private int getChild(int node, byte b) {
+			byte[] nodeLabels = labels.get(node);
+
+			for (int i = 0; i < nodeLabels.length; i++) {
+				if (nodeLabels[i] == b) return children.get(node)[i];
+			}
+
+			return -1;
+		}
+
+		int[] get(ByteBuffer data, int offset, int length) {
+			int node = 0;
+
+			for (int i = 0; i < length; i++) {
+				node = getChild(node, data.get(offset + i));
+				if (node < 0) return null;
+			}
+
+			return values.get(node);
+		}
+	}
+
 	public interface LibraryType {
 		String[] getPaths();
 	}
@@ -118,5 +118,29 @@ public abstract class GamePatch {
 		return ((access & 0x0F) == (Opcodes.ACC_PUBLIC | 0 /* non-static */));
 	}
 
+	/**
+	 * Read a class only to inspect it, skipping debug info and frames where the class source supports it.
+	 *
+	 * <p>The returned node must neither be modified nor emitted, use {@code classSource.apply} for classes to patch.
+	 */
+	protected ClassNode inspectClass(Function<String, ClassNode> classSource, String name) {
+		if (classSource instanceof GameTransformer.ClassSource) {
+			return ((GameTransformer.ClassSource) classSource).inspect(name);
+		} else {
+			return classSource.apply(name);
+		}
+	}
+
+	/**
+	 * Determine whether a class exists without parsing it where the class source supports it.
+	 */
+	protected boolean hasClass(Function<String, ClassNode> classSource, String name) {
+		if (classSource instanceof GameTransformer.ClassSource) {
+			return ((GameTransformer.ClassSource) classSource).exists(name);
+		} else {
+			return classSource.apply(name) != null;
+		}
+	}
+
 	public abstract void process(PunchLauncher launcher, Function<String, ClassNode> classSource, Consumer<ClassNode> classEmitter);
 }
@@ -16,20 +16,33 @@
 **/
 package net.flintloader.punch.impl.game.patch;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.zip.ZipError;
 
+import net.flintloader.punch.impl.PunchLoaderImpl;
+import net.flintloader.punch.impl.game.ClassPathFingerprint;
 import net.flintloader.punch.impl.launch.PunchLauncher;
+import net.flintloader.punch.impl.metrics.Tracer;
 import net.flintloader.punch.impl.util.ExceptionUtil;
 import net.flintloader.punch.impl.util.LoaderUtil;
 import net.flintloader.punch.impl.util.SimpleClassPath;
+import net.flintloader.punch.impl.util.SystemProperties;
 import net.flintloader.punch.impl.util.log.Log;
 import net.flintloader.punch.impl.util.log.LogCategory;
 import org.objectweb.asm.ClassReader;
@@ -37,8 +50,15 @@ import org.objectweb.asm.ClassWriter;
 import org.objectweb.asm.tree.ClassNode;
 
 public class GameTransformer {
+	private static final String CACHE_FILE_NAME = "patchedClasses.bin";
+	private static final int CACHE_MAGIC = 0x464C5043;
+	private static final int CACHE_FORMAT_VERSION = 1;
+
 	private final List<GamePatch> patches;
-	private Map<String, byte[]> patchedClasses;
+	private final Map<String, byte[]> patchedClasses = new ConcurrentHashMap<>();
+	private Path cacheFile; // persisted copy of patchedClasses for later launches, only read while locating entrypoints
+	private String cacheKey;
+	private ClassPathFingerprint cacheFingerprint;
 	private boolean entrypointsLocated = false;
 
 	public GameTransformer(GamePatch... patches) {
@@ -58,57 +78,155 @@ public class GameTransformer {
 	}
 
 	public void locateEntrypoints(PunchLauncher launcher, List<Path> gameJars) {
+		locateEntrypoints(launcher, gameJars, null);
+	}
+
+	/**
+	 * Run the patches against the game jars.
+	 *
+	 * <p>With a cache directory the patched classes are persisted, keyed by the game jars' fingerprint. Later launches
+	 * with the same jars load them from there without running any patches.
+	 *
+	 * @param cacheDir directory to persist the patched classes in, null to disable persisting
+	 */
+	public void locateEntrypoints(PunchLauncher launcher, List<Path> gameJars, Path cacheDir) {
 		if (entrypointsLocated) {
 			return;
 		}
 
-		patchedClasses = new HashMap<>();
+		try (Tracer.Span span = Tracer.begin("launch", "GameTransformer.locateEntrypoints")) {
+			locateEntrypoints0(launcher, gameJars, cacheDir);
+		}
+	}
 
-		try (SimpleClassPath cp = new SimpleClassPath(gameJars)) {
-			Map<String, ClassNode> patchedClassNodes = new HashMap<>();
+	private void locateEntrypoints0(PunchLauncher launcher, List<Path> gameJars, Path cacheDir) {
+
+		if (cacheDir != null && System.getProperty(SystemProperties.DEBUG_DISABLE_PROVIDER_CACHE) == null) {
+			cacheFingerprint = ClassPathFingerprint.create(gameJars);
+
+			if (cacheFingerprint != null) {
+				cacheFile = cacheDir.resolve(CACHE_FILE_NAME);
+				cacheKey = getCacheKey(launcher);
 
-			final Function<String, ClassNode> classSource = name -> {
-				// Reuse previously patched classes if available
-				if (patchedClassNodes.containsKey(name)) {
-					return patchedClassNodes.get(name);
+				Map<String, byte[]> cached = readCache();
+
+				if (cached != null) {
+					patchedClasses.putAll(cached);
+					Log.debug(LogCategory.GAME_PATCH, "Loaded %d patched class%s from %s", patchedClasses.size(), patchedClasses.size() != 1 ? "es" : "", cacheFile);
+					entrypointsLocated = true;
+					return;
 				}
+			}
+		}
 
-				return readClassNode(cp, name);
-			};
+		try (SimpleClassPath cp = new SimpleClassPath(gameJars)) {
+			ClassSource classSource = new ClassSource(cp);
 
 			for (GamePatch patch : patches) {
-				patch.process(launcher, classSource, classNode -> patchedClassNodes.put(classNode.name, classNode));
+				patch.process(launcher, classSource, classSource::addPatched);
 			}
 
-			for (ClassNode patchedClassNode : patchedClassNodes.values()) {
+			for (ClassNode patchedClassNode : classSource.patchedNodes.values()) {
 				addPatchedClass(patchedClassNode);
 			}
 		} catch (IOException e) {
 			throw ExceptionUtil.wrap(e);
 		}
 
-		Log.debug(LogCategory.GAME_PATCH, "Patched %d class%s", patchedClasses.size(), patchedClasses.size() != 1 ? "s" : "");
+		Log.debug(LogCategory.GAME_PATCH, "Patched %d class%s", patchedClasses.size(), patchedClasses.size() != 1 ? "es" : "");
+
+		if (cacheFile != null && !writeCache()) {
+			cacheFile = null;
+		}
+
 		entrypointsLocated = true;
 	}
 
-	private ClassNode readClassNode(SimpleClassPath classpath, String name) {
-		byte[] data = patchedClasses.get(name);
+	private String getCacheKey(PunchLauncher launcher) {
+		StringBuilder sb = new StringBuilder(PunchLoaderImpl.VERSION);
+		sb.append('\n').append(launcher.getClass().getName());
+		sb.append('\n').append(launcher.getEntrypoint());
+		sb.append('\n').append(launcher.getTargetNamespace());
+		sb.append('\n').append(launcher.isDevelopment());
 
-		if (data != null) {
-			return readClass(new ClassReader(data));
+		for (GamePatch patch : patches) {
+			sb.append('\n').append(patch.getClass().getName());
 		}
 
+		return sb.toString();
+	}
+
+	/**
+	 * Read the persisted patched classes, null if there are none for the current game jars.
+	 */
+	private Map<String, byte[]> readCache() {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+			if (in.readInt() != CACHE_MAGIC
+					|| in.readInt() != CACHE_FORMAT_VERSION
+					|| !in.readUTF().equals(cacheKey)
+					|| !ClassPathFingerprint.read(in).equals(cacheFingerprint)) {
+				Log.debug(LogCategory.GAME_PATCH, "Patched class cache %s is outdated", cacheFile);
+				return null;
+			}
+
+			int count = in.readInt();
+			if (count < 0) throw new IOException("invalid class count: "+count);
+
+			Map<String, byte[]> ret = new HashMap<>(count);
+
+			for (int i = 0; i < count; i++) {
+				String name = in.readUTF();
+				byte[] data = new byte[in.readInt()];
+				in.readFully(data);
+				ret.put(name, data);
+			}
+
+			return ret;
+		} catch (NoSuchFileException e) {
+			return null;
+		} catch (IOException e) {
+			Log.debug(LogCategory.GAME_PATCH, "Error reading patched class cache %s", cacheFile, e);
+			return null;
+		}
+	}
+
+	private boolean writeCache() {
+		Path tmpFile = cacheFile.resolveSibling(cacheFile.getFileName()+".tmp");
+
 		try {
-			SimpleClassPath.CpEntry entry = classpath.getEntry(LoaderUtil.getClassFileName(name));
-			if (entry == null) return null;
+			Files.createDirectories(cacheFile.getParent());
+
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+				out.writeInt(CACHE_MAGIC);
+				out.writeInt(CACHE_FORMAT_VERSION);
+				out.writeUTF(cacheKey);
+				cacheFingerprint.write(out);
+				out.writeInt(patchedClasses.size());
 
-			try (InputStream is = entry.getInputStream()) {
-				return readClass(new ClassReader(is));
-			} catch (IOException | ZipError e) {
-				throw new RuntimeException(String.format("error reading %s in %s: %s", name, LoaderUtil.normalizePath(entry.getOrigin()), e), e);
+				for (Map.Entry<String, byte[]> entry : patchedClasses.entrySet()) {
+					out.writeUTF(entry.getKey());
+					out.writeInt(entry.getValue().length);
+					out.write(entry.getValue());
+				}
 			}
+
+			try {
+				Files.move(tmpFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmpFile, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+			}
+
+			return true;
 		} catch (IOException e) {
-			throw ExceptionUtil.wrap(e);
+			Log.warn(LogCategory.GAME_PATCH, "Error writing patched class cache %s", cacheFile, e);
+
+			try {
+				Files.deleteIfExists(tmpFile);
+			} catch (IOException ignore) {
+				// pass
+			}
+
+			return false;
 		}
 	}
 
@@ -118,14 +236,117 @@ public class GameTransformer {
 	 * @return The transformed class data.
 	 */
 	public byte[] transform(String className) {
+		// the bytes stay in memory, defined classes may be requested again (e.g. by mixin) and the cache file may have
+		// been replaced by another launch in the meantime
 		return patchedClasses.get(className);
 	}
 
-	private static ClassNode readClass(ClassReader reader) {
+	private static ClassNode readClass(ClassReader reader, int parsingOptions) {
 		if (reader == null) return null;
 
 		ClassNode node = new ClassNode();
-		reader.accept(node, 0);
+		reader.accept(node, parsingOptions);
 		return node;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Class source handed to the patches, reading every class file at most once.
+	 *
+	 * <p>Classes only inspected through {@link GamePatch#inspectClass} are parsed without debug info and frames.
+	 */
+	static final class ClassSource implements Function<String, ClassNode> {
+		private static final int INSPECT_OPTIONS = ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES;
+
+		private final SimpleClassPath classpath;
+		final Map<String, ClassNode> patchedNodes = new HashMap<>();
+		private final Map<String, byte[]> classBytes = new HashMap<>();
+		private final Map<String, ClassNode> inspectedNodes = new HashMap<>();
+
+		ClassSource(SimpleClassPath classpath) {
+			this.classpath = classpath;
+		}
+
+		void addPatched(ClassNode node) {
+			patchedNodes.put(node.name, node);
+		}
+
+		@Override
+		public ClassNode apply(String name) {
+			// Reuse previously patched classes if available
+			ClassNode ret = patchedNodes.get(name.replace('.', '/'));
+			if (ret != null) return ret;
+
+			byte[] data = getBytes(name);
+
+			return data != null ? readClass(new ClassReader(data), 0) : null;
+		}
+
+		/**
+		 * Returns a read-only class node without debug info and frames, it must not be modified or emitted.
+		 */
+		ClassNode inspect(String name) {
+			ClassNode ret = patchedNodes.get(name.replace('.', '/'));
+			if (ret != null) return ret;
+
+			ret = inspectedNodes.get(name);
+			if (ret != null) return ret;
+
+			byte[] data = getBytes(name);
+			if (data == null) return null;
+
+			ret = readClass(new ClassReader(data), INSPECT_OPTIONS);
+			inspectedNodes.put(name, ret);
+
+			return ret;
+		}
+
+		boolean exists(String name) {
+			if (patchedNodes.containsKey(name.replace('.', '/')) || classBytes.get(name) != null) return true;
+
+			try {
+				return classpath.getEntry(LoaderUtil.getClassFileName(name)) != null;
+			} catch (IOException e) {
+				throw ExceptionUtil.wrap(e);
+			}
+		}
+
+		private byte[] getBytes(String name) {
+			if (classBytes.containsKey(name)) return classBytes.get(name);
+
+			byte[] ret;
+
+			try {
+				SimpleClassPath.CpEntry entry = classpath.getEntry(LoaderUtil.getClassFileName(name));
+
+				if (entry == null) {
+					ret = null;
+				} else {
+					try (InputStream is = entry.getInputStream()) {
+						ret = readFully(is);
+					} catch (IOException | ZipError e) {
+						throw new RuntimeException(String.format("error reading %s in %s: %s", name, LoaderUtil.normalizePath(entry.getOrigin()), e), e);
+					}
+				}
+			} catch (IOException e) {
+				throw ExceptionUtil.wrap(e);
+			}
+
+			classBytes.put(name, ret);
+
+			return ret;
+		}
+
+		private static byte[] readFully(InputStream is) throws IOException {
+			byte[] buffer = new byte[Math.max(is.available(), 8192)];
+			int offset = 0;
+			int len;
+
+			while ((len = is.read(buffer, offset, buffer.length - offset)) >= 0) {
+				offset += len;
+				if (offset == buffer.length) buffer = Arrays.copyOf(buffer, buffer.length * 2);
+			}
+
+			return offset == buffer.length ? buffer : Arrays.copyOf(buffer, offset);
+		}
+	}
+}
@@ -24,9 +24,12 @@ import com.llamalad7.mixinextras.MixinExtrasBootstrap;
 import net.flintloader.loader.api.FlintModuleContainer;
 import net.flintloader.loader.modules.FlintModuleMetadata;
 import net.flintloader.loader.modules.ModuleList;
+import net.flintloader.punch.api.StartupReport;
 import net.flintloader.punch.impl.PunchLoaderImpl;
 import net.flintloader.punch.impl.launch.punch.MixinServicePunch;
 import net.flintloader.punch.impl.launch.punch.MixinServicePunchBootstrap;
+import net.flintloader.punch.impl.metrics.LoaderEvents;
+import net.flintloader.punch.impl.metrics.StartupMetrics;
 import net.flintloader.punch.impl.util.log.Log;
 import net.flintloader.punch.impl.util.log.LogCategory;
 import net.flintloader.punch.impl.util.mappings.MixinIntermediaryDevRemapper;
@@ -79,15 +82,20 @@ public final class FlintMixinBootstrap {
 
 		Map<String, FlintModuleMetadata> configToModuleMap = new HashMap<>();
 
-		for (FlintModuleContainer container : ModuleList.getInstance().allModules()) {
+		for (FlintModuleContainer container : ModuleList.getInstance().getRegistry().getWithMixins()) {
 			FlintModuleMetadata module = container.getMetadata();
-			if (!module.isBuiltIn()) {
-				for (String config : module.getMixins()) {
-					FlintModuleMetadata prev = configToModuleMap.putIfAbsent(config, module);
-					if (prev != null) throw new RuntimeException(String.format("Non-unique Mixin config name %s used by the modules %s and %s", config, prev.getId(), module.getId()));
 
+			for (String config : module.getMixins()) {
+				FlintModuleMetadata prev = configToModuleMap.putIfAbsent(config, module);
+				if (prev != null) throw new RuntimeException(String.format("Non-unique Mixin config name %s used by the modules %s and %s", config, prev.getId(), module.getId()));
+
+				long startTime = System.nanoTime();
+
+				try (LoaderEvents.Scope event = LoaderEvents.get().mixinConfig(module.getId(), config)) {
 					Mixins.addConfiguration(config);
 				}
+
+				StartupMetrics.record(module.getId(), StartupReport.MIXIN_CONFIG, startTime);
 			}
 		}
 
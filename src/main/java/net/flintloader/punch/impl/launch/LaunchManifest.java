@@ -0,0 +1,224 @@
+/**
+* Copyright 2016 FabricMC
+* Copyright 2024 Flint Loader Contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package net.flintloader.punch.impl.launch;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import net.flintloader.punch.impl.PunchLoaderImpl;
+import net.flintloader.punch.impl.game.ClassPathFingerprint;
+import net.flintloader.punch.impl.game.GameProvider;
+import net.flintloader.punch.impl.util.SystemProperties;
+import net.flintloader.punch.impl.util.log.Log;
+import net.flintloader.punch.impl.util.log.LogCategory;
+
+/**
+ * Discovery results of the last successful launch, persisted in the cache directory.
+ *
+ * <p>The manifest holds the raw module metadata of every module jar together with the fingerprint of all candidate
+ * files. If the candidates, the game and the loader are unchanged, discovery replays the stored metadata instead of
+ * opening every jar. The game provider's classification, version detection and patches are persisted separately by
+ * the provider and validated the same way. The manifest is disabled in development environments.
+ *
+ * <p>Only launches where every candidate was read successfully are persisted, skipped or failing candidates have to
+ * report their diagnostics again on the next launch.
+ */
+public final class LaunchManifest {
+	private static final LaunchManifest INSTANCE = new LaunchManifest();
+
+	private static final String FILE_NAME = "launch-manifest.bin";
+	private static final int MAGIC = 0x464C4C4D;
+	private static final int FORMAT_VERSION = 1;
+
+	private final List<ModuleEntry> modules = new ArrayList<>();
+	private String key;
+	private ClassPathFingerprint candidates;
+	private boolean reused;
+	private boolean discarded;
+
+	private LaunchManifest() { }
+
+	public static LaunchManifest get() {
+		return INSTANCE;
+	}
+
+	private static boolean isEnabled() {
+		return System.getProperty(SystemProperties.DEBUG_DISABLE_LAUNCH_MANIFEST) == null
+				&& !PunchLauncherBase.getLauncher().isDevelopment();
+	}
+
+	private static Path getFile() {
+		return PunchLoaderImpl.INSTANCE.getGameDir().resolve(PunchLoaderImpl.CACHE_DIR_NAME).resolve(FILE_NAME);
+	}
+
+	/**
+	 * Returns the modules of the last launch if the candidate files are unchanged, null otherwise.
+	 *
+	 * <p>The candidates are remembered for {@link #save} either way.
+	 *
+	 * @param candidateFiles all files discovery would inspect, in discovery order
+	 */
+	public synchronized List<ModuleEntry> getModules(Path modulesDir, List<Path> candidateFiles) {
+		if (!isEnabled()) return null;
+
+		GameProvider provider = PunchLoaderImpl.INSTANCE.getGameProvider();
+		key = String.join("\n", PunchLoaderImpl.VERSION, provider.getGameId(), provider.getRawGameVersion(), modulesDir.toAbsolutePath().normalize().toString());
+		candidates = ClassPathFingerprint.create(candidateFiles);
+		if (candidates == null) return null;
+
+		Path file = getFile();
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			if (in.readInt() != MAGIC
+					|| in.readInt() != FORMAT_VERSION
+					|| !in.readUTF().equals(key)
+					|| !ClassPathFingerprint.read(in).equals(candidates)) {
+				Log.debug(LogCategory.DISCOVERY, "Launch manifest %s is outdated", file);
+				return null;
+			}
+
+			int count = in.readInt();
+			if (count < 0) throw new IOException("invalid module count: "+count);
+
+			List<ModuleEntry> ret = new ArrayList<>(count);
+
+			for (int i = 0; i < count; i++) {
+				int pathCount = in.readInt();
+				if (pathCount < 0) throw new IOException("invalid path count: "+pathCount);
+
+				List<Path> source = new ArrayList<>(pathCount);
+
+				for (int j = 0; j < pathCount; j++) {
+					source.add(Paths.get(in.readUTF()));
+				}
+
+				byte[] metadata = new byte[in.readInt()];
+				in.readFully(metadata);
+				ret.add(new ModuleEntry(Collections.unmodifiableList(source), metadata));
+			}
+
+			Log.debug(LogCategory.DISCOVERY, "Reusing launch manifest %s with %d modules", file, count);
+			reused = true;
+
+			return ret;
+		} catch (NoSuchFileException e) {
+			return null;
+		} catch (IOException e) {
+			Log.debug(LogCategory.DISCOVERY, "Error reading launch manifest %s", file, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Record a discovered module for the next launch.
+	 *
+	 * @param metadata the raw content of the module's metadata file
+	 */
+	public synchronized void addModule(List<Path> source, byte[] metadata) {
+		if (candidates != null && !reused) modules.add(new ModuleEntry(source, metadata));
+	}
+
+	/**
+	 * Prevent persisting the manifest of this launch, e.g. because a candidate was skipped or failed to load.
+	 */
+	public synchronized void discard(String reason) {
+		if (candidates != null && !reused && !discarded) {
+			Log.debug(LogCategory.DISCOVERY, "Not saving launch manifest: %s", reason);
+		}
+
+		discarded = true;
+	}
+
+	/**
+	 * Persist the manifest, to be called once the launch succeeded.
+	 */
+	public synchronized void save() {
+		if (candidates == null || reused || discarded) return;
+
+		Path file = getFile();
+		Path tmpFile = file.resolveSibling(file.getFileName()+".tmp");
+
+		try {
+			Files.createDirectories(file.getParent());
+
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+				out.writeInt(MAGIC);
+				out.writeInt(FORMAT_VERSION);
+				out.writeUTF(key);
+				candidates.write(out);
+				out.writeInt(modules.size());
+
+				for (ModuleEntry module : modules) {
+					out.writeInt(module.source.size());
+
+					for (Path path : module.source) {
+						out.writeUTF(path.toString());
+					}
+
+					out.writeInt(module.metadata.length);
+					out.write(module.metadata);
+				}
+			}
+
+			try {
+				Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+
+			Log.debug(LogCategory.DISCOVERY, "Saved launch manifest %s with %d modules", file, modules.size());
+		} catch (IOException e) {
+			Log.warn(LogCategory.DISCOVERY, "Error writing launch manifest %s", file, e);
+
+			try {
+				Files.deleteIfExists(tmpFile);
+			} catch (IOException ignore) {
+				// pass
+			}
+		}
+	}
+
+	public static final class ModuleEntry {
+		private final List<Path> source;
+		private final byte[] metadata;
+
+		ModuleEntry(List<Path> source, byte[] metadata) {
+			this.source = source;
+			this.metadata = metadata;
+		}
+
+		public List<Path> getSource() {
+			return source;
+		}
+
+		public byte[] getMetadata() {
+			return metadata;
+		}
+	}
+}
@@ -34,7 +34,7 @@ import net.fabricmc.mapping.tree.TinyMappingFactory;
 import net.fabricmc.mapping.tree.TinyTree;
 
 public final class MappingConfiguration {
-	private boolean initialized;
+	private volatile boolean initialized;
 
 	private String gameId;
 	private String gameVersion;
@@ -75,6 +75,13 @@ public final class MappingConfiguration {
 	}
 
 	private void initialize() {
+		if (!initialized) load();
+	}
+
+	/**
+	 * Parse the mappings, synchronized since this may be triggered concurrently by the startup tasks.
+	 */
+	private synchronized void load() {
 		if (initialized) return;
 
 		URL url = MappingConfiguration.class.getClassLoader().getResource("mappings/mappings.tiny");
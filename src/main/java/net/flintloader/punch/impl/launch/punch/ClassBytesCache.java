@@ -0,0 +1,107 @@
+/**
+* Copyright 2016 FabricMC
+* Copyright 2024 Flint Loader Contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package net.flintloader.punch.impl.launch.punch;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import net.flintloader.punch.impl.util.SystemProperties;
+import net.flintloader.punch.impl.util.log.Log;
+import net.flintloader.punch.impl.util.log.LogCategory;
+
+/**
+ * Size bounded LRU cache of pre-mixin class bytes, keyed by the binary class name.
+ *
+ * <p>Mixin requests the bytes of targets and their hierarchy repeatedly before the classes get defined, each request
+ * would otherwise read and transform the class again. The budget is in bytes of cached class data, see
+ * {@link SystemProperties#CLASS_BYTES_CACHE_SIZE}.
+ */
+final class ClassBytesCache {
+	private static final long DEFAULT_SIZE_KIB = 16 * 1024;
+
+	private final long maxWeight;
+	private final Map<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+	private long weight;
+
+	ClassBytesCache() {
+		this.maxWeight = getMaxWeight();
+	}
+
+	private static long getMaxWeight() {
+		String value = System.getProperty(SystemProperties.CLASS_BYTES_CACHE_SIZE);
+
+		if (value != null) {
+			try {
+				return Math.max(0, Long.parseLong(value)) * 1024;
+			} catch (NumberFormatException e) {
+				Log.warn(LogCategory.KNOT, "Invalid class bytes cache size %s", value);
+			}
+		}
+
+		return DEFAULT_SIZE_KIB * 1024;
+	}
+
+	boolean isEnabled() {
+		return maxWeight > 0;
+	}
+
+	/**
+	 * Get the cached bytes for a class, the returned array must not be modified.
+	 */
+	synchronized byte[] get(String name) {
+		Entry entry = entries.get(name);
+
+		return entry != null ? entry.bytes : null;
+	}
+
+	/**
+	 * Remove and return the entry for a class, to be used once the class is about to be defined.
+	 */
+	synchronized Entry remove(String name) {
+		Entry ret = entries.remove(name);
+		if (ret != null) weight -= ret.bytes.length;
+
+		return ret;
+	}
+
+	/**
+	 * @param allowFromParent whether the bytes may have been read through the parent class loader
+	 */
+	synchronized void put(String name, byte[] bytes, boolean allowFromParent) {
+		if (bytes.length > maxWeight) return;
+
+		Entry prev = entries.put(name, new Entry(bytes, allowFromParent));
+		if (prev != null) weight -= prev.bytes.length;
+		weight += bytes.length;
+
+		for (Iterator<Entry> it = entries.values().iterator(); weight > maxWeight && it.hasNext(); ) {
+			weight -= it.next().bytes.length;
+			it.remove();
+		}
+	}
+
+	static final class Entry {
+		final byte[] bytes;
+		final boolean allowFromParent;
+
+		Entry(byte[] bytes, boolean allowFromParent) {
+			this.bytes = bytes;
+			this.allowFromParent = allowFromParent;
+		}
+	}
+}
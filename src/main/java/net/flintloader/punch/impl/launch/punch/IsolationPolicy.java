@@ -0,0 +1,233 @@
+/**
+* Copyright 2016 FabricMC
+* Copyright 2024 Flint Loader Contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package net.flintloader.punch.impl.launch.punch;
+
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.flintloader.punch.impl.util.UrlUtil;
+
+/**
+ * Compiled class path isolation rules of {@link PunchClassDelegate}.
+ *
+ * <p>Instances are immutable, every rule change compiles a new policy. The allowed prefixes of a code source are held
+ * in a prefix trie, the resulting permissions of a code source are computed on first use and cached by the code source
+ * part of the resource URL. Checks for known code sources thus don't touch the file system or the platform class loader.
+ */
+final class IsolationPolicy {
+	static final IsolationPolicy EMPTY = new IsolationPolicy(Collections.emptySet(), Collections.emptySet(), Collections.emptyMap());
+
+	private final Set<Path> codeSources;
+	private final Set<Path> validParentCodeSources; // null to only reject code sources shadowed by codeSources
+	private final Map<Path, PrefixTrie> allowedPrefixes;
+	private final PrefixTrie[] restrictions;
+	private final Map<String, Rules> rules = new ConcurrentHashMap<>();
+
+	private IsolationPolicy(Set<Path> codeSources, Set<Path> validParentCodeSources, Map<Path, PrefixTrie> allowedPrefixes) {
+		this.codeSources = codeSources;
+		this.validParentCodeSources = validParentCodeSources;
+		this.allowedPrefixes = allowedPrefixes;
+		this.restrictions = allowedPrefixes.values().toArray(new PrefixTrie[0]);
+	}
+
+	boolean hasCodeSource(Path codeSource) {
+		return codeSources.contains(codeSource);
+	}
+
+	IsolationPolicy withCodeSource(Path codeSource) {
+		Set<Path> newCodeSources = new HashSet<>(codeSources.size() + 1, 1);
+		newCodeSources.addAll(codeSources);
+		newCodeSources.add(codeSource);
+
+		return new IsolationPolicy(newCodeSources, validParentCodeSources, allowedPrefixes);
+	}
+
+	IsolationPolicy withAllowedPrefixes(Path codeSource, String... prefixes) {
+		if (prefixes.length == 0 && !allowedPrefixes.containsKey(codeSource)) return this;
+
+		Map<Path, PrefixTrie> newAllowedPrefixes = new HashMap<>(allowedPrefixes);
+
+		if (prefixes.length == 0) {
+			newAllowedPrefixes.remove(codeSource);
+		} else {
+			newAllowedPrefixes.put(codeSource, new PrefixTrie(prefixes));
+		}
+
+		return new IsolationPolicy(codeSources, validParentCodeSources, newAllowedPrefixes);
+	}
+
+	IsolationPolicy withValidParentCodeSources(Set<Path> validParentCodeSources) {
+		return new IsolationPolicy(codeSources, validParentCodeSources, allowedPrefixes);
+	}
+
+	/**
+	 * Whether any code source is restricted to prefixes, see {@link PunchClassLoaderInterface#setAllowedPrefixes}.
+	 */
+	boolean hasRestrictions() {
+		return restrictions.length > 0;
+	}
+
+	/**
+	 * Whether the class is allowed by the prefixes of every restricted code source, its code source is irrelevant then.
+	 */
+	boolean isAllowedEverywhere(String name) {
+		for (PrefixTrie trie : restrictions) {
+			if (!trie.matches(name)) return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Get the rules for the code source of a resource url with a regular code source (file or jar protocol).
+	 */
+	Rules getRules(URL url, String fileName) {
+		String key = UrlUtil.getCodeSourceKey(url, fileName);
+		Rules ret = key != null ? rules.get(key) : null;
+		if (ret != null) return ret;
+
+		Path codeSource = PunchClassDelegate.getCodeSource(url, fileName);
+		ParentAccess parentAccess;
+
+		if (validParentCodeSources != null) { // explicit whitelist (in addition to platform cl classes)
+			if (validParentCodeSources.contains(codeSource) || isPlatformCodeSource(key, fileName)) {
+				parentAccess = ParentAccess.ALLOW;
+			} else {
+				parentAccess = ParentAccess.CHECK_PLATFORM;
+			}
+		} else { // reject urls shadowed by the class loader
+			parentAccess = codeSources.contains(codeSource) ? ParentAccess.DENY : ParentAccess.ALLOW;
+		}
+
+		ret = new Rules(codeSource, parentAccess, allowedPrefixes.get(codeSource));
+		if (key != null) rules.putIfAbsent(key, ret);
+
+		return ret;
+	}
+
+	/**
+	 * Whether the platform class loader resolves the resource to the same code source, which then belongs to it as a whole.
+	 */
+	private static boolean isPlatformCodeSource(String key, String fileName) {
+		if (key == null) return false;
+
+		URL url = PunchClassDelegate.PLATFORM_CLASS_LOADER.getResource(fileName);
+
+		return url != null && key.equals(UrlUtil.getCodeSourceKey(url, fileName));
+	}
+
+	private enum ParentAccess {
+		ALLOW,
+		DENY,
+		CHECK_PLATFORM // only platform class loader resources are allowed
+	}
+
+	static final class Rules {
+		final Path codeSource;
+		private final ParentAccess parentAccess;
+		private final PrefixTrie allowedPrefixes;
+
+		Rules(Path codeSource, ParentAccess parentAccess, PrefixTrie allowedPrefixes) {
+			this.codeSource = codeSource;
+			this.parentAccess = parentAccess;
+			this.allowedPrefixes = allowedPrefixes;
+		}
+
+		boolean isValidParent(String fileName) {
+			switch (parentAccess) {
+			case ALLOW: return true;
+			case DENY: return false;
+			default: return PunchClassDelegate.PLATFORM_CLASS_LOADER.getResource(fileName) != null;
+			}
+		}
+
+		boolean isAllowed(String name) {
+			return allowedPrefixes == null || allowedPrefixes.matches(name);
+		}
+	}
+
+	/**
+	 * Character trie answering whether a string starts with any of the prefixes in a single pass over the string.
+	 */
+	static final class PrefixTrie {
+		private final Node root = new Node();
+
+		PrefixTrie(String... prefixes) {
+			for (String prefix : prefixes) {
+				Node node = root;
+
+				for (int i = 0; i < prefix.length() && !node.terminal; i++) {
+					node = node.getOrAdd(prefix.charAt(i));
+				}
+
+				node.terminal = true;
+			}
+		}
+
+		boolean matches(String s) {
+			Node node = root;
+
+			for (int i = 0; !node.terminal; i++) {
+				if (i >= s.length()) return false;
+
+				node = node.get(s.charAt(i));
+				if (node == null) return false;
+			}
+
+			return true;
+		}
+
+		private static final class Node {
+			private char[] labels = new char[0];
+			private Node[] children = new Node[0];
+			boolean terminal;
+
+			Node get(char c) {
+				int idx = Arrays.binarySearch(labels, c);
+
+				return idx >= 0 ? children[idx] : null;
+			}
+
+			Node getOrAdd(char c) {
+				int idx = Arrays.binarySearch(labels, c);
+				if (idx >= 0) return children[idx];
+
+				idx = -idx - 1;
+				Node ret = new Node();
+				char[] newLabels = new char[labels.length + 1];
+				Node[] newChildren = new Node[children.length + 1];
+				System.arraycopy(labels, 0, newLabels, 0, idx);
+				System.arraycopy(children, 0, newChildren, 0, idx);
+				newLabels[idx] = c;
+				newChildren[idx] = ret;
+				System.arraycopy(labels, idx, newLabels, idx + 1, labels.length - idx);
+				System.arraycopy(children, idx, newChildren, idx + 1, children.length - idx);
+				labels = newLabels;
+				children = newChildren;
+
+				return ret;
+			}
+		}
+	}
+}
@@ -0,0 +1,136 @@
+/**
+* Copyright 2016 FabricMC
+* Copyright 2024 Flint Loader Contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package net.flintloader.punch.impl.launch.punch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.flintloader.punch.impl.metrics.StartupMetrics;
+import org.spongepowered.asm.mixin.FabricUtil;
+import org.spongepowered.asm.mixin.Mixins;
+import org.spongepowered.asm.mixin.transformer.Config;
+import org.spongepowered.asm.service.IMixinAuditTrail;
+
+/**
+ * Measures the time spent applying mixins, feeding {@link StartupMetrics}.
+ *
+ * <p>The class delegate brackets every Mixin transformation with {@link #beginTransform} and {@link #endTransform}.
+ * The time between two mixin events of a transformation goes to the mixin reported by the later event, the time after
+ * the last event is split evenly among all mixins of the target. Transformations of other classes nested in a
+ * transformation, e.g. for loading a mixin's dependencies, are excluded from the outer one.
+ */
+final class MixinAuditTrail implements IMixinAuditTrail {
+	private static final String NO_MODULE = "";
+
+	private final ThreadLocal<Frame> current = new ThreadLocal<>();
+	private final Map<String, String> configModules = new ConcurrentHashMap<>();
+
+	void beginTransform() {
+		current.set(new Frame(current.get(), System.nanoTime()));
+	}
+
+	void endTransform(String name) {
+		Frame frame = current.get();
+		if (frame == null) return;
+
+		long time = System.nanoTime();
+		long duration = time - frame.start;
+
+		if (frame.parent == null) {
+			current.remove();
+		} else {
+			current.set(frame.parent);
+			frame.parent.exclude(duration);
+		}
+
+		if (frame.mixins.isEmpty() || StartupMetrics.isFinished()) return;
+
+		StartupMetrics.recordMixinTarget(name, duration - frame.excluded);
+
+		int count = frame.mixins.size();
+		long remainder = time - frame.mark;
+
+		for (int i = 0; i < count; i++) {
+			String mixin = frame.mixins.get(i);
+			long share = remainder / count + (i < remainder % count ? 1 : 0);
+			int pos = mixin.indexOf(':');
+			String config = pos >= 0 ? mixin.substring(0, pos) : mixin;
+
+			StartupMetrics.recordMixin(getModuleId(config), config, mixin, frame.durations.get(i) + share);
+		}
+	}
+
+	private String getModuleId(String config) {
+		String ret = configModules.computeIfAbsent(config, MixinAuditTrail::findModuleId);
+
+		return ret == NO_MODULE ? null : ret;
+	}
+
+	/**
+	 * Resolve the module id the config was decorated with by the Mixin bootstrap.
+	 */
+	private static String findModuleId(String config) {
+		for (Config rawConfig : Mixins.getConfigs()) {
+			if (!rawConfig.getName().equals(config)) continue;
+
+			Object ret = rawConfig.getConfig().getDecoration(FabricUtil.KEY_MOD_ID);
+
+			return ret != null ? ret.toString() : NO_MODULE;
+		}
+
+		return NO_MODULE;
+	}
+
+	@Override
+	public void onApply(String className, String mixinName) {
+		Frame frame = current.get();
+		if (frame == null) return;
+
+		long time = System.nanoTime();
+		frame.mixins.add(mixinName);
+		frame.durations.add(time - frame.mark);
+		frame.mark = time;
+	}
+
+	@Override
+	public void onPostProcess(String className) { }
+
+	@Override
+	public void onGenerate(String className, String generatorName) { }
+
+	private static final class Frame {
+		final Frame parent;
+		final long start;
+		final List<String> mixins = new ArrayList<>();
+		final List<Long> durations = new ArrayList<>();
+		long mark;
+		long excluded;
+
+		Frame(Frame parent, long start) {
+			this.parent = parent;
+			this.start = start;
+			this.mark = start;
+		}
+
+		void exclude(long duration) {
+			mark += duration;
+			excluded += duration;
+		}
+	}
+}
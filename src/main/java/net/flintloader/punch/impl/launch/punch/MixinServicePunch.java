@@ -44,6 +44,7 @@ import org.spongepowered.asm.util.ReEntranceLock;
 
 public class MixinServicePunch implements IMixinService, IClassProvider, IClassBytecodeProvider, ITransformerProvider, IClassTracker {
 	static IMixinTransformer transformer;
+	static final MixinAuditTrail auditTrail = new MixinAuditTrail();
 
 	private final ReEntranceLock lock;
 
@@ -167,7 +168,7 @@ public class MixinServicePunch implements IMixinService, IClassProvider, IClassB
 
 	@Override
 	public IMixinAuditTrail getAuditTrail() {
-		return null;
+		return auditTrail;
 	}
 
 	@Override
@@ -30,10 +30,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.ServiceLoader;
+import java.util.concurrent.CompletableFuture;
 import java.util.jar.Manifest;
 import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
 
 import net.flintloader.loader.api.FlintModule;
 import net.flintloader.loader.core.PunchLauncherHooks;
@@ -42,7 +42,10 @@ import net.flintloader.punch.impl.FormattedException;
 import net.flintloader.punch.impl.PunchLoaderImpl;
 import net.flintloader.punch.impl.game.GameProvider;
 import net.flintloader.punch.impl.launch.FlintMixinBootstrap;
+import net.flintloader.punch.impl.launch.LaunchManifest;
 import net.flintloader.punch.impl.launch.PunchLauncherBase;
+import net.flintloader.punch.impl.metrics.Tracer;
+import net.flintloader.punch.impl.util.JarRegistry;
 import net.flintloader.punch.impl.util.LoaderUtil;
 import net.flintloader.punch.impl.util.SystemProperties;
 import net.flintloader.punch.impl.util.UrlUtil;
@@ -78,6 +81,26 @@ public final class Punch extends PunchLauncherBase {
 	private ClassLoader init(String[] args) {
 		setProperties(properties);
 
+		try (Tracer.Span span = Tracer.begin("launch", "Punch.init");
+				StartupTasks tasks = new StartupTasks()) {
+			return init(args, tasks);
+		}
+	}
+
+	/**
+	 * Run the launch steps, overlapping independent ones.
+	 *
+	 * <p>Task graph, everything not listed runs on the calling thread in the original order:
+	 * <ul>
+	 * <li>mapping parsing starts immediately, the game provider's remapping waits for it
+	 * <li>module discovery starts once the game is located and the class loader exists, it runs alongside the game
+	 * provider's initialization and is joined before freezing the module list
+	 * <li>access widener files are read in parallel, then applied in module order
+	 * </ul>
+	 */
+	private ClassLoader init(String[] args, StartupTasks tasks) {
+		tasks.run(Punch::prefetchMappings);
+
 		classPath.clear();
 
 		List<String> missing = null;
@@ -115,21 +138,43 @@ public final class Punch extends PunchLauncherBase {
 		classLoader = PunchClassLoaderInterface.create(useCompatibility, isDevelopment(), provider);
 		ClassLoader cl = classLoader.getClassLoader();
 
+		PunchLoaderImpl loader = PunchLoaderImpl.INSTANCE;
+		loader.setGameProvider(provider);
+
+		CompletableFuture<Void> discovery = tasks.run(() -> {
+			Thread thread = Thread.currentThread();
+			ClassLoader prevCl = thread.getContextClassLoader();
+			thread.setContextClassLoader(cl);
+
+			try (Tracer.Span span = Tracer.begin("launch", "discoverModules")) {
+				loader.load();
+			} finally {
+				thread.setContextClassLoader(prevCl);
+			}
+		});
+
 		provider.initialize(this);
+		JarRegistry.get().closeIdle(); // the provider is done reading the game jars
 
 		Thread.currentThread().setContextClassLoader(cl);
 
-		PunchLoaderImpl loader = PunchLoaderImpl.INSTANCE;
-		loader.setGameProvider(provider);
-		loader.load();
+		try (Tracer.Span span = Tracer.begin("launch", "awaitDiscovery")) {
+			StartupTasks.join(discovery);
+		}
+
 		loader.freeze();
+		tasks.run(LaunchManifest.get()::save); // discovery succeeded, remember it for the next launch
 
-		PunchLoaderImpl.INSTANCE.loadAccessWideners();
+		try (Tracer.Span span = Tracer.begin("launch", "loadAccessWideners")) {
+			PunchLoaderImpl.INSTANCE.loadAccessWideners(tasks.getExecutor());
+		}
 
-		FlintMixinBootstrap.init(loader);
-		PunchLauncherBase.finishMixinBootstrapping();
+		try (Tracer.Span span = Tracer.begin("launch", "mixinBootstrap")) {
+			FlintMixinBootstrap.init(loader);
+			PunchLauncherBase.finishMixinBootstrapping();
 
-		classLoader.initializeTransformers();
+			classLoader.initializeTransformers();
+		}
 
 		provider.unlockClassPath(this);
 		unlocked = true;
@@ -139,6 +184,17 @@ public final class Punch extends PunchLauncherBase {
 		return cl;
 	}
 
+	/**
+	 * Parse the mappings ahead of their first use, failures are reported by that use instead.
+	 */
+	private static void prefetchMappings() {
+		try (Tracer.Span span = Tracer.begin("launch", "prefetchMappings")) {
+			PunchLauncherBase.getLauncher().getMappingConfiguration().getMappings();
+		} catch (RuntimeException e) {
+			Log.debug(LogCategory.MAPPINGS, "Mapping prefetch failed", e);
+		}
+	}
+
 	private GameProvider createGameProvider(String[] args) {
 		// fast path with direct lookup
 
@@ -196,11 +252,11 @@ public final class Punch extends PunchLauncherBase {
 			Path flPath = UrlUtil.getCodeSource(Punch.class);
 			if (flPath == null || !flPath.getFileName().toString().endsWith(".jar")) return null; // not a jar
 
-			try (ZipFile zf = new ZipFile(flPath.toFile())) {
-				ZipEntry entry = zf.getEntry("META-INF/services/net.flintloader.punch.impl.game.GameProvider"); // same file as used by service loader
+			try (JarRegistry.Handle jar = JarRegistry.get().acquire(flPath)) {
+				ZipEntry entry = jar.getEntry("META-INF/services/net.flintloader.punch.impl.game.GameProvider"); // same file as used by service loader
 				if (entry == null) return null;
 
-				try (InputStream is = zf.getInputStream(entry)) {
+				try (InputStream is = jar.getInputStream(entry)) {
 					byte[] buffer = new byte[100];
 					int offset = 0;
 					int len;
@@ -40,6 +40,8 @@ import java.util.jar.Manifest;
 import net.flintloader.punch.impl.game.GameProvider;
 import net.flintloader.punch.impl.launch.PunchLauncherBase;
 import net.flintloader.punch.impl.launch.punch.PunchClassDelegate.ClassLoaderAccess;
+import net.flintloader.punch.impl.metrics.LoaderEvents;
+import net.flintloader.punch.impl.metrics.Tracer;
 import net.flintloader.punch.impl.transformer.PunchTransformer;
 import net.flintloader.punch.impl.util.ExceptionUtil;
 import net.flintloader.punch.impl.util.FileSystemUtil;
@@ -70,7 +72,7 @@ final class PunchClassDelegate<T extends ClassLoader & ClassLoaderAccess> implem
 		}
 	}
 
-	private static final ClassLoader PLATFORM_CLASS_LOADER = getPlatformClassLoader();
+	static final ClassLoader PLATFORM_CLASS_LOADER = getPlatformClassLoader();
 
 	private final Map<Path, Metadata> metadataCache = new ConcurrentHashMap<>();
 	private final T classLoader;
@@ -79,10 +81,9 @@ final class PunchClassDelegate<T extends ClassLoader & ClassLoaderAccess> implem
 	private final boolean isDevelopment;
 	private IMixinTransformer mixinTransformer;
 	private boolean transformInitialized = false;
-	private volatile Set<Path> codeSources = Collections.emptySet();
-	private volatile Set<Path> validParentCodeSources = Collections.emptySet();
-	private final Map<Path, String[]> allowedPrefixes = new ConcurrentHashMap<>();
+	private volatile IsolationPolicy isolation = IsolationPolicy.EMPTY;
 	private final Set<String> parentSourcedClasses = Collections.newSetFromMap(new ConcurrentHashMap<>());
+	private final ClassBytesCache preMixinCache = new ClassBytesCache();
 
 	PunchClassDelegate(boolean isDevelopment, T classLoader, ClassLoader parentClassLoader, GameProvider provider) {
 		this.isDevelopment = isDevelopment;
@@ -129,14 +130,10 @@ final class PunchClassDelegate<T extends ClassLoader & ClassLoaderAccess> implem
 		path = LoaderUtil.normalizeExistingPath(path);
 
 		synchronized (this) {
-			Set<Path> codeSources = this.codeSources;
-			if (codeSources.contains(path)) return;
+			IsolationPolicy isolation = this.isolation;
+			if (isolation.hasCodeSource(path)) return;
 
-			Set<Path> newCodeSources = new HashSet<>(codeSources.size() + 1, 1);
-			newCodeSources.addAll(codeSources);
-			newCodeSources.add(path);
-
-			this.codeSources = newCodeSources;
+			this.isolation = isolation.withCodeSource(path);
 		}
 
 		try {
@@ -152,10 +149,8 @@ final class PunchClassDelegate<T extends ClassLoader & ClassLoaderAccess> implem
 	public void setAllowedPrefixes(Path codeSource, String... prefixes) {
 		codeSource = LoaderUtil.normalizeExistingPath(codeSource);
 
-		if (prefixes.length == 0) {
-			allowedPrefixes.remove(codeSource);
-		} else {
-			allowedPrefixes.put(codeSource, prefixes);
+		synchronized (this) {
+			isolation = isolation.withAllowedPrefixes(codeSource, prefixes);
 		}
 	}
 
@@ -167,7 +162,9 @@ final class PunchClassDelegate<T extends ClassLoader & ClassLoaderAccess> implem
 			validPaths.add(LoaderUtil.normalizeExistingPath(path));
 		}
 
-		this.validParentCodeSources = validPaths;
+		synchronized (this) {
+			isolation = isolation.withValidParentCodeSources(validPaths);
+		}
 	}
 
 	@Override
@@ -255,21 +252,15 @@ final class PunchClassDelegate<T extends ClassLoader & ClassLoaderAccess> implem
 	/**
 	 * Check if an url is loadable by the parent class loader.
 	 *
-	 * <p>This handles explicit parent url whitelisting by {@link #validParentCodeSources} or shadowing by {@link #codeSources}
+	 * <p>This handles explicit parent url whitelisting by {@link #setValidParentClassPath} or shadowing by
+	 * {@link #addCodeSource}, see {@link IsolationPolicy}.
 	 */
 	private boolean isValidParentUrl(URL url, String fileName) {
 		if (url == null) return false;
 		if (DISABLE_ISOLATION) return true;
 		if (!hasRegularCodeSource(url)) return true;
 
-		Path codeSource = getCodeSource(url, fileName);
-		Set<Path> validParentCodeSources = this.validParentCodeSources;
-
-		if (validParentCodeSources != null) { // explicit whitelist (in addition to platform cl classes)
-			return validParentCodeSources.contains(codeSource) || PLATFORM_CLASS_LOADER.getResource(fileName) != null;
-		} else { // reject urls shadowed by this cl
-			return !codeSources.contains(codeSource);
-		}
+		return isolation.getRules(url, fileName).isValidParent(fileName);
 	}
 
 	Class<?> tryLoadClass(String name, boolean allowFromParent) throws ClassNotFoundException {
@@ -277,31 +268,18 @@ final class PunchClassDelegate<T extends ClassLoader & ClassLoaderAccess> implem
 			return null;
 		}
 
-		if (!allowedPrefixes.isEmpty() && !DISABLE_ISOLATION) { // check prefix restrictions (allows exposing libraries partially during startup)
+		IsolationPolicy isolation = this.isolation;
+
+		// check prefix restrictions (allows exposing libraries partially during startup), the code source only has to be
+		// looked up if the class isn't allowed by all of them
+		if (isolation.hasRestrictions() && !DISABLE_ISOLATION && !isolation.isAllowedEverywhere(name)) {
 			String fileName = LoaderUtil.getClassFileName(name);
 			URL url = classLoader.getResource(fileName);
 
-			if (url != null && hasRegularCodeSource(url)) {
-				Path codeSource = getCodeSource(url, fileName);
-				String[] prefixes = allowedPrefixes.get(codeSource);
-
-				if (prefixes != null) {
-					assert prefixes.length > 0;
-					boolean found = false;
-
-					for (String prefix : prefixes) {
-						if (name.startsWith(prefix)) {
-							found = true;
-							break;
-						}
-					}
-
-					if (!found) {
-						String msg = "class "+name+" is currently restricted from being loaded";
-						if (LOG_CLASS_LOAD_ERRORS) Log.warn(LogCategory.KNOT, msg);
-						throw new ClassNotFoundException(msg);
-					}
-				}
+			if (url != null && hasRegularCodeSource(url) && !isolation.getRules(url, fileName).isAllowed(name)) {
+				String msg = "class "+name+" is currently restricted from being loaded";
+				if (LOG_CLASS_LOAD_ERRORS) Log.warn(LogCategory.KNOT, msg);
+				throw new ClassNotFoundException(msg);
 			}
 		}
 
@@ -316,14 +294,26 @@ final class PunchClassDelegate<T extends ClassLoader & ClassLoaderAccess> implem
 			}
 		}
 
-		byte[] input = getPostMixinClassByteArray(name, allowFromParent);
-		if (input == null) return null;
+		try (Tracer.Span span = Tracer.begin("classload", name);
+				LoaderEvents.ClassDefineScope event = LoaderEvents.get().classDefine(name)) {
+			return defineClass(name, allowFromParent, event);
+		}
+	}
+
+	private Class<?> defineClass(String name, boolean allowFromParent, LoaderEvents.ClassDefineScope event) {
+		byte[] input = getPostMixinClassByteArray(name, allowFromParent, event);
+
+		if (input == null) { // not available locally, the caller falls back to the parent
+			event.discard();
+			return null;
+		}
 
 		// The class we're currently loading could have been loaded already during Mixin initialization triggered by `getPostMixinClassByteArray`.
 		// If this is the case, we want to return the instance that was already defined to avoid attempting a duplicate definition.
 		Class<?> existingClass = classLoader.findLoadedClassFwd(name);
 
 		if (existingClass != null) {
+			event.discard();
 			return existingClass;
 		}
 
@@ -348,7 +338,10 @@ final class PunchClassDelegate<T extends ClassLoader & ClassLoaderAccess> implem
 			}
 		}
 
-		return classLoader.defineClassFwd(name, input, 0, input.length, metadata.codeSource);
+		Class<?> ret = classLoader.defineClassFwd(name, input, 0, input.length, metadata.codeSource);
+		preMixinCache.remove(name); // Mixin may have requested the class again while transforming it
+
+		return ret;
 	}
 
 	private Metadata getMetadata(String name) {
@@ -356,7 +349,7 @@ final class PunchClassDelegate<T extends ClassLoader & ClassLoaderAccess> implem
 		URL url = classLoader.getResource(fileName);
 		if (url == null || !hasRegularCodeSource(url)) return Metadata.EMPTY;
 
-		return getMetadata(getCodeSource(url, fileName));
+		return getMetadata(isolation.getRules(url, fileName).codeSource);
 	}
 
 	private Metadata getMetadata(Path codeSource) {
@@ -407,13 +400,23 @@ final class PunchClassDelegate<T extends ClassLoader & ClassLoaderAccess> implem
 		});
 	}
 
-	private byte[] getPostMixinClassByteArray(String name, boolean allowFromParent) {
-		byte[] transformedClassArray = getPreMixinClassByteArray(name, allowFromParent);
+	private byte[] getPostMixinClassByteArray(String name, boolean allowFromParent, LoaderEvents.ClassDefineScope event) {
+		long startTime = event.isEnabled() ? System.nanoTime() : 0;
+		byte[] transformedClassArray = takeCachedPreMixinClassBytes(name, allowFromParent);
+		if (transformedClassArray == null) transformedClassArray = getPreMixinClassByteArray(name, allowFromParent);
+
+		if (event.isEnabled()) {
+			long time = System.nanoTime();
+			event.setTransformNanos(time - startTime);
+			startTime = time;
+		}
 
 		if (!transformInitialized || !canTransformClass(name)) {
 			return transformedClassArray;
 		}
 
+		MixinServicePunch.auditTrail.beginTransform();
+
 		try {
 			return getMixinTransformer().transformClassBytes(name, name, transformedClassArray);
 		} catch (Throwable t) {
@@ -421,12 +424,48 @@ final class PunchClassDelegate<T extends ClassLoader & ClassLoaderAccess> implem
 			if (LOG_TRANSFORM_ERRORS) Log.warn(LogCategory.KNOT, msg, t);
 
 			throw new RuntimeException(msg, t);
+		} finally {
+			MixinServicePunch.auditTrail.endTransform(name);
+			if (event.isEnabled()) event.setMixinNanos(System.nanoTime() - startTime);
 		}
 	}
 
 	@Override
 	public byte[] getPreMixinClassBytes(String name) {
-		return getPreMixinClassByteArray(name, true);
+		name = name.replace('/', '.');
+
+		if (!transformInitialized || !canTransformClass(name) || !preMixinCache.isEnabled()) {
+			return getPreMixinClassByteArray(name, true);
+		}
+
+		byte[] ret = preMixinCache.get(name);
+		if (ret != null) return ret;
+
+		ret = getPreMixinClassByteArray(name, true);
+
+		// only classes that are still to be defined will be taken out of the cache again
+		if (ret != null && classLoader.findLoadedClassFwd(name) == null) {
+			preMixinCache.put(name, ret, true);
+		}
+
+		return ret;
+	}
+
+	/**
+	 * Take the pre-mixin bytes Mixin requested ahead of the class definition, if they are still cached.
+	 */
+	private byte[] takeCachedPreMixinClassBytes(String name, boolean allowFromParent) {
+		if (!transformInitialized || !preMixinCache.isEnabled()) return null;
+
+		ClassBytesCache.Entry entry = preMixinCache.remove(name.replace('/', '.'));
+		if (entry == null) return null;
+
+		// bytes read with parent access are only valid for local loads if the class is available locally
+		if (entry.allowFromParent && !allowFromParent && classLoader.findResourceFwd(LoaderUtil.getClassFileName(name)) == null) {
+			return null;
+		}
+
+		return entry.bytes;
 	}
 
 	/**
@@ -506,7 +545,7 @@ final class PunchClassDelegate<T extends ClassLoader & ClassLoaderAccess> implem
 		return url.getProtocol().equals("file") || url.getProtocol().equals("jar");
 	}
 
-	private static Path getCodeSource(URL url, String fileName) {
+	static Path getCodeSource(URL url, String fileName) {
 		try {
 			return LoaderUtil.normalizeExistingPath(UrlUtil.getCodeSource(url, fileName));
 		} catch (UrlConversionException e) {
@@ -0,0 +1,90 @@
+/**
+* Copyright 2016 FabricMC
+* Copyright 2024 Flint Loader Contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package net.flintloader.punch.impl.launch.punch;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.flintloader.punch.impl.util.SystemProperties;
+import net.flintloader.punch.impl.util.log.Log;
+import net.flintloader.punch.impl.util.log.LogCategory;
+
+/**
+ * Small executor for the independent steps of {@link Punch#init}.
+ *
+ * <p>Tasks are started as soon as their inputs are available and joined at explicit barriers right before their
+ * results are needed, keeping the ordering guarantees of the sequential startup. Without spare processors or with
+ * {@link SystemProperties#DEBUG_DISABLE_PARALLEL_STARTUP} every task runs directly on the calling thread.
+ */
+final class StartupTasks implements AutoCloseable {
+	private static final int MAX_THREADS = 4;
+
+	private final AtomicInteger threadId = new AtomicInteger();
+	private final ExecutorService executor;
+
+	StartupTasks() {
+		int threads = Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors() - 1);
+
+		if (threads <= 0 || System.getProperty(SystemProperties.DEBUG_DISABLE_PARALLEL_STARTUP) != null) {
+			executor = null;
+		} else {
+			executor = Executors.newFixedThreadPool(threads, this::createThread);
+		}
+
+		Log.debug(LogCategory.GENERAL, "Startup tasks running on %d threads", executor != null ? threads : 0);
+	}
+
+	private Thread createThread(Runnable task) {
+		Thread ret = new Thread(task, "Punch Startup-"+threadId.incrementAndGet());
+		ret.setDaemon(true);
+
+		return ret;
+	}
+
+	Executor getExecutor() {
+		return executor != null ? executor : Runnable::run;
+	}
+
+	CompletableFuture<Void> run(Runnable task) {
+		return CompletableFuture.runAsync(task, getExecutor());
+	}
+
+	/**
+	 * Wait for a task, rethrowing its failure unwrapped.
+	 */
+	static <T> T join(CompletableFuture<T> task) {
+		try {
+			return task.join();
+		} catch (CompletionException e) {
+			Throwable cause = e.getCause();
+
+			if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+			if (cause instanceof Error) throw (Error) cause;
+
+			throw e;
+		}
+	}
+
+	@Override
+	public void close() {
+		if (executor != null) executor.shutdown();
+	}
+}
@@ -0,0 +1,164 @@
+/**
+* Copyright 2016 FabricMC
+* Copyright 2024 Flint Loader Contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package net.flintloader.punch.impl.metrics;
+
+import net.flintloader.punch.impl.util.SystemProperties;
+import net.flintloader.punch.impl.util.log.Log;
+import net.flintloader.punch.impl.util.log.LogCategory;
+
+/**
+ * Emits profiling events for the loader's phases, backed by Java Flight Recorder where available.
+ *
+ * <p>The JFR implementation is compiled for Java 11 and loaded reflectively, on older runtimes or without it all
+ * methods return {@link Scope#NONE}. Each method begins an event if its type is currently recorded; callers should
+ * only gather additional data if {@link Scope#isEnabled()} returns true.
+ *
+ * <pre>{@code
+ * try (LoaderEvents.Scope scope = LoaderEvents.get().mixinConfig(moduleId, config)) {
+ *     Mixins.addConfiguration(config);
+ * }
+ * }</pre>
+ */
+public class LoaderEvents {
+	private static final String JFR_IMPL = "net.flintloader.punch.impl.metrics.jfr.JfrLoaderEvents";
+	private static final LoaderEvents INSTANCE = create();
+
+	protected LoaderEvents() { }
+
+	public static LoaderEvents get() {
+		return INSTANCE;
+	}
+
+	private static LoaderEvents create() {
+		if (System.getProperty(SystemProperties.DEBUG_DISABLE_JFR_EVENTS) != null) return new LoaderEvents();
+
+		try {
+			Class.forName("jdk.jfr.Event", false, LoaderEvents.class.getClassLoader());
+		} catch (ClassNotFoundException e) {
+			return new LoaderEvents();
+		}
+
+		try {
+			return (LoaderEvents) Class.forName(JFR_IMPL).getConstructor().newInstance();
+		} catch (ReflectiveOperationException | LinkageError e) { // missing or built for a newer Java version
+			Log.debug(LogCategory.GENERAL, "JFR events unavailable: %s", e);
+			return new LoaderEvents();
+		}
+	}
+
+	/**
+	 * Loading, transforming and defining a class, see {@link ClassDefineScope}.
+	 */
+	public ClassDefineScope classDefine(String className) {
+		return ClassDefineScope.NONE;
+	}
+
+	/**
+	 * A stage of remapping the game jars.
+	 *
+	 * @param subject the processed file if the stage is specific to one
+	 */
+	public Scope remap(String stage, String subject) {
+		return Scope.NONE;
+	}
+
+	/**
+	 * Reading the module metadata from a module jar or class path entry.
+	 */
+	public Scope moduleDiscovery(String source) {
+		return Scope.NONE;
+	}
+
+	public Scope mixinConfig(String moduleId, String config) {
+		return Scope.NONE;
+	}
+
+	/**
+	 * Reading or applying a module's access widener.
+	 *
+	 * @param stage {@code read} or {@code apply}
+	 */
+	public Scope accessWidener(String moduleId, String stage) {
+		return Scope.NONE;
+	}
+
+	/**
+	 * Constructing and invoking a module's entrypoint.
+	 */
+	public Scope entryPoint(String key, String moduleId) {
+		return Scope.NONE;
+	}
+
+	public interface Scope extends AutoCloseable {
+		Scope NONE = new Scope() {
+			@Override
+			public boolean isEnabled() {
+				return false;
+			}
+
+			@Override
+			public void close() { }
+		};
+
+		/**
+		 * Whether the event is recorded, otherwise the scope ignores all input.
+		 */
+		boolean isEnabled();
+
+		/**
+		 * End and commit the event.
+		 */
+		@Override
+		void close();
+	}
+
+	public interface ClassDefineScope extends Scope {
+		ClassDefineScope NONE = new ClassDefineScope() {
+			@Override
+			public boolean isEnabled() {
+				return false;
+			}
+
+			@Override
+			public void setTransformNanos(long nanos) { }
+
+			@Override
+			public void setMixinNanos(long nanos) { }
+
+			@Override
+			public void discard() { }
+
+			@Override
+			public void close() { }
+		};
+
+		/**
+		 * Set the time spent reading the class and running the transformers except Mixin.
+		 */
+		void setTransformNanos(long nanos);
+
+		/**
+		 * Set the time spent applying mixins.
+		 */
+		void setMixinNanos(long nanos);
+
+		/**
+		 * End the event without committing it, for lookups that didn't define a class.
+		 */
+		void discard();
+	}
+}
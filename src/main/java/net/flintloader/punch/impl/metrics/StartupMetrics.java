@@ -0,0 +1,267 @@
+/**
+* Copyright 2016 FabricMC
+* Copyright 2024 Flint Loader Contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package net.flintloader.punch.impl.metrics;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import net.flintloader.punch.api.StartupReport;
+import net.flintloader.punch.impl.util.log.Log;
+import net.flintloader.punch.impl.util.log.LogCategory;
+
+/**
+ * Collects per-module startup timings, see {@link StartupReport}.
+ *
+ * <p>Recording is thread safe, phases measured multiple times for the same module are summed up.
+ */
+public final class StartupMetrics {
+	public static final String SHARE_KEY = "flintloader:startup_report";
+
+	private static final int LOGGED_MIXIN_ENTRIES = 10;
+
+	private static final Map<String, Map<String, LongAdder>> timings = new ConcurrentHashMap<>();
+	private static final Map<String, LongAdder> mixinTargets = new ConcurrentHashMap<>();
+	private static final Map<String, LongAdder> mixinConfigs = new ConcurrentHashMap<>();
+	private static final Map<String, LongAdder> mixins = new ConcurrentHashMap<>();
+	private static volatile StartupReport finalReport;
+
+	private StartupMetrics() { }
+
+	/**
+	 * Record the time elapsed since startTime, as obtained from {@link System#nanoTime()}.
+	 */
+	public static void record(String moduleId, String phase, long startTime) {
+		recordNanos(moduleId, phase, System.nanoTime() - startTime);
+	}
+
+	public static void recordNanos(String moduleId, String phase, long duration) {
+		if (finalReport != null) return;
+
+		timings.computeIfAbsent(moduleId, ignore -> new ConcurrentHashMap<>()).computeIfAbsent(phase, ignore -> new LongAdder()).add(duration);
+	}
+
+	public static void recordMixinTarget(String target, long duration) {
+		if (finalReport != null) return;
+
+		add(mixinTargets, target, duration);
+	}
+
+	/**
+	 * Record time spent applying a mixin, also accounting it to the module owning the config if known.
+	 */
+	public static void recordMixin(String moduleId, String config, String mixin, long duration) {
+		if (finalReport != null) return;
+
+		if (moduleId != null) recordNanos(moduleId, StartupReport.MIXIN_APPLY, duration);
+		add(mixinConfigs, config, duration);
+		add(mixins, mixin, duration);
+	}
+
+	private static void add(Map<String, LongAdder> map, String key, long duration) {
+		map.computeIfAbsent(key, ignore -> new LongAdder()).add(duration);
+	}
+
+	/**
+	 * Whether the report is final, callers may skip measuring in this case.
+	 */
+	public static boolean isFinished() {
+		return finalReport != null;
+	}
+
+	public static StartupReport getReport() {
+		StartupReport ret = finalReport;
+
+		return ret != null ? ret : createReport(false);
+	}
+
+	/**
+	 * Finalize the report and log it, later recordings are ignored.
+	 */
+	public static synchronized StartupReport finish() {
+		if (finalReport != null) return finalReport;
+
+		StartupReport ret = createReport(true);
+		finalReport = ret;
+		timings.clear();
+		mixinTargets.clear();
+		mixinConfigs.clear();
+		mixins.clear();
+
+		Log.info(LogCategory.GENERAL, format(ret));
+
+		return ret;
+	}
+
+	private static StartupReport createReport(boolean complete) {
+		List<StartupReport.ModuleTiming> modules = new ArrayList<>(timings.size());
+		long total = 0;
+
+		for (Map.Entry<String, Map<String, LongAdder>> entry : timings.entrySet()) {
+			Map<String, Long> phases = sortDescending(entry.getValue());
+			long moduleTotal = 0;
+
+			for (Map.Entry<String, Long> phase : phases.entrySet()) {
+				// overlaps with whichever phase loaded the target class, see StartupReport.MIXIN_APPLY
+				if (!phase.getKey().equals(StartupReport.MIXIN_APPLY)) moduleTotal += phase.getValue();
+			}
+
+			modules.add(new ModuleTimingImpl(entry.getKey(), phases, moduleTotal));
+			total += moduleTotal;
+		}
+
+		modules.sort(Comparator.comparingLong(StartupReport.ModuleTiming::getTotalNanos).reversed());
+
+		return new StartupReportImpl(complete, total, Collections.unmodifiableList(modules),
+				sortDescending(mixinTargets), sortDescending(mixinConfigs), sortDescending(mixins));
+	}
+
+	private static Map<String, Long> sortDescending(Map<String, LongAdder> map) {
+		List<Map.Entry<String, Long>> entries = new ArrayList<>(map.size());
+
+		for (Map.Entry<String, LongAdder> entry : map.entrySet()) {
+			entries.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue().sum()));
+		}
+
+		entries.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+		Map<String, Long> ret = new LinkedHashMap<>(entries.size());
+
+		for (Map.Entry<String, Long> entry : entries) {
+			ret.put(entry.getKey(), entry.getValue());
+		}
+
+		return Collections.unmodifiableMap(ret);
+	}
+
+	private static String format(StartupReport report) {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("Startup report: %d modules, %.1f ms total", report.getModules().size(), report.getTotalNanos() / 1e6));
+
+		for (StartupReport.ModuleTiming module : report.getModules()) {
+			sb.append(String.format("%n\t%-32s %9.1f ms", module.getModuleId(), module.getTotalNanos() / 1e6));
+			String separator = " (";
+
+			for (Map.Entry<String, Long> phase : module.getPhases().entrySet()) {
+				sb.append(separator).append(String.format("%s %.1f ms", phase.getKey(), phase.getValue() / 1e6));
+				separator = ", ";
+			}
+
+			sb.append(')');
+		}
+
+		formatMixins(sb, "targets", report.getMixinTargets());
+		formatMixins(sb, "configs", report.getMixinConfigs());
+		formatMixins(sb, "mixins", report.getMixins());
+
+		return sb.toString();
+	}
+
+	private static void formatMixins(StringBuilder sb, String name, Map<String, Long> values) {
+		if (values.isEmpty()) return;
+
+		sb.append(String.format("%nSlowest Mixin %s:", name));
+		int count = 0;
+
+		for (Map.Entry<String, Long> entry : values.entrySet()) {
+			if (count++ >= LOGGED_MIXIN_ENTRIES) break;
+
+			sb.append(String.format("%n\t%-64s %9.1f ms", entry.getKey(), entry.getValue() / 1e6));
+		}
+	}
+
+	private static final class StartupReportImpl implements StartupReport {
+		private final boolean complete;
+		private final long totalNanos;
+		private final List<ModuleTiming> modules;
+		private final Map<String, Long> mixinTargets;
+		private final Map<String, Long> mixinConfigs;
+		private final Map<String, Long> mixins;
+
+		StartupReportImpl(boolean complete, long totalNanos, List<ModuleTiming> modules,
+				Map<String, Long> mixinTargets, Map<String, Long> mixinConfigs, Map<String, Long> mixins) {
+			this.complete = complete;
+			this.totalNanos = totalNanos;
+			this.modules = modules;
+			this.mixinTargets = mixinTargets;
+			this.mixinConfigs = mixinConfigs;
+			this.mixins = mixins;
+		}
+
+		@Override
+		public boolean isComplete() {
+			return complete;
+		}
+
+		@Override
+		public long getTotalNanos() {
+			return totalNanos;
+		}
+
+		@Override
+		public List<ModuleTiming> getModules() {
+			return modules;
+		}
+
+		@Override
+		public Map<String, Long> getMixinTargets() {
+			return mixinTargets;
+		}
+
+		@Override
+		public Map<String, Long> getMixinConfigs() {
+			return mixinConfigs;
+		}
+
+		@Override
+		public Map<String, Long> getMixins() {
+			return mixins;
+		}
+	}
+
+	private static final class ModuleTimingImpl implements StartupReport.ModuleTiming {
+		private final String moduleId;
+		private final Map<String, Long> phases;
+		private final long totalNanos;
+
+		ModuleTimingImpl(String moduleId, Map<String, Long> phases, long totalNanos) {
+			this.moduleId = moduleId;
+			this.phases = phases;
+			this.totalNanos = totalNanos;
+		}
+
+		@Override
+		public String getModuleId() {
+			return moduleId;
+		}
+
+		@Override
+		public Map<String, Long> getPhases() {
+			return phases;
+		}
+
+		@Override
+		public long getTotalNanos() {
+			return totalNanos;
+		}
+	}
+}
@@ -0,0 +1,199 @@
+/**
+* Copyright 2016 FabricMC
+* Copyright 2024 Flint Loader Contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package net.flintloader.punch.impl.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import net.flintloader.punch.impl.util.LoaderUtil;
+import net.flintloader.punch.impl.util.SystemProperties;
+import net.flintloader.punch.impl.util.log.Log;
+import net.flintloader.punch.impl.util.log.LogCategory;
+
+/**
+ * Records nested startup spans per thread and writes them as Chrome Trace Event JSON.
+ *
+ * <p>Tracing is active if {@link SystemProperties#TRACE_FILE} is set. Spans are recorded until {@link #finish()} is
+ * called once startup completed, or until shutdown if startup never completes. Afterwards spans are no-ops.
+ *
+ * <pre>{@code
+ * try (Tracer.Span span = Tracer.begin("launch", "locateGame")) {
+ *     ...
+ * }
+ * }</pre>
+ */
+public final class Tracer {
+	private static final String FILE = System.getProperty(SystemProperties.TRACE_FILE);
+	private static final boolean ENABLED = FILE != null && !FILE.isEmpty();
+	private static final long BASE_TIME = System.nanoTime();
+	private static final Queue<SpanImpl> spans = new ConcurrentLinkedQueue<>();
+	private static volatile boolean finished;
+
+	static {
+		if (ENABLED) {
+			Runtime.getRuntime().addShutdownHook(new Thread(Tracer::finish, "Tracer shutdown hook"));
+		}
+	}
+
+	private Tracer() { }
+
+	public static boolean isEnabled() {
+		return ENABLED && !finished;
+	}
+
+	/**
+	 * Begin a span on the current thread, to be closed on the same thread.
+	 *
+	 * @param category span category, e.g. launch, classload or entrypoint
+	 */
+	public static Span begin(String category, String name) {
+		if (!ENABLED || finished) return Span.NONE;
+
+		return new SpanImpl(category, name, Thread.currentThread());
+	}
+
+	/**
+	 * Stop tracing and write the recorded spans.
+	 */
+	public static synchronized void finish() {
+		if (!ENABLED || finished) return;
+
+		finished = true;
+		Path file = LoaderUtil.normalizePath(Paths.get(FILE));
+
+		try {
+			if (file.getParent() != null) Files.createDirectories(file.getParent());
+
+			try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+				write(writer);
+			}
+
+			Log.info(LogCategory.GENERAL, "Wrote startup trace to %s", file);
+		} catch (IOException e) {
+			Log.warn(LogCategory.GENERAL, "Error writing startup trace to %s", file, e);
+		}
+
+		spans.clear();
+	}
+
+	private static void write(Writer writer) throws IOException {
+		Map<Long, String> threads = new HashMap<>();
+		StringBuilder sb = new StringBuilder(256);
+		boolean first = true;
+
+		writer.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[");
+
+		for (SpanImpl span : spans) {
+			threads.putIfAbsent(span.threadId, span.threadName);
+
+			sb.setLength(0);
+			if (!first) sb.append(",\n");
+			first = false;
+
+			sb.append("{\"ph\":\"X\",\"pid\":1,\"tid\":").append(span.threadId);
+			sb.append(",\"cat\":");
+			appendString(sb, span.category);
+			sb.append(",\"name\":");
+			appendString(sb, span.name);
+			sb.append(",\"ts\":");
+			appendMicros(sb, span.start - BASE_TIME);
+			sb.append(",\"dur\":");
+			appendMicros(sb, span.end - span.start);
+			sb.append('}');
+
+			writer.append(sb);
+		}
+
+		for (Map.Entry<Long, String> entry : threads.entrySet()) {
+			sb.setLength(0);
+			if (!first) sb.append(",\n");
+			first = false;
+
+			sb.append("{\"ph\":\"M\",\"pid\":1,\"tid\":").append(entry.getKey()).append(",\"name\":\"thread_name\",\"args\":{\"name\":");
+			appendString(sb, entry.getValue());
+			sb.append("}}");
+
+			writer.append(sb);
+		}
+
+		writer.write("]}\n");
+	}
+
+	private static void appendMicros(StringBuilder sb, long nanos) {
+		sb.append(nanos / 1000).append('.');
+		long fraction = nanos % 1000;
+		if (fraction < 100) sb.append('0');
+		if (fraction < 10) sb.append('0');
+		sb.append(fraction);
+	}
+
+	private static void appendString(StringBuilder sb, String str) {
+		sb.append('"');
+
+		for (int i = 0; i < str.length(); i++) {
+			char c = str.charAt(i);
+
+			if (c == '"' || c == '\\') {
+				sb.append('\\').append(c);
+			} else if (c < 0x20) {
+				sb.append(String.format("\\u%04x", (int) c));
+			} else {
+				sb.append(c);
+			}
+		}
+
+		sb.append('"');
+	}
+
+	public interface Span extends AutoCloseable {
+		Span NONE = () -> { };
+
+		@Override
+		void close();
+	}
+
+	private static final class SpanImpl implements Span {
+		final String category;
+		final String name;
+		final long threadId;
+		final String threadName;
+		final long start;
+		long end;
+
+		SpanImpl(String category, String name, Thread thread) {
+			this.category = category;
+			this.name = name;
+			this.threadId = thread.getId();
+			this.threadName = thread.getName();
+			this.start = System.nanoTime();
+		}
+
+		@Override
+		public void close() {
+			end = System.nanoTime();
+			if (!finished) spans.add(this);
+		}
+	}
+}
@@ -27,6 +27,11 @@ import java.nio.file.Path;
 import java.util.Collections;
 import java.util.Map;
 import java.util.zip.ZipError;
+import java.util.zip.ZipException;
+
+import net.flintloader.punch.impl.util.jarfs.JarFileSystemProvider;
+import net.flintloader.punch.impl.util.log.Log;
+import net.flintloader.punch.impl.util.log.LogCategory;
 
 public final class FileSystemUtil {
 	public static class FileSystemDelegate implements AutoCloseable {
@@ -56,9 +61,34 @@ public final class FileSystemUtil {
 	private static final Map<String, String> jfsArgsEmpty = Collections.emptyMap();
 
 	public static FileSystemDelegate getJarFileSystem(Path path, boolean create) throws IOException {
+		if (!create) {
+			// share the file system if the jar is already open in the pool, avoids parsing the central directory again
+			FileSystem pooled = JarFileSystemPool.get().getIfOpen(LoaderUtil.normalizePath(path));
+			if (pooled != null) return new FileSystemDelegate(pooled, false);
+
+			return openReadOnlyJarFileSystem(path);
+		}
+
 		return getJarFileSystem(path.toUri(), create);
 	}
 
+	/**
+	 * Open a private read-only file system for a jar, see {@link JarFileSystemProvider}.
+	 *
+	 * <p>Jars the lightweight implementation can't handle fall back to zipfs.
+	 */
+	static FileSystemDelegate openReadOnlyJarFileSystem(Path path) throws IOException {
+		try {
+			return new FileSystemDelegate(JarFileSystemProvider.get().newFileSystem(path), true);
+		} catch (ZipException e) {
+			Log.debug(LogCategory.GENERAL, "Can't open %s with the lightweight jar file system, falling back to zipfs: %s", path, e);
+		} catch (IOException e) {
+			throw new IOException("Error accessing "+path+": "+e, e);
+		}
+
+		return getJarFileSystem(path.toUri(), false);
+	}
+
 	public static FileSystemDelegate getJarFileSystem(URI uri, boolean create) throws IOException {
 		URI jarUri;
 
@@ -0,0 +1,204 @@
+/**
+* Copyright 2016 FabricMC
+* Copyright 2024 Flint Loader Contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package net.flintloader.punch.impl.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystem;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import net.flintloader.punch.impl.util.jarfs.JarFileSystem;
+import net.flintloader.punch.impl.util.jarfs.JarFileSystemProvider;
+import net.flintloader.punch.impl.util.log.Log;
+import net.flintloader.punch.impl.util.log.LogCategory;
+
+/**
+ * Loader owned pool of read-only jar file systems.
+ *
+ * <p>Every jar is opened at most once, users obtain a reference counted {@link Lease} and the file system gets closed
+ * once the last lease is released. Jars are opened with the lightweight {@link JarFileSystemProvider}, the pool keeps
+ * track of the heap each open file system retains for its whole lifetime.
+ */
+public final class JarFileSystemPool {
+	private static final JarFileSystemPool INSTANCE = new JarFileSystemPool();
+
+	private static final int EOCD_SIZE = 22;
+	private static final int EOCD_SIG = 0x06054b50;
+	private static final int MAX_COMMENT_SIZE = 0xffff;
+
+	private final Map<Path, Entry> entries = new HashMap<>();
+	private long retainedBytes;
+
+	private JarFileSystemPool() { }
+
+	public static JarFileSystemPool get() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Obtain a lease for the file system of the supplied jar, opening it if necessary.
+	 *
+	 * <p>The lease has to be closed once the file system isn't needed anymore.
+	 */
+	public synchronized Lease acquire(Path jar) throws IOException {
+		jar = LoaderUtil.normalizePath(jar);
+		Entry entry = entries.get(jar);
+
+		if (entry != null && !entry.delegate.get().isOpen()) { // closed behind our back
+			Log.debug(LogCategory.GENERAL, "Pooled file system for %s was closed externally, reopening", jar);
+			remove(entry);
+			entry = null;
+		}
+
+		if (entry == null) {
+			FileSystemUtil.FileSystemDelegate delegate = FileSystemUtil.openReadOnlyJarFileSystem(jar);
+			FileSystem fs = delegate.get();
+			long size = fs instanceof JarFileSystem ? ((JarFileSystem) fs).getIndex().getHeapSize() : readCentralDirectorySize(jar);
+			entry = new Entry(jar, delegate, size);
+			entries.put(jar, entry);
+			retainedBytes += entry.retainedSize;
+
+			Log.debug(LogCategory.GENERAL, "Opened pooled file system for %s (%d bytes retained, %d bytes total)", jar, entry.retainedSize, retainedBytes);
+		}
+
+		entry.refCount++;
+
+		return new Lease(entry);
+	}
+
+	/**
+	 * Returns an already open pooled file system for the supplied jar without acquiring a lease, or null if none.
+	 *
+	 * <p>The returned file system must not be closed by the caller.
+	 */
+	synchronized FileSystem getIfOpen(Path jar) {
+		Entry entry = entries.get(jar);
+		if (entry == null) return null;
+
+		FileSystem ret = entry.delegate.get();
+
+		return ret.isOpen() ? ret : null;
+	}
+
+	private synchronized void release(Entry entry) {
+		if (entry.refCount <= 0) throw new IllegalStateException("lease for "+entry.jar+" released too often");
+		if (--entry.refCount > 0 || entries.get(entry.jar) != entry) return;
+
+		remove(entry);
+	}
+
+	private void remove(Entry entry) {
+		entries.remove(entry.jar);
+		retainedBytes -= entry.retainedSize;
+
+		try {
+			entry.delegate.close();
+		} catch (IOException e) {
+			Log.debug(LogCategory.GENERAL, "Error closing pooled file system for %s", entry.jar, e);
+		}
+	}
+
+	/**
+	 * Returns the approximate heap footprint of all open jar file systems.
+	 */
+	public synchronized long getRetainedBytes() {
+		return retainedBytes;
+	}
+
+	public synchronized int getOpenCount() {
+		return entries.size();
+	}
+
+	/**
+	 * Determine the central directory size from the end of central directory record, -1 if it can't be located.
+	 *
+	 * <p>This approximates the heap retained by zipfs, which is only used for jars the lightweight file system rejects.
+	 */
+	static long readCentralDirectorySize(Path jar) {
+		try (FileChannel channel = FileChannel.open(jar, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < EOCD_SIZE) return -1;
+
+			int len = (int) Math.min(size, EOCD_SIZE + MAX_COMMENT_SIZE);
+			ByteBuffer buf = ByteBuffer.allocate(len).order(ByteOrder.LITTLE_ENDIAN);
+			long pos = size - len;
+
+			while (buf.hasRemaining()) {
+				if (channel.read(buf, pos + buf.position()) < 0) return -1;
+			}
+
+			for (int i = len - EOCD_SIZE; i >= 0; i--) {
+				if (buf.getInt(i) == EOCD_SIG) {
+					return buf.getInt(i + 12) & 0xffffffffL;
+				}
+			}
+		} catch (IOException e) {
+			// not a readable zip, the open attempt reports the actual error
+		}
+
+		return -1;
+	}
+
+	private static final class Entry {
+		Entry(Path jar, FileSystemUtil.FileSystemDelegate delegate, long retainedSize) {
+			this.jar = jar;
+			this.delegate = delegate;
+			this.retainedSize = Math.max(retainedSize, 0);
+		}
+
+		final Path jar;
+		final FileSystemUtil.FileSystemDelegate delegate;
+		final long retainedSize;
+		int refCount;
+	}
+
+	public final class Lease implements AutoCloseable {
+		private final Entry entry;
+		private boolean released;
+
+		private Lease(Entry entry) {
+			this.entry = entry;
+		}
+
+		public FileSystem getFileSystem() {
+			return entry.delegate.get();
+		}
+
+		public Path getRoot() {
+			return getFileSystem().getRootDirectories().iterator().next();
+		}
+
+		public boolean isOpen() {
+			return !released && getFileSystem().isOpen();
+		}
+
+		@Override
+		public void close() {
+			synchronized (JarFileSystemPool.this) {
+				if (released) return;
+				released = true;
+			}
+
+			release(entry);
+		}
+	}
+}
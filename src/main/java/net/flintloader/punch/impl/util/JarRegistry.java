@@ -0,0 +1,187 @@
+/**
+* Copyright 2016 FabricMC
+* Copyright 2024 Flint Loader Contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package net.flintloader.punch.impl.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipError;
+import java.util.zip.ZipFile;
+
+import net.flintloader.punch.impl.util.log.Log;
+import net.flintloader.punch.impl.util.log.LogCategory;
+
+/**
+ * Loader wide registry of open jars, shared by everything reading jars during startup.
+ *
+ * <p>Every jar is opened as a {@link ZipFile} at most once, parsing its central directory into the entry index a single
+ * time. Users obtain a reference counted {@link Handle}. Unused jars stay open until {@link #closeIdle} is called at
+ * the end of the game provider setup, so consecutive users such as the library classification, the version lookup and
+ * the entrypoint patches share the same index. Afterwards jars are closed as soon as their last handle is released.
+ */
+public final class JarRegistry {
+	private static final JarRegistry INSTANCE = new JarRegistry();
+
+	private final Map<Path, Entry> entries = new HashMap<>();
+	private boolean retainIdle = true;
+
+	private JarRegistry() { }
+
+	public static JarRegistry get() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Obtain a handle for the supplied jar, opening it if necessary.
+	 *
+	 * <p>The handle has to be closed once the jar isn't needed anymore.
+	 */
+	public synchronized Handle acquire(Path jar) throws IOException {
+		jar = LoaderUtil.normalizePath(jar);
+		Entry entry = entries.get(jar);
+
+		if (entry == null) {
+			ZipFile zf;
+
+			try {
+				zf = new ZipFile(jar.toFile());
+			} catch (ZipError e) {
+				throw new IOException(String.format("error opening %s: %s", jar, e), e);
+			}
+
+			entry = new Entry(jar, zf);
+			entries.put(jar, entry);
+
+			Log.debug(LogCategory.GENERAL, "Opened shared jar %s (%d entries)", jar, zf.size());
+		}
+
+		entry.refCount++;
+
+		return new Handle(entry);
+	}
+
+	/**
+	 * Close all jars without handles and stop retaining jars once their last handle is released.
+	 */
+	public void closeIdle() {
+		List<Entry> idle = new ArrayList<>();
+
+		synchronized (this) {
+			retainIdle = false;
+
+			for (Entry entry : entries.values()) {
+				if (entry.refCount == 0) idle.add(entry);
+			}
+
+			for (Entry entry : idle) {
+				entries.remove(entry.jar);
+			}
+		}
+
+		for (Entry entry : idle) {
+			close(entry);
+		}
+
+		if (!idle.isEmpty()) Log.debug(LogCategory.GENERAL, "Closed %d idle shared jars", idle.size());
+	}
+
+	public synchronized int getOpenCount() {
+		return entries.size();
+	}
+
+	private void release(Entry entry) {
+		synchronized (this) {
+			if (entry.refCount <= 0) throw new IllegalStateException("handle for "+entry.jar+" released too often");
+			if (--entry.refCount > 0 || retainIdle) return;
+
+			entries.remove(entry.jar);
+		}
+
+		close(entry);
+	}
+
+	private static void close(Entry entry) {
+		try {
+			entry.zipFile.close();
+		} catch (IOException e) {
+			Log.debug(LogCategory.GENERAL, "Error closing shared jar %s", entry.jar, e);
+		}
+	}
+
+	private static final class Entry {
+		Entry(Path jar, ZipFile zipFile) {
+			this.jar = jar;
+			this.zipFile = zipFile;
+		}
+
+		final Path jar;
+		final ZipFile zipFile;
+		int refCount;
+	}
+
+	public final class Handle implements AutoCloseable {
+		private final Entry entry;
+		private boolean released;
+
+		private Handle(Entry entry) {
+			this.entry = entry;
+		}
+
+		public Path getPath() {
+			return entry.jar;
+		}
+
+		/**
+		 * Returns the underlying zip file, it must not be closed by the caller.
+		 */
+		public ZipFile getZipFile() {
+			return entry.zipFile;
+		}
+
+		public ZipEntry getEntry(String name) {
+			return entry.zipFile.getEntry(name);
+		}
+
+		public InputStream getInputStream(ZipEntry zipEntry) throws IOException {
+			return entry.zipFile.getInputStream(zipEntry);
+		}
+
+		/**
+		 * Open the named entry, null if it doesn't exist.
+		 */
+		public InputStream getInputStream(String name) throws IOException {
+			ZipEntry zipEntry = entry.zipFile.getEntry(name);
+
+			return zipEntry != null ? entry.zipFile.getInputStream(zipEntry) : null;
+		}
+
+		@Override
+		public void close() {
+			synchronized (JarRegistry.this) {
+				if (released) return;
+				released = true;
+			}
+
+			release(entry);
+		}
+	}
+}
@@ -19,14 +19,19 @@ package net.flintloader.punch.impl.util;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.net.URL;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 public final class LoaderUtil {
+	private static final Map<String, Path> realPaths = new ConcurrentHashMap<>();
+
 	public static String getClassFileName(String className) {
 		return className.replace('.', '/').concat(".class");
 	}
@@ -39,7 +44,27 @@ public final class LoaderUtil {
 		}
 	}
 
+	/**
+	 * Resolve the real path of an existing file.
+	 *
+	 * <p>Results for the default file system are cached by the path string, the file system is only consulted once per
+	 * path. Later changes to the file system, like moved symlink targets, aren't reflected.
+	 */
 	public static Path normalizeExistingPath(Path path) {
+		if (path.getFileSystem() != FileSystems.getDefault()) return toRealPath(path);
+
+		String key = path.toString();
+		Path ret = realPaths.get(key);
+		if (ret != null) return ret;
+
+		ret = toRealPath(path);
+		realPaths.putIfAbsent(key, ret);
+		realPaths.putIfAbsent(ret.toString(), ret); // normalizing the result again is common
+
+		return ret;
+	}
+
+	private static Path toRealPath(Path path) {
 		try {
 			return path.toRealPath();
 		} catch (IOException e) {
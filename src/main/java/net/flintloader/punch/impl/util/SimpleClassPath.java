@@ -23,14 +23,12 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipError;
-import java.util.zip.ZipFile;
 
 public final class SimpleClassPath implements Closeable {
 	public SimpleClassPath(List<Path> paths) {
 		this.paths = paths;
 		this.jarMarkers = new boolean[paths.size()];
-		this.openJars = new ZipFile[paths.size()];
+		this.openJars = new JarRegistry.Handle[paths.size()];
 
 		for (int i = 0; i < jarMarkers.length; i++) {
 			if (!Files.isDirectory(paths.get(i))) {
@@ -41,25 +39,12 @@ public final class SimpleClassPath implements Closeable {
 
 	@Override
 	public void close() throws IOException {
-		IOException exc = null;
-
 		for (int i = 0; i < openJars.length; i++) {
-			Closeable file = openJars[i];
-
-			try {
-				if (file != null) file.close();
-			} catch (IOException e) {
-				if (exc == null) {
-					exc = e;
-				} else {
-					exc.addSuppressed(e);
-				}
-			}
+			JarRegistry.Handle jar = openJars[i];
+			if (jar != null) jar.close();
 
 			openJars[i] = null;
 		}
-
-		if (exc != null) throw exc;
 	}
 
 	public List<Path> getPaths() {
@@ -69,19 +54,19 @@ public final class SimpleClassPath implements Closeable {
 	public CpEntry getEntry(String subPath) throws IOException {
 		for (int i = 0; i < jarMarkers.length; i++) {
 			if (jarMarkers[i]) {
-				ZipFile zf = openJars[i];
+				JarRegistry.Handle jar = openJars[i];
 
-				if (zf == null) {
+				if (jar == null) {
 					Path path = paths.get(i);
 
 					try {
-						openJars[i] = zf = new ZipFile(path.toFile());
-					} catch (IOException | ZipError e) {
+						openJars[i] = jar = JarRegistry.get().acquire(path);
+					} catch (IOException e) {
 						throw new IOException(String.format("error opening %s: %s", LoaderUtil.normalizePath(path), e), e);
 					}
 				}
 
-				ZipEntry entry = zf.getEntry(subPath);
+				ZipEntry entry = jar.getEntry(subPath);
 
 				if (entry != null) {
 					return new CpEntry(i, subPath, entry);
@@ -139,5 +124,5 @@ public final class SimpleClassPath implements Closeable {
 
 	private final List<Path> paths;
 	private final boolean[] jarMarkers; // whether the path is a jar (otherwise plain dir)
-	private final ZipFile[] openJars;
+	private final JarRegistry.Handle[] openJars; // shared through the JarRegistry
 }
@@ -28,10 +28,22 @@ public final class SystemProperties {
 	public static final String GAME_JAR_PATH_SERVER = "flint.gameJarPath.server";
 	// set the game version for the builtin game mod/dependencies, bypassing auto-detection
 	public static final String GAME_VERSION = "flint.gameVersion";
+	// worker thread count for entrypoints declared as parallel, defaults to the processor count minus one
+	public static final String ENTRYPOINT_THREADS = "flint.entrypointThreads";
+	// memory budget in KiB for transformed class bytes requested by Mixin ahead of their class definition, 0 to disable
+	public static final String CLASS_BYTES_CACHE_SIZE = "flint.classBytesCacheSize";
 	// fallback log file for the builtin log handler (dumped on exit if not replaced with another handler)
 	public static final String LOG_FILE = "flint.log.file";
 	// minimum log level for builtin log handler
 	public static final String LOG_LEVEL = "flint.log.level";
+	// capacity of the builtin log handler's asynchronous message queue
+	public static final String LOG_QUEUE_SIZE = "flint.log.queueSize";
+	// what to do with log messages once the asynchronous queue is full: block (default) or drop
+	public static final String LOG_QUEUE_OVERFLOW = "flint.log.queueOverflow";
+	// maximum number of messages the builtin log handler keeps for replaying before another handler takes over
+	public static final String LOG_REPLAY_LIMIT = "flint.log.replayLimit";
+	// what to do with the oldest buffered messages once the replay limit is reached: drop (default) or spill to a temporary file
+	public static final String LOG_REPLAY_OVERFLOW = "flint.log.replayOverflow";
 	// additional mods to load (path separator separated paths, @ prefix for meta-file with each line referencing an actual file)
 	public static final String ADD_MODS = "flint.addMods";
 	// file containing the class path for in-dev runtime mod remapping
@@ -40,6 +52,8 @@ public final class SystemProperties {
 	public static final String PATH_GROUPS = "flint.classPathGroups";
 	// system level libraries, matching code sources will not be assumed to be part of the game or mods and remain on the system class path (paths separated by path separator)
 	public static final String SYSTEM_LIBRARIES = "flint.systemLibraries";
+	// write a Chrome Trace Event JSON timeline of the startup to this file, viewable in Perfetto or chrome://tracing
+	public static final String TRACE_FILE = "flint.traceFile";
 	// throw exceptions from entrypoints, discovery etc. directly instead of gathering and attaching as suppressed
 	public static final String DEBUG_THROW_DIRECTLY = "flint.debug.throwDirectly";
 	// logs library classification activity
@@ -52,6 +66,10 @@ public final class SystemProperties {
 	public static final String DEBUG_LOG_TRANSFORM_ERRORS = "flint.debug.logTransformErrors";
 	// disables system class path isolation, allowing bogus lib accesses (too early, transient jars)
 	public static final String DEBUG_DISABLE_CLASS_PATH_ISOLATION = "flint.debug.disableClassPathIsolation";
+	// write the builtin log handler's output on the logging thread instead of a dedicated writer thread
+	public static final String DEBUG_DISABLE_ASYNC_LOG = "flint.debug.disableAsyncLog";
+	// don't emit the loader's Java Flight Recorder events even if a recording is running
+	public static final String DEBUG_DISABLE_JFR_EVENTS = "flint.debug.disableJfrEvents";
 	// disables mod load order shuffling to be the same in-dev as in production
 	public static final String DEBUG_DISABLE_MOD_SHUFFLE = "flint.debug.disableModShuffle";
 	// workaround for bad load order dependencies
@@ -60,6 +78,14 @@ public final class SystemProperties {
 	public static final String DEBUG_DISCOVERY_TIMEOUT = "flint.debug.discoveryTimeout";
 	// override the mod resolution timeout, unit in seconds, <= 0 to disable
 	public static final String DEBUG_RESOLUTION_TIMEOUT = "flint.debug.resolutionTimeout";
+	// always discover modules instead of reusing the launch manifest of an earlier launch
+	public static final String DEBUG_DISABLE_LAUNCH_MANIFEST = "flint.debug.disableLaunchManifest";
+	// run all launch steps in sequence on the main thread instead of overlapping independent ones
+	public static final String DEBUG_DISABLE_PARALLEL_STARTUP = "flint.debug.disableParallelStartup";
+	// run all entrypoints on the calling thread, ignoring parallelEntryPoints declared by modules
+	public static final String DEBUG_DISABLE_PARALLEL_ENTRYPOINTS = "flint.debug.disableParallelEntrypoints";
+	// always classify the class path, detect the game version and run the game patches instead of reusing the results of an earlier launch
+	public static final String DEBUG_DISABLE_PROVIDER_CACHE = "flint.debug.disableProviderCache";
 	// replace mod versions (modA:versionA,modB:versionB,...)
 	public static final String DEBUG_REPLACE_VERSION = "flint.debug.replaceVersion";
 	public static final String UNIT_TEST = "flint.unitTest";
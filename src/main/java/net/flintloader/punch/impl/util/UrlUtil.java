@@ -25,11 +25,55 @@ import java.net.URLConnection;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.security.CodeSource;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public final class UrlUtil {
+	private static final Map<String, Path> codeSources = new ConcurrentHashMap<>();
+
 	public static final Path LOADER_CODE_SOURCE = getCodeSource(UrlUtil.class);
 
+	/**
+	 * Get the code source containing the resource localPath at url.
+	 *
+	 * <p>Results are cached by {@link #getCodeSourceKey}, so resources from the same code source resolve it only once.
+	 */
 	public static Path getCodeSource(URL url, String localPath) throws UrlConversionException {
+		String key = getCodeSourceKey(url, localPath);
+		if (key == null) return resolveCodeSource(url, localPath);
+
+		Path ret = codeSources.get(key);
+
+		if (ret == null) {
+			ret = resolveCodeSource(url, localPath);
+			codeSources.putIfAbsent(key, ret);
+		}
+
+		return ret;
+	}
+
+	/**
+	 * Extract the code source part of a file or jar resource url without resolving it.
+	 *
+	 * @return the code source part or null if the url has an unexpected form
+	 */
+	public static String getCodeSourceKey(URL url, String localPath) {
+		String path = url.getPath();
+		int end = path.length() - localPath.length();
+		if (end <= 0 || !path.endsWith(localPath)) return null;
+
+		if (url.getProtocol().equals("jar")) { // jar:<code source>!/<local path>
+			if (end < 2 || path.charAt(end - 1) != '/' || path.charAt(end - 2) != '!') return null;
+
+			return path.substring(0, end - 2);
+		} else if (url.getProtocol().equals("file") && url.getHost().isEmpty()) { // file:<code source>/<local path>
+			return path.substring(0, end);
+		} else {
+			return null;
+		}
+	}
+
+	private static Path resolveCodeSource(URL url, String localPath) throws UrlConversionException {
 		try {
 			URLConnection connection = url.openConnection();
 
@@ -0,0 +1,265 @@
+/**
+* Copyright 2016 FabricMC
+* Copyright 2024 Flint Loader Contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package net.flintloader.punch.impl.util.jarfs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedFileSystemException;
+import java.nio.file.FileStore;
+import java.nio.file.FileSystem;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.UserPrincipalLookupService;
+import java.nio.file.spi.FileSystemProvider;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Read-only file system for the content of a single jar, see {@link JarIndex}.
+ */
+public final class JarFileSystem extends FileSystem {
+	private final JarFileSystemProvider provider;
+	private final JarIndex index;
+	private final JarPath root;
+	private volatile boolean open = true;
+
+	JarFileSystem(JarFileSystemProvider provider, JarIndex index) {
+		this.provider = provider;
+		this.index = index;
+		this.root = new JarPath(this, "/");
+	}
+
+	public Path getJar() {
+		return index.getJar();
+	}
+
+	public JarIndex getIndex() {
+		return index;
+	}
+
+	JarPath getRoot() {
+		return root;
+	}
+
+	void ensureOpen() {
+		if (!open) throw new ClosedFileSystemException();
+	}
+
+	boolean exists(JarPath path) {
+		ensureOpen();
+		String name = path.getEntryName();
+
+		return index.isDirectory(name) || index.find(name) >= 0;
+	}
+
+	/**
+	 * Returns the entry id for a regular file, throwing if the path doesn't denote one.
+	 */
+	int getFileEntry(JarPath path) throws IOException {
+		ensureOpen();
+		String name = path.getEntryName();
+		int ret = index.find(name);
+
+		if (ret < 0 || index.isDirectoryEntry(ret)) {
+			if (index.isDirectory(name)) throw new IOException(path+" is a directory");
+
+			throw new NoSuchFileException(path.toString());
+		}
+
+		return ret;
+	}
+
+	InputStream newInputStream(JarPath path) throws IOException {
+		return index.getInputStream(getFileEntry(path));
+	}
+
+	List<Path> getChildren(JarPath dir) throws IOException {
+		ensureOpen();
+		String name = dir.getEntryName();
+
+		if (!index.isDirectory(name)) {
+			if (index.find(name) >= 0) throw new NotDirectoryException(dir.toString());
+
+			throw new NoSuchFileException(dir.toString());
+		}
+
+		List<Path> ret = new ArrayList<>();
+		index.forEachChild(name, child -> ret.add(dir.resolve(child)));
+
+		return ret;
+	}
+
+	@Override
+	public FileSystemProvider provider() {
+		return provider;
+	}
+
+	@Override
+	public void close() throws IOException {
+		// the mapping is released by the GC once the index is unreachable, there is no supported way to unmap it eagerly
+		open = false;
+	}
+
+	@Override
+	public boolean isOpen() {
+		return open;
+	}
+
+	@Override
+	public boolean isReadOnly() {
+		return true;
+	}
+
+	@Override
+	public String getSeparator() {
+		return "/";
+	}
+
+	@Override
+	public Iterable<Path> getRootDirectories() {
+		return Collections.singletonList(root);
+	}
+
+	@Override
+	public Iterable<FileStore> getFileStores() {
+		return Collections.emptyList();
+	}
+
+	@Override
+	public Set<String> supportedFileAttributeViews() {
+		return Collections.singleton("basic");
+	}
+
+	@Override
+	public Path getPath(String first, String... more) {
+		if (more.length == 0) return new JarPath(this, first);
+
+		StringBuilder sb = new StringBuilder(first);
+
+		for (String s : more) {
+			if (s.isEmpty()) continue;
+			if (sb.length() > 0) sb.append('/');
+			sb.append(s);
+		}
+
+		return new JarPath(this, sb.toString());
+	}
+
+	@Override
+	public PathMatcher getPathMatcher(String syntaxAndPattern) {
+		int pos = syntaxAndPattern.indexOf(':');
+		if (pos <= 0) throw new IllegalArgumentException("invalid syntax and pattern: "+syntaxAndPattern);
+
+		String syntax = syntaxAndPattern.substring(0, pos);
+		String pattern = syntaxAndPattern.substring(pos + 1);
+		Pattern regex;
+
+		if (syntax.equalsIgnoreCase("regex")) {
+			regex = Pattern.compile(pattern);
+		} else if (syntax.equalsIgnoreCase("glob")) {
+			regex = Pattern.compile(globToRegex(pattern));
+		} else {
+			throw new UnsupportedOperationException("unsupported path matcher syntax: "+syntax);
+		}
+
+		return path -> regex.matcher(path.toString()).matches();
+	}
+
+	private static String globToRegex(String glob) {
+		StringBuilder sb = new StringBuilder("^");
+		boolean inGroup = false;
+
+		for (int i = 0; i < glob.length(); i++) {
+			char c = glob.charAt(i);
+
+			switch (c) {
+			case '\\':
+				if (++i >= glob.length()) throw new IllegalArgumentException("trailing escape in glob "+glob);
+				sb.append(Pattern.quote(String.valueOf(glob.charAt(i))));
+				break;
+			case '*':
+				if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+					sb.append(".*");
+					i++;
+				} else {
+					sb.append("[^/]*");
+				}
+
+				break;
+			case '?':
+				sb.append("[^/]");
+				break;
+			case '[': {
+				int end = glob.indexOf(']', i + 1);
+				if (end < 0) throw new IllegalArgumentException("unclosed bracket in glob "+glob);
+
+				String content = glob.substring(i + 1, end);
+				if (content.startsWith("!")) content = "^"+content.substring(1);
+
+				sb.append("[[^/]&&[").append(content.replace("\\", "\\\\").replace("[", "\\[")).append("]]");
+				i = end;
+				break;
+			}
+			case '{':
+				if (inGroup) throw new IllegalArgumentException("nested group in glob "+glob);
+				sb.append("(?:");
+				inGroup = true;
+				break;
+			case '}':
+				if (inGroup) {
+					sb.append(')');
+					inGroup = false;
+				} else {
+					sb.append("\\}");
+				}
+
+				break;
+			case ',':
+				sb.append(inGroup ? "|" : ",");
+				break;
+			default:
+				if ("().+^$|".indexOf(c) >= 0) sb.append('\\');
+				sb.append(c);
+			}
+		}
+
+		if (inGroup) throw new IllegalArgumentException("unclosed group in glob "+glob);
+
+		return sb.append('$').toString();
+	}
+
+	@Override
+	public UserPrincipalLookupService getUserPrincipalLookupService() {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public WatchService newWatchService() {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public String toString() {
+		return index.getJar().toString();
+	}
+}
@@ -0,0 +1,431 @@
+/**
+* Copyright 2016 FabricMC
+* Copyright 2024 Flint Loader Contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package net.flintloader.punch.impl.util.jarfs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.AccessMode;
+import java.nio.file.CopyOption;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileStore;
+import java.nio.file.FileSystem;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.ProviderMismatchException;
+import java.nio.file.ReadOnlyFileSystemException;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.FileAttributeView;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.spi.FileSystemProvider;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Provider for {@link JarFileSystem}, a minimal read-only alternative to the JDK's zipfs.
+ *
+ * <p>The provider isn't installed, file systems are only created through {@link #newFileSystem(Path)} and aren't
+ * globally registered. This keeps them separate from zipfs instances opened by the game for the same jars.
+ */
+public final class JarFileSystemProvider extends FileSystemProvider {
+	public static final String SCHEME = "punchjar";
+
+	private static final JarFileSystemProvider INSTANCE = new JarFileSystemProvider();
+
+	public static JarFileSystemProvider get() {
+		return INSTANCE;
+	}
+
+	private JarFileSystemProvider() { }
+
+	public JarFileSystem newFileSystem(Path jar) throws IOException {
+		return new JarFileSystem(this, JarIndex.open(jar));
+	}
+
+	@Override
+	public String getScheme() {
+		return SCHEME;
+	}
+
+	@Override
+	public FileSystem newFileSystem(URI uri, Map<String, ?> env) {
+		throw new UnsupportedOperationException("jar file systems are only created from paths");
+	}
+
+	@Override
+	public FileSystem newFileSystem(Path path, Map<String, ?> env) throws IOException {
+		return newFileSystem(path);
+	}
+
+	@Override
+	public FileSystem getFileSystem(URI uri) {
+		throw new UnsupportedOperationException("jar file systems aren't registered globally");
+	}
+
+	@Override
+	public Path getPath(URI uri) {
+		throw new UnsupportedOperationException("jar file systems aren't registered globally");
+	}
+
+	@Override
+	public InputStream newInputStream(Path path, OpenOption... options) throws IOException {
+		for (OpenOption option : options) {
+			if (option != StandardOpenOption.READ) throw new UnsupportedOperationException("unsupported option: "+option);
+		}
+
+		JarPath p = toJarPath(path);
+
+		return p.getFileSystem().newInputStream(p);
+	}
+
+	@Override
+	public OutputStream newOutputStream(Path path, OpenOption... options) {
+		throw new ReadOnlyFileSystemException();
+	}
+
+	@Override
+	public SeekableByteChannel newByteChannel(Path path, Set<? extends OpenOption> options, FileAttribute<?>... attrs) throws IOException {
+		for (OpenOption option : options) {
+			if (option == StandardOpenOption.WRITE || option == StandardOpenOption.APPEND
+					|| option == StandardOpenOption.CREATE || option == StandardOpenOption.CREATE_NEW
+					|| option == StandardOpenOption.DELETE_ON_CLOSE || option == StandardOpenOption.TRUNCATE_EXISTING) {
+				throw new ReadOnlyFileSystemException();
+			}
+		}
+
+		JarPath p = toJarPath(path);
+		JarFileSystem fs = p.getFileSystem();
+
+		return new BufferChannel(fs.getIndex().getContent(fs.getFileEntry(p)));
+	}
+
+	@Override
+	public DirectoryStream<Path> newDirectoryStream(Path dir, DirectoryStream.Filter<? super Path> filter) throws IOException {
+		JarPath p = toJarPath(dir);
+		List<Path> children = p.getFileSystem().getChildren(p);
+
+		return new DirectoryStream<Path>() {
+			private boolean used;
+
+			@Override
+			public Iterator<Path> iterator() {
+				if (used) throw new IllegalStateException("iterator already obtained");
+				used = true;
+
+				if (filter != null) {
+					children.removeIf(child -> {
+						try {
+							return !filter.accept(child);
+						} catch (IOException e) {
+							throw new UncheckedIOException(e);
+						}
+					});
+				}
+
+				return children.iterator();
+			}
+
+			@Override
+			public void close() { }
+		};
+	}
+
+	@Override
+	public void createDirectory(Path dir, FileAttribute<?>... attrs) {
+		throw new ReadOnlyFileSystemException();
+	}
+
+	@Override
+	public void delete(Path path) {
+		throw new ReadOnlyFileSystemException();
+	}
+
+	@Override
+	public void copy(Path source, Path target, CopyOption... options) {
+		throw new ReadOnlyFileSystemException();
+	}
+
+	@Override
+	public void move(Path source, Path target, CopyOption... options) {
+		throw new ReadOnlyFileSystemException();
+	}
+
+	@Override
+	public boolean isSameFile(Path path, Path path2) throws IOException {
+		if (path.equals(path2)) return true;
+		if (!(path instanceof JarPath) || !(path2 instanceof JarPath)) return false;
+
+		JarPath a = (JarPath) path;
+		JarPath b = (JarPath) path2;
+
+		return a.getFileSystem() == b.getFileSystem() && a.getEntryName().equals(b.getEntryName());
+	}
+
+	@Override
+	public boolean isHidden(Path path) {
+		return false;
+	}
+
+	@Override
+	public FileStore getFileStore(Path path) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void checkAccess(Path path, AccessMode... modes) throws IOException {
+		JarPath p = toJarPath(path);
+		if (!p.getFileSystem().exists(p)) throw new NoSuchFileException(path.toString());
+
+		for (AccessMode mode : modes) {
+			if (mode == AccessMode.WRITE) throw new AccessDeniedException(path.toString());
+		}
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <V extends FileAttributeView> V getFileAttributeView(Path path, Class<V> type, LinkOption... options) {
+		if (type != BasicFileAttributeView.class) return null;
+
+		JarPath p = toJarPath(path);
+
+		return (V) new BasicFileAttributeView() {
+			@Override
+			public String name() {
+				return "basic";
+			}
+
+			@Override
+			public BasicFileAttributes readAttributes() throws IOException {
+				return JarFileSystemProvider.this.readAttributes(p, BasicFileAttributes.class);
+			}
+
+			@Override
+			public void setTimes(FileTime lastModifiedTime, FileTime lastAccessTime, FileTime createTime) {
+				throw new ReadOnlyFileSystemException();
+			}
+		};
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <A extends BasicFileAttributes> A readAttributes(Path path, Class<A> type, LinkOption... options) throws IOException {
+		if (type != BasicFileAttributes.class) throw new UnsupportedOperationException("unsupported attributes: "+type.getName());
+
+		JarPath p = toJarPath(path);
+		JarFileSystem fs = p.getFileSystem();
+		fs.ensureOpen();
+
+		JarIndex index = fs.getIndex();
+		String name = p.getEntryName();
+		int id = index.find(name);
+
+		if (id >= 0 && !index.isDirectoryEntry(id)) {
+			return (A) new Attributes(false, index.getSize(id), index.getLastModified(id));
+		} else if (index.isDirectory(name)) {
+			return (A) new Attributes(true, 0, id >= 0 ? index.getLastModified(id) : 0);
+		} else {
+			throw new NoSuchFileException(path.toString());
+		}
+	}
+
+	@Override
+	public Map<String, Object> readAttributes(Path path, String attributes, LinkOption... options) throws IOException {
+		int pos = attributes.indexOf(':');
+
+		if (pos >= 0) {
+			if (!attributes.substring(0, pos).equals("basic")) throw new UnsupportedOperationException("unsupported attribute view: "+attributes);
+			attributes = attributes.substring(pos + 1);
+		}
+
+		BasicFileAttributes attrs = readAttributes(path, BasicFileAttributes.class, options);
+		Map<String, Object> ret = new HashMap<>();
+
+		for (String name : attributes.split(",")) {
+			boolean all = name.equals("*");
+
+			if (all || name.equals("size")) ret.put("size", attrs.size());
+			if (all || name.equals("lastModifiedTime")) ret.put("lastModifiedTime", attrs.lastModifiedTime());
+			if (all || name.equals("lastAccessTime")) ret.put("lastAccessTime", attrs.lastAccessTime());
+			if (all || name.equals("creationTime")) ret.put("creationTime", attrs.creationTime());
+			if (all || name.equals("isRegularFile")) ret.put("isRegularFile", attrs.isRegularFile());
+			if (all || name.equals("isDirectory")) ret.put("isDirectory", attrs.isDirectory());
+			if (all || name.equals("isSymbolicLink")) ret.put("isSymbolicLink", attrs.isSymbolicLink());
+			if (all || name.equals("isOther")) ret.put("isOther", attrs.isOther());
+			if (all || name.equals("fileKey")) ret.put("fileKey", attrs.fileKey());
+		}
+
+		return ret;
+	}
+
+	@Override
+	public void setAttribute(Path path, String attribute, Object value, LinkOption... options) {
+		throw new ReadOnlyFileSystemException();
+	}
+
+	private static JarPath toJarPath(Path path) {
+		if (path == null) throw new NullPointerException();
+		if (!(path instanceof JarPath)) throw new ProviderMismatchException();
+
+		return (JarPath) path;
+	}
+
+	private static final class Attributes implements BasicFileAttributes {
+		private final boolean directory;
+		private final long size;
+		private final FileTime time;
+
+		Attributes(boolean directory, long size, long time) {
+			this.directory = directory;
+			this.size = size;
+			this.time = FileTime.fromMillis(time);
+		}
+
+		@Override
+		public FileTime lastModifiedTime() {
+			return time;
+		}
+
+		@Override
+		public FileTime lastAccessTime() {
+			return time;
+		}
+
+		@Override
+		public FileTime creationTime() {
+			return time;
+		}
+
+		@Override
+		public boolean isRegularFile() {
+			return !directory;
+		}
+
+		@Override
+		public boolean isDirectory() {
+			return directory;
+		}
+
+		@Override
+		public boolean isSymbolicLink() {
+			return false;
+		}
+
+		@Override
+		public boolean isOther() {
+			return false;
+		}
+
+		@Override
+		public long size() {
+			return size;
+		}
+
+		@Override
+		public Object fileKey() {
+			return null;
+		}
+	}
+
+	/**
+	 * Read-only channel over an entry's uncompressed content.
+	 */
+	private static final class BufferChannel implements SeekableByteChannel {
+		private final ByteBuffer buffer;
+		private boolean open = true;
+
+		BufferChannel(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read(ByteBuffer dst) throws IOException {
+			ensureOpen();
+			if (!buffer.hasRemaining()) return -1;
+
+			int len = Math.min(dst.remaining(), buffer.remaining());
+			ByteBuffer src = buffer.duplicate();
+			src.limit(src.position() + len);
+			dst.put(src);
+			buffer.position(buffer.position() + len);
+
+			return len;
+		}
+
+		@Override
+		public int write(ByteBuffer src) {
+			throw new NonWritableChannelException();
+		}
+
+		@Override
+		public long position() throws IOException {
+			ensureOpen();
+
+			return buffer.position();
+		}
+
+		@Override
+		public SeekableByteChannel position(long newPosition) throws IOException {
+			ensureOpen();
+			if (newPosition < 0) throw new IllegalArgumentException("negative position");
+
+			buffer.position((int) Math.min(newPosition, buffer.limit()));
+
+			return this;
+		}
+
+		@Override
+		public long size() throws IOException {
+			ensureOpen();
+
+			return buffer.limit();
+		}
+
+		@Override
+		public SeekableByteChannel truncate(long size) {
+			throw new NonWritableChannelException();
+		}
+
+		@Override
+		public boolean isOpen() {
+			return open;
+		}
+
+		@Override
+		public void close() {
+			open = false;
+		}
+
+		private void ensureOpen() throws ClosedChannelException {
+			if (!open) throw new ClosedChannelException();
+		}
+	}
+}
@@ -0,0 +1,619 @@
+/**
+* Copyright 2016 FabricMC
+* Copyright 2024 Flint Loader Contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package net.flintloader.punch.impl.util.jarfs;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Read-only view of a zip file's central directory, backed by a memory mapping of the whole file.
+ *
+ * <p>The only heap state is an array with the central directory offsets of all entries, sorted by name. Names are
+ * compared directly against the mapped bytes, lookups are binary searches and directory listings are range scans over
+ * the sorted entries. Directories don't need to be present as explicit entries.
+ */
+public final class JarIndex {
+	private static final int LOC_SIG = 0x04034b50;
+	private static final int CEN_SIG = 0x02014b50;
+	private static final int END_SIG = 0x06054b50;
+	private static final int ZIP64_LOCATOR_SIG = 0x07064b50;
+	private static final int ZIP64_END_SIG = 0x06064b50;
+	private static final int LOC_HEADER_SIZE = 30;
+	private static final int CEN_HEADER_SIZE = 46;
+	private static final int END_HEADER_SIZE = 22;
+	private static final int ZIP64_LOCATOR_SIZE = 20;
+	private static final int ZIP64_END_SIZE = 56;
+	private static final int MAX_COMMENT_SIZE = 0xffff;
+	private static final int ZIP64_EXTRA_ID = 0x0001;
+
+	static final int STORED = 0;
+	static final int DEFLATED = 8;
+
+	private final Path jar;
+	private final MappedByteBuffer data;
+	private final int cenOffset;
+	private final int cenSize;
+	private final int[] entries; // absolute central directory header positions, sorted by name
+
+	private JarIndex(Path jar, MappedByteBuffer data, int cenOffset, int cenSize, int[] entries) {
+		this.jar = jar;
+		this.data = data;
+		this.cenOffset = cenOffset;
+		this.cenSize = cenSize;
+		this.entries = entries;
+	}
+
+	public static JarIndex open(Path jar) throws IOException {
+		MappedByteBuffer data;
+		long[] cen;
+
+		try (FileChannel channel = FileChannel.open(jar, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE) throw new ZipException("jar too large for mapping: "+jar);
+
+			cen = findCentralDirectory(channel, jar);
+			data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+		}
+
+		data.order(ByteOrder.LITTLE_ENDIAN);
+
+		int[] entries = readEntries(data, (int) cen[2], (int) cen[1], cen[0], jar);
+		JarIndex ret = new JarIndex(jar, data, (int) cen[2], (int) cen[1], entries);
+		ret.sort(0, entries.length - 1);
+
+		return ret;
+	}
+
+	/**
+	 * Visit the names of all entries in a single pass over the central directory, without mapping or indexing the jar.
+	 *
+	 * <p>Only the central directory gets read, entries are visited in central directory order.
+	 */
+	public static void scanNames(Path jar, NameVisitor visitor) throws IOException {
+		ByteBuffer data;
+		long[] cen;
+
+		try (FileChannel channel = FileChannel.open(jar, StandardOpenOption.READ)) {
+			cen = findCentralDirectory(channel, jar);
+			if (cen[1] > Integer.MAX_VALUE) throw new ZipException("central directory too large: "+jar);
+
+			data = read(channel, cen[2], (int) cen[1]);
+		}
+
+		ByteBuffer view = data.asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+
+		for (int pos : readEntries(data, 0, data.limit(), cen[0], jar)) {
+			visitor.visit(view, pos + CEN_HEADER_SIZE, data.getShort(pos + 28) & 0xffff);
+		}
+	}
+
+	public interface NameVisitor {
+		/**
+		 * Visit the UTF-8 encoded entry name stored in data at [offset, offset + length).
+		 */
+		void visit(ByteBuffer data, int offset, int length);
+	}
+
+	/**
+	 * Locate the central directory through the end of central directory record.
+	 *
+	 * @return entry count, size and offset of the central directory
+	 */
+	private static long[] findCentralDirectory(FileChannel channel, Path jar) throws IOException {
+		long size = channel.size();
+		int len = (int) Math.min(size, ZIP64_LOCATOR_SIZE + END_HEADER_SIZE + MAX_COMMENT_SIZE);
+		long tailStart = size - len;
+		ByteBuffer tail = read(channel, tailStart, len);
+
+		int end = findEnd(tail);
+		if (end < 0) throw new ZipException("not a zip file (end of central directory not found): "+jar);
+
+		long count = tail.getShort(end + 10) & 0xffff;
+		long cenSize = tail.getInt(end + 12) & 0xffffffffL;
+		long cenOffset = tail.getInt(end + 16) & 0xffffffffL;
+
+		if ((count == 0xffff || cenSize == 0xffffffffL || cenOffset == 0xffffffffL)
+				&& end >= ZIP64_LOCATOR_SIZE
+				&& tail.getInt(end - ZIP64_LOCATOR_SIZE) == ZIP64_LOCATOR_SIG) {
+			long zip64End = tail.getLong(end - ZIP64_LOCATOR_SIZE + 8);
+
+			if (zip64End < 0 || zip64End + ZIP64_END_SIZE > tailStart + end) {
+				throw new ZipException("invalid zip64 end of central directory: "+jar);
+			}
+
+			ByteBuffer zip64 = read(channel, zip64End, ZIP64_END_SIZE);
+			if (zip64.getInt(0) != ZIP64_END_SIG) throw new ZipException("invalid zip64 end of central directory: "+jar);
+
+			count = zip64.getLong(32);
+			cenSize = zip64.getLong(40);
+			cenOffset = zip64.getLong(48);
+		}
+
+		if (cenOffset < 0 || cenSize < 0 || cenOffset + cenSize > tailStart + end || count < 0 || count > cenSize / CEN_HEADER_SIZE) {
+			throw new ZipException("invalid central directory bounds: "+jar);
+		}
+
+		return new long[] { count, cenSize, cenOffset };
+	}
+
+	private static ByteBuffer read(FileChannel channel, long pos, int len) throws IOException {
+		ByteBuffer ret = ByteBuffer.allocate(len).order(ByteOrder.LITTLE_ENDIAN);
+
+		while (ret.hasRemaining()) {
+			if (channel.read(ret, pos + ret.position()) < 0) throw new EOFException();
+		}
+
+		ret.flip();
+
+		return ret;
+	}
+
+	private static int findEnd(ByteBuffer data) {
+		int min = Math.max(0, data.limit() - END_HEADER_SIZE - MAX_COMMENT_SIZE);
+
+		for (int i = data.limit() - END_HEADER_SIZE; i >= min; i--) {
+			if (data.getInt(i) == END_SIG) return i;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Collect the positions of all central directory headers.
+	 */
+	private static int[] readEntries(ByteBuffer data, int cenOffset, int cenSize, long count, Path jar) throws ZipException {
+		int[] ret = new int[(int) count];
+		int pos = cenOffset;
+		int limit = cenOffset + cenSize;
+		int n = 0;
+
+		while (n < ret.length) {
+			if (pos + CEN_HEADER_SIZE > limit || data.getInt(pos) != CEN_SIG) throw new ZipException("invalid central directory header at "+pos+": "+jar);
+
+			ret[n++] = pos;
+			pos += CEN_HEADER_SIZE + (data.getShort(pos + 28) & 0xffff) + (data.getShort(pos + 30) & 0xffff) + (data.getShort(pos + 32) & 0xffff);
+		}
+
+		return ret;
+	}
+
+	public Path getJar() {
+		return jar;
+	}
+
+	public int size() {
+		return entries.length;
+	}
+
+	public int getCentralDirectorySize() {
+		return cenSize;
+	}
+
+	/**
+	 * Returns the approximate heap footprint of the index, the mapped file content is not included.
+	 */
+	public long getHeapSize() {
+		return 64L + 4L * entries.length;
+	}
+
+	/**
+	 * Locate an entry.
+	 *
+	 * @param name entry name without leading slash, directories without trailing slash
+	 * @return entry id or -1 if there is no such file entry
+	 */
+	public int find(String name) {
+		byte[] key = name.getBytes(StandardCharsets.UTF_8);
+		int idx = lowerBound(key);
+
+		if (idx < entries.length && compareName(entries[idx], key, false) == 0) return idx;
+
+		return -1;
+	}
+
+	/**
+	 * Determine whether a directory with the supplied name exists, either explicitly or implied by its contents.
+	 *
+	 * @param name directory name without leading or trailing slash, empty for the root directory
+	 */
+	public boolean isDirectory(String name) {
+		if (name.isEmpty()) return true;
+
+		byte[] prefix = toPrefix(name);
+		int idx = lowerBound(prefix);
+
+		return idx < entries.length && compareName(entries[idx], prefix, true) == 0;
+	}
+
+	/**
+	 * Invoke the consumer with the names of the direct children of a directory, without parent path.
+	 */
+	public void forEachChild(String dir, Consumer<String> consumer) {
+		byte[] prefix = dir.isEmpty() ? new byte[0] : toPrefix(dir);
+		String last = null;
+
+		for (int i = lowerBound(prefix); i < entries.length; i++) {
+			int pos = entries[i];
+			if (compareName(pos, prefix, true) != 0) break;
+
+			int nameStart = pos + CEN_HEADER_SIZE + prefix.length;
+			int nameEnd = pos + CEN_HEADER_SIZE + nameLength(pos);
+			int childEnd = nameStart;
+
+			while (childEnd < nameEnd && data.get(childEnd) != '/') childEnd++;
+			if (childEnd == nameStart) continue; // the directory entry itself or a bogus "dir//" entry
+
+			String child = decode(nameStart, childEnd - nameStart);
+
+			if (!child.equals(last)) { // entries of the same child are adjacent since they share the prefix
+				consumer.accept(child);
+				last = child;
+			}
+		}
+	}
+
+	public List<String> getNames() {
+		List<String> ret = new ArrayList<>(entries.length);
+
+		for (int pos : entries) {
+			ret.add(decode(pos + CEN_HEADER_SIZE, nameLength(pos)));
+		}
+
+		return ret;
+	}
+
+	public long getSize(int id) {
+		int pos = entries[id];
+		long ret = data.getInt(pos + 24) & 0xffffffffL;
+
+		if (ret == 0xffffffffL) ret = getZip64Value(pos, 0);
+
+		return ret;
+	}
+
+	public long getLastModified(int id) {
+		int dosTime = data.getInt(entries[id] + 12);
+
+		try {
+			return LocalDateTime.of(((dosTime >> 25) & 0x7f) + 1980,
+					(dosTime >> 21) & 0x0f,
+					(dosTime >> 16) & 0x1f,
+					(dosTime >> 11) & 0x1f,
+					(dosTime >> 5) & 0x3f,
+					(dosTime << 1) & 0x3e).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+		} catch (RuntimeException e) { // invalid date
+			return 0;
+		}
+	}
+
+	public boolean isDirectoryEntry(int id) {
+		int pos = entries[id];
+		int len = nameLength(pos);
+
+		return len > 0 && data.get(pos + CEN_HEADER_SIZE + len - 1) == '/';
+	}
+
+	/**
+	 * Returns the raw (possibly compressed) data of an entry as a buffer sharing the mapping.
+	 */
+	ByteBuffer getRawData(int id) throws ZipException {
+		int pos = entries[id];
+		long compressedSize = data.getInt(pos + 20) & 0xffffffffL;
+		long locOffset = data.getInt(pos + 42) & 0xffffffffL;
+
+		if (compressedSize == 0xffffffffL || locOffset == 0xffffffffL) {
+			int idx = 0;
+			if ((data.getInt(pos + 24) & 0xffffffffL) == 0xffffffffL) idx++;
+			if (compressedSize == 0xffffffffL) compressedSize = getZip64Value(pos, idx++);
+			if (locOffset == 0xffffffffL) locOffset = getZip64Value(pos, idx);
+		}
+
+		if (locOffset < 0 || locOffset + LOC_HEADER_SIZE > cenOffset || data.getInt((int) locOffset) != LOC_SIG) {
+			throw new ZipException("invalid local header for "+decode(pos + CEN_HEADER_SIZE, nameLength(pos))+" in "+jar);
+		}
+
+		int loc = (int) locOffset;
+		long start = loc + LOC_HEADER_SIZE + (data.getShort(loc + 26) & 0xffff) + (data.getShort(loc + 28) & 0xffff);
+		if (start + compressedSize > cenOffset) throw new ZipException("entry data out of bounds in "+jar);
+
+		ByteBuffer ret = data.duplicate();
+		ret.position((int) start);
+		ret.limit((int) (start + compressedSize));
+
+		return ret.slice();
+	}
+
+	InputStream getInputStream(int id) throws IOException {
+		ByteBuffer raw = getRawData(id);
+		int method = getMethod(id);
+
+		if (method == STORED) {
+			return new ByteBufferInputStream(raw);
+		} else if (method == DEFLATED) {
+			long size = getSize(id);
+			int bufferSize = (int) Math.max(512, Math.min(size, 8192));
+
+			return new InflaterInputStream(new ByteBufferInputStream(raw), new Inflater(true), bufferSize) {
+				private boolean closed;
+
+				@Override
+				public int available() throws IOException {
+					return closed ? 0 : super.available();
+				}
+
+				@Override
+				public void close() throws IOException {
+					if (closed) return;
+
+					closed = true;
+					inf.end();
+					super.close();
+				}
+			};
+		} else {
+			throw new ZipException("unsupported compression method "+method+" in "+jar);
+		}
+	}
+
+	/**
+	 * Returns the uncompressed content of an entry, sharing the mapping for stored entries.
+	 */
+	ByteBuffer getContent(int id) throws IOException {
+		ByteBuffer raw = getRawData(id);
+		int method = getMethod(id);
+
+		if (method == STORED) {
+			return raw;
+		} else if (method == DEFLATED) {
+			long size = getSize(id);
+			if (size > Integer.MAX_VALUE - 8) throw new ZipException("entry too large in "+jar);
+
+			byte[] out = new byte[(int) size];
+			byte[] in = new byte[(int) Math.min(raw.remaining(), 8192)];
+			Inflater inflater = new Inflater(true);
+
+			try {
+				int outPos = 0;
+
+				while (outPos < out.length) {
+					if (inflater.needsInput()) {
+						int len = Math.min(in.length, raw.remaining());
+						if (len == 0) break;
+
+						raw.get(in, 0, len);
+						inflater.setInput(in, 0, len);
+					}
+
+					int len = inflater.inflate(out, outPos, out.length - outPos);
+					if (len == 0 && (inflater.finished() || inflater.needsDictionary())) break;
+
+					outPos += len;
+				}
+
+				if (outPos != out.length) throw new ZipException("truncated entry data in "+jar);
+			} catch (DataFormatException e) {
+				throw new ZipException("invalid entry data in "+jar+": "+e.getMessage());
+			} finally {
+				inflater.end();
+			}
+
+			return ByteBuffer.wrap(out);
+		} else {
+			throw new ZipException("unsupported compression method "+method+" in "+jar);
+		}
+	}
+
+	private int getMethod(int id) {
+		return data.getShort(entries[id] + 10) & 0xffff;
+	}
+
+	private long getZip64Value(int pos, int idx) {
+		int extraPos = pos + CEN_HEADER_SIZE + nameLength(pos);
+		int extraEnd = extraPos + (data.getShort(pos + 30) & 0xffff);
+
+		while (extraPos + 4 <= extraEnd) {
+			int id = data.getShort(extraPos) & 0xffff;
+			int size = data.getShort(extraPos + 2) & 0xffff;
+
+			if (id == ZIP64_EXTRA_ID) {
+				int valuePos = extraPos + 4 + idx * 8;
+				if (valuePos + 8 > extraPos + 4 + size) break;
+
+				return data.getLong(valuePos);
+			}
+
+			extraPos += 4 + size;
+		}
+
+		return -1;
+	}
+
+	private int nameLength(int pos) {
+		return data.getShort(pos + 28) & 0xffff;
+	}
+
+	private String decode(int pos, int len) {
+		byte[] bytes = new byte[len];
+
+		for (int i = 0; i < len; i++) {
+			bytes[i] = data.get(pos + i);
+		}
+
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static byte[] toPrefix(String dir) {
+		byte[] name = dir.getBytes(StandardCharsets.UTF_8);
+		byte[] ret = new byte[name.length + 1];
+		System.arraycopy(name, 0, ret, 0, name.length);
+		ret[name.length] = '/';
+
+		return ret;
+	}
+
+	/**
+	 * Compare the name at a central directory header with a key.
+	 *
+	 * @param prefix whether names starting with key compare as equal
+	 */
+	private int compareName(int pos, byte[] key, boolean prefix) {
+		int len = nameLength(pos);
+		int start = pos + CEN_HEADER_SIZE;
+		int max = Math.min(len, key.length);
+
+		for (int i = 0; i < max; i++) {
+			int cmp = (data.get(start + i) & 0xff) - (key[i] & 0xff);
+			if (cmp != 0) return cmp;
+		}
+
+		if (prefix && len >= key.length) return 0;
+
+		return len - key.length;
+	}
+
+	private int compareNames(int posA, int posB) {
+		int lenA = nameLength(posA);
+		int lenB = nameLength(posB);
+		int startA = posA + CEN_HEADER_SIZE;
+		int startB = posB + CEN_HEADER_SIZE;
+		int max = Math.min(lenA, lenB);
+
+		for (int i = 0; i < max; i++) {
+			int cmp = (data.get(startA + i) & 0xff) - (data.get(startB + i) & 0xff);
+			if (cmp != 0) return cmp;
+		}
+
+		return lenA - lenB;
+	}
+
+	private int lowerBound(byte[] key) {
+		int low = 0;
+		int high = entries.length;
+
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+
+			if (compareName(entries[mid], key, false) < 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+
+		return low;
+	}
+
+	private void sort(int low, int high) {
+		// quicksort on the raw offsets, avoids boxing for a comparator based sort
+		while (low < high) {
+			if (high - low < 16) {
+				for (int i = low + 1; i <= high; i++) {
+					int v = entries[i];
+					int j = i - 1;
+
+					while (j >= low && compareNames(entries[j], v) > 0) {
+						entries[j + 1] = entries[j];
+						j--;
+					}
+
+					entries[j + 1] = v;
+				}
+
+				return;
+			}
+
+			int pivot = entries[(low + high) >>> 1];
+			int i = low;
+			int j = high;
+
+			while (i <= j) {
+				while (compareNames(entries[i], pivot) < 0) i++;
+				while (compareNames(entries[j], pivot) > 0) j--;
+
+				if (i <= j) {
+					int tmp = entries[i];
+					entries[i] = entries[j];
+					entries[j] = tmp;
+					i++;
+					j--;
+				}
+			}
+
+			if (j - low < high - i) {
+				sort(low, j);
+				low = i;
+			} else {
+				sort(i, high);
+				high = j;
+			}
+		}
+	}
+
+	private static final class ByteBufferInputStream extends InputStream {
+		private final ByteBuffer buffer;
+
+		ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() {
+			return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (len == 0) return 0;
+			if (!buffer.hasRemaining()) return -1;
+
+			len = Math.min(len, buffer.remaining());
+			buffer.get(b, off, len);
+
+			return len;
+		}
+
+		@Override
+		public long skip(long n) {
+			int len = (int) Math.max(0, Math.min(n, buffer.remaining()));
+			buffer.position(buffer.position() + len);
+
+			return len;
+		}
+
+		@Override
+		public int available() {
+			return buffer.remaining();
+		}
+	}
+}
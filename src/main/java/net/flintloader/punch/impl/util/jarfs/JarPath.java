@@ -0,0 +1,408 @@
+/**
+* Copyright 2016 FabricMC
+* Copyright 2024 Flint Loader Contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package net.flintloader.punch.impl.util.jarfs;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.ProviderMismatchException;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Path within a {@link JarFileSystem}, using "/" as separator.
+ *
+ * <p>The path string is kept without redundant or trailing separators, absolute paths start with "/".
+ */
+final class JarPath implements Path {
+	private final JarFileSystem fs;
+	private final String path;
+	private volatile int[] offsets;
+
+	JarPath(JarFileSystem fs, String path) {
+		this.fs = fs;
+		this.path = clean(path);
+	}
+
+	private JarPath(JarFileSystem fs, String path, boolean trusted) { // path already in canonical form
+		this.fs = fs;
+		this.path = path;
+	}
+
+	private static String clean(String path) {
+		int len = path.length();
+		boolean dirty = len > 1 && path.charAt(len - 1) == '/';
+
+		for (int i = 1; i < len && !dirty; i++) {
+			if (path.charAt(i) == '/' && path.charAt(i - 1) == '/') dirty = true;
+		}
+
+		if (path.indexOf('\0') >= 0) throw new InvalidPathException(path, "nul character not allowed");
+		if (!dirty) return path;
+
+		StringBuilder sb = new StringBuilder(len);
+
+		for (int i = 0; i < len; i++) {
+			char c = path.charAt(i);
+			if (c == '/' && sb.length() > 0 && sb.charAt(sb.length() - 1) == '/') continue;
+
+			sb.append(c);
+		}
+
+		if (sb.length() > 1 && sb.charAt(sb.length() - 1) == '/') sb.setLength(sb.length() - 1);
+
+		return sb.toString();
+	}
+
+	/**
+	 * Returns the entry name of this path within the jar, without leading slash.
+	 */
+	String getEntryName() {
+		JarPath abs = (JarPath) toAbsolutePath().normalize();
+
+		return abs.path.substring(1);
+	}
+
+	private int[] getOffsets() {
+		int[] ret = offsets;
+
+		if (ret == null) {
+			int count = 0;
+			int len = path.length();
+
+			for (int i = 0; i < len; i++) {
+				if (path.charAt(i) != '/' && (i == 0 || path.charAt(i - 1) == '/')) count++;
+			}
+
+			ret = new int[count];
+			count = 0;
+
+			for (int i = 0; i < len; i++) {
+				if (path.charAt(i) != '/' && (i == 0 || path.charAt(i - 1) == '/')) ret[count++] = i;
+			}
+
+			offsets = ret;
+		}
+
+		return ret;
+	}
+
+	private String getNameString(int idx) {
+		int[] offsets = getOffsets();
+		int start = offsets[idx];
+		int end = idx + 1 < offsets.length ? offsets[idx + 1] - 1 : path.length();
+
+		return path.substring(start, end);
+	}
+
+	@Override
+	public JarFileSystem getFileSystem() {
+		return fs;
+	}
+
+	@Override
+	public boolean isAbsolute() {
+		return path.startsWith("/");
+	}
+
+	@Override
+	public Path getRoot() {
+		return isAbsolute() ? fs.getRoot() : null;
+	}
+
+	@Override
+	public Path getFileName() {
+		int[] offsets = getOffsets();
+		if (offsets.length == 0) return path.isEmpty() ? this : null;
+		if (offsets.length == 1 && !isAbsolute()) return this;
+
+		return new JarPath(fs, path.substring(offsets[offsets.length - 1]), false);
+	}
+
+	@Override
+	public Path getParent() {
+		int[] offsets = getOffsets();
+		if (offsets.length == 0) return null;
+		if (offsets.length == 1) return isAbsolute() ? fs.getRoot() : null;
+
+		return new JarPath(fs, path.substring(0, offsets[offsets.length - 1] - 1), false);
+	}
+
+	@Override
+	public int getNameCount() {
+		return path.isEmpty() ? 1 : getOffsets().length;
+	}
+
+	@Override
+	public Path getName(int index) {
+		if (path.isEmpty() && index == 0) return this;
+		if (index < 0 || index >= getOffsets().length) throw new IllegalArgumentException("invalid index "+index+" for "+path);
+
+		return new JarPath(fs, getNameString(index), false);
+	}
+
+	@Override
+	public Path subpath(int beginIndex, int endIndex) {
+		int[] offsets = getOffsets();
+
+		if (beginIndex < 0 || beginIndex >= offsets.length || endIndex > offsets.length || beginIndex >= endIndex) {
+			throw new IllegalArgumentException("invalid subpath "+beginIndex+"-"+endIndex+" for "+path);
+		}
+
+		int end = endIndex < offsets.length ? offsets[endIndex] - 1 : path.length();
+
+		return new JarPath(fs, path.substring(offsets[beginIndex], end), false);
+	}
+
+	@Override
+	public boolean startsWith(Path other) {
+		JarPath o = checkPath(other);
+		if (o.isAbsolute() != isAbsolute()) return false;
+		if (o.path.isEmpty()) return path.isEmpty();
+
+		return path.startsWith(o.path)
+				&& (path.length() == o.path.length() || path.charAt(o.path.length()) == '/' || o.path.equals("/"));
+	}
+
+	@Override
+	public boolean startsWith(String other) {
+		return startsWith(fs.getPath(other));
+	}
+
+	@Override
+	public boolean endsWith(Path other) {
+		JarPath o = checkPath(other);
+		if (o.isAbsolute()) return o.path.equals(path);
+		if (o.path.isEmpty()) return path.isEmpty();
+
+		int start = path.length() - o.path.length();
+
+		return path.endsWith(o.path) && (start == 0 || path.charAt(start - 1) == '/');
+	}
+
+	@Override
+	public boolean endsWith(String other) {
+		return endsWith(fs.getPath(other));
+	}
+
+	@Override
+	public Path normalize() {
+		int[] offsets = getOffsets();
+		boolean needed = false;
+
+		for (int i = 0; i < offsets.length && !needed; i++) {
+			String name = getNameString(i);
+			needed = name.equals(".") || name.equals("..");
+		}
+
+		if (!needed) return this;
+
+		List<String> names = new ArrayList<>(offsets.length);
+
+		for (int i = 0; i < offsets.length; i++) {
+			String name = getNameString(i);
+
+			if (name.equals(".")) {
+				continue;
+			} else if (name.equals("..")) {
+				if (!names.isEmpty() && !names.get(names.size() - 1).equals("..")) {
+					names.remove(names.size() - 1);
+					continue;
+				} else if (isAbsolute()) { // can't go above the root
+					continue;
+				}
+			}
+
+			names.add(name);
+		}
+
+		StringBuilder sb = new StringBuilder(path.length());
+		if (isAbsolute()) sb.append('/');
+
+		for (int i = 0; i < names.size(); i++) {
+			if (i > 0) sb.append('/');
+			sb.append(names.get(i));
+		}
+
+		return new JarPath(fs, sb.toString(), false);
+	}
+
+	@Override
+	public Path resolve(Path other) {
+		JarPath o = checkPath(other);
+		if (o.isAbsolute()) return o;
+		if (o.path.isEmpty()) return this;
+		if (path.isEmpty()) return o;
+		if (path.equals("/")) return new JarPath(fs, "/"+o.path, false);
+
+		return new JarPath(fs, path+"/"+o.path, false);
+	}
+
+	@Override
+	public Path resolve(String other) {
+		return resolve(fs.getPath(other));
+	}
+
+	@Override
+	public Path resolveSibling(Path other) {
+		checkPath(other);
+		Path parent = getParent();
+
+		return parent == null ? other : parent.resolve(other);
+	}
+
+	@Override
+	public Path resolveSibling(String other) {
+		return resolveSibling(fs.getPath(other));
+	}
+
+	@Override
+	public Path relativize(Path other) {
+		JarPath o = checkPath(other);
+		if (o.isAbsolute() != isAbsolute()) throw new IllegalArgumentException("can't relativize "+other+" against "+this);
+		if (o.path.equals(path)) return new JarPath(fs, "", false);
+
+		int count = getOffsets().length;
+		int otherCount = o.getOffsets().length;
+		int common = 0;
+
+		while (common < count && common < otherCount && getNameString(common).equals(o.getNameString(common))) {
+			common++;
+		}
+
+		StringBuilder sb = new StringBuilder();
+
+		for (int i = common; i < count; i++) {
+			if (sb.length() > 0) sb.append('/');
+			sb.append("..");
+		}
+
+		for (int i = common; i < otherCount; i++) {
+			if (sb.length() > 0) sb.append('/');
+			sb.append(o.getNameString(i));
+		}
+
+		return new JarPath(fs, sb.toString(), false);
+	}
+
+	/**
+	 * Returns a "jar:" URI, so the result can be turned into an URL handled by the JDK's jar protocol handler.
+	 *
+	 * <p>The jar URI is decoded first as the URI constructor quotes the whole scheme specific part, like zipfs does.
+	 */
+	@Override
+	public URI toUri() {
+		URI jarUri = fs.getJar().toUri();
+
+		try {
+			return new URI("jar", jarUri.getScheme()+":"+jarUri.getSchemeSpecificPart()+"!"+toAbsolutePath().path, null);
+		} catch (URISyntaxException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	public JarPath toAbsolutePath() {
+		if (isAbsolute()) return this;
+
+		return new JarPath(fs, path.isEmpty() ? "/" : "/"+path, false);
+	}
+
+	@Override
+	public Path toRealPath(LinkOption... options) throws IOException {
+		JarPath ret = (JarPath) toAbsolutePath().normalize();
+		if (!fs.exists(ret)) throw new NoSuchFileException(toString());
+
+		return ret;
+	}
+
+	@Override
+	public File toFile() {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public WatchKey register(WatchService watcher, WatchEvent.Kind<?>[] events, WatchEvent.Modifier... modifiers) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public WatchKey register(WatchService watcher, WatchEvent.Kind<?>... events) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public Iterator<Path> iterator() {
+		return new Iterator<Path>() {
+			private int idx;
+
+			@Override
+			public boolean hasNext() {
+				return idx < getNameCount();
+			}
+
+			@Override
+			public Path next() {
+				if (!hasNext()) throw new NoSuchElementException();
+
+				return getName(idx++);
+			}
+		};
+	}
+
+	@Override
+	public int compareTo(Path other) {
+		return path.compareTo(checkPath(other).path);
+	}
+
+	private JarPath checkPath(Path other) {
+		if (other == null) throw new NullPointerException();
+		if (!(other instanceof JarPath)) throw new ProviderMismatchException();
+
+		return (JarPath) other;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (!(obj instanceof JarPath)) return false;
+
+		JarPath o = (JarPath) obj;
+
+		return fs == o.fs && path.equals(o.path);
+	}
+
+	@Override
+	public int hashCode() {
+		return path.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return path;
+	}
+}
@@ -0,0 +1,313 @@
+/**
+* Copyright 2016 FabricMC
+* Copyright 2024 Flint Loader Contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package net.flintloader.punch.impl.util.log;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import net.flintloader.punch.impl.util.SystemProperties;
+
+/**
+ * LogHandler passing messages to its delegate on a dedicated writer thread.
+ *
+ * <p>Messages are stored in a preallocated ring buffer, logging only has to fill a slot. Once the buffer is full,
+ * loggers either wait for the writer or drop their message, see {@link SystemProperties#LOG_QUEUE_OVERFLOW}. Replayed
+ * and error messages are never dropped, logging an error waits until the writer passed it on. The buffer is drained on
+ * shutdown and before closing.
+ *
+ * <p>Messages logged by the writer thread itself, e.g. from the delegate, are passed on directly.
+ */
+final class AsyncLogHandler implements LogHandler {
+	private static final int DEFAULT_QUEUE_SIZE = 1024;
+	private static final long SHUTDOWN_TIMEOUT_MS = 5000;
+
+	private final LogHandler delegate;
+	private final Slot[] slots;
+	private final boolean dropOnOverflow;
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notEmpty = lock.newCondition();
+	private final Condition notFull = lock.newCondition();
+	private final Condition drained = lock.newCondition();
+	private final Thread writer;
+	private final Thread shutdownHook;
+	private long head; // sequence of the next slot to pass on, guarded by lock
+	private long tail; // sequence of the next slot to fill, guarded by lock
+	private long dropped; // guarded by lock
+	private volatile boolean closed;
+
+	static LogHandler wrap(LogHandler delegate) {
+		if (System.getProperty(SystemProperties.DEBUG_DISABLE_ASYNC_LOG) != null) return delegate;
+
+		return new AsyncLogHandler(delegate, getQueueSize(), isDropOnOverflow());
+	}
+
+	private AsyncLogHandler(LogHandler delegate, int queueSize, boolean dropOnOverflow) {
+		this.delegate = delegate;
+		this.slots = new Slot[queueSize];
+		this.dropOnOverflow = dropOnOverflow;
+
+		for (int i = 0; i < slots.length; i++) {
+			slots[i] = new Slot();
+		}
+
+		writer = new Thread(this::runWriter, "Log Writer");
+		writer.setDaemon(true);
+		writer.start();
+
+		shutdownHook = new Thread(() -> flush(SHUTDOWN_TIMEOUT_MS), "AsyncLogHandler shutdown hook");
+		Runtime.getRuntime().addShutdownHook(shutdownHook);
+	}
+
+	// Log isn't usable while its handler is being created, so invalid values are reported directly
+
+	private static int getQueueSize() {
+		String value = System.getProperty(SystemProperties.LOG_QUEUE_SIZE);
+		if (value == null) return DEFAULT_QUEUE_SIZE;
+
+		try {
+			return Math.max(1, Integer.parseInt(value));
+		} catch (NumberFormatException e) {
+			System.err.printf("Invalid log queue size %s%n", value);
+			return DEFAULT_QUEUE_SIZE;
+		}
+	}
+
+	private static boolean isDropOnOverflow() {
+		String value = System.getProperty(SystemProperties.LOG_QUEUE_OVERFLOW);
+		if (value == null) return false;
+
+		switch (value.toLowerCase(Locale.ENGLISH)) {
+		case "block":
+			return false;
+		case "drop":
+			return true;
+		default:
+			System.err.printf("Invalid log queue overflow policy %s, expected block or drop%n", value);
+			return false;
+		}
+	}
+
+	LogHandler getDelegate() {
+		return delegate;
+	}
+
+	@Override
+	public void log(long time, LogLevel level, LogCategory category, String msg, Throwable exc, boolean fromReplay, boolean wasSuppressed) {
+		if (closed || Thread.currentThread() == writer) {
+			delegate.log(time, level, category, msg, exc, fromReplay, wasSuppressed);
+			return;
+		}
+
+		boolean mayDrop = dropOnOverflow && !fromReplay && level.isLessThan(LogLevel.ERROR);
+		boolean interrupted = false;
+		long seq;
+
+		lock.lock();
+
+		try {
+			while (tail - head >= slots.length) {
+				if (mayDrop) {
+					dropped++;
+					return;
+				}
+
+				try {
+					notFull.await();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+
+				if (closed) break;
+			}
+
+			if (closed) {
+				seq = -1;
+			} else {
+				seq = tail++;
+				slots[(int) (seq % slots.length)].set(time, level, category, msg, exc, fromReplay, wasSuppressed);
+				notEmpty.signal();
+			}
+		} finally {
+			lock.unlock();
+		}
+
+		if (interrupted) Thread.currentThread().interrupt();
+
+		if (seq < 0) {
+			delegate.log(time, level, category, msg, exc, fromReplay, wasSuppressed);
+		} else if (level == LogLevel.ERROR) {
+			awaitDrained(seq + 1, 0);
+		}
+	}
+
+	/**
+	 * Wait until all messages logged so far have been passed on.
+	 */
+	void flush() {
+		flush(0);
+	}
+
+	private void flush(long timeoutMs) {
+		if (Thread.currentThread() == writer) return;
+
+		long seq;
+		lock.lock();
+
+		try {
+			seq = tail;
+		} finally {
+			lock.unlock();
+		}
+
+		awaitDrained(seq, timeoutMs);
+	}
+
+	private void awaitDrained(long seq, long timeoutMs) {
+		long deadline = timeoutMs > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs) : 0;
+		boolean interrupted = false;
+
+		lock.lock();
+
+		try {
+			while (head < seq && writer.isAlive()) {
+				try {
+					if (timeoutMs <= 0) {
+						drained.await();
+					} else {
+						long remaining = deadline - System.nanoTime();
+						if (remaining <= 0) break;
+
+						drained.awaitNanos(remaining);
+					}
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		} finally {
+			lock.unlock();
+		}
+
+		if (interrupted) Thread.currentThread().interrupt();
+	}
+
+	private void runWriter() {
+		for (;;) {
+			long start, end, droppedCount;
+
+			lock.lock();
+
+			try {
+				while (head == tail) {
+					if (closed) return;
+
+					notEmpty.awaitUninterruptibly();
+				}
+
+				start = head;
+				end = tail;
+				droppedCount = dropped;
+				dropped = 0;
+			} finally {
+				lock.unlock();
+			}
+
+			// slots in [start, end) are owned by this thread until head advances
+			for (long seq = start; seq < end; seq++) {
+				Slot slot = slots[(int) (seq % slots.length)];
+
+				try {
+					delegate.log(slot.time, slot.level, slot.category, slot.msg, slot.exc, slot.fromReplay, slot.wasSuppressed);
+				} catch (Throwable t) {
+					System.err.printf("Error writing log message: %s%n", t);
+				}
+
+				slot.clear();
+			}
+
+			if (droppedCount > 0) {
+				delegate.log(System.currentTimeMillis(), LogLevel.WARN, LogCategory.LOG,
+						String.format("Dropped %d log messages, the log queue was full", droppedCount), null, false, false);
+			}
+
+			lock.lock();
+
+			try {
+				head = end;
+				notFull.signalAll();
+				drained.signalAll();
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	@Override
+	public boolean shouldLog(LogLevel level, LogCategory category) {
+		return delegate.shouldLog(level, category);
+	}
+
+	@Override
+	public void close() {
+		flush();
+
+		lock.lock();
+
+		try {
+			closed = true;
+			notEmpty.signalAll();
+			notFull.signalAll();
+		} finally {
+			lock.unlock();
+		}
+
+		try {
+			Runtime.getRuntime().removeShutdownHook(shutdownHook);
+		} catch (IllegalStateException e) {
+			// ignore, shutting down already
+		}
+
+		delegate.close();
+	}
+
+	private static final class Slot {
+		long time;
+		LogLevel level;
+		LogCategory category;
+		String msg;
+		Throwable exc;
+		boolean fromReplay;
+		boolean wasSuppressed;
+
+		void set(long time, LogLevel level, LogCategory category, String msg, Throwable exc, boolean fromReplay, boolean wasSuppressed) {
+			this.time = time;
+			this.level = level;
+			this.category = category;
+			this.msg = msg;
+			this.exc = exc;
+			this.fromReplay = fromReplay;
+			this.wasSuppressed = wasSuppressed;
+		}
+
+		void clear() {
+			category = null;
+			msg = null;
+			exc = null;
+		}
+	}
+}
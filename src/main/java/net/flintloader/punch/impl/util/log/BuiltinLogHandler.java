@@ -17,13 +17,12 @@
 package net.flintloader.punch.impl.util.log;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
-import java.util.ArrayList;
-import java.util.List;
 
 import net.flintloader.punch.impl.util.LoaderUtil;
 import net.flintloader.punch.impl.util.SystemProperties;
@@ -36,13 +35,16 @@ import net.flintloader.punch.impl.util.SystemProperties;
  * - log to stderr for LogLevel.ERROR
  * - option to relay previous log output to another log handler if requested through Log.init
  * - dumps previous log output to a log file if not closed/relayed yet
+ *
+ * <p>Previous log output is kept in a bounded {@link ReplayBuffer}.
  */
 final class BuiltinLogHandler extends ConsoleLogHandler {
 	private static final String DEFAULT_LOG_FILE = "flintloader.log";
 
 	private boolean configured;
 	private boolean enableOutput;
-	private List<ReplayEntry> buffer = new ArrayList<>();
+	private ReplayBuffer buffer = new ReplayBuffer();
+	private LogHandler replayTarget; // receives messages from threads still logging here after the replay
 	private final Thread shutdownHook;
 
 	BuiltinLogHandler() {
@@ -53,9 +55,14 @@ final class BuiltinLogHandler extends ConsoleLogHandler {
 	@Override
 	public void log(long time, LogLevel level, LogCategory category, String msg, Throwable exc, boolean fromReplay, boolean wasSuppressed) {
 		boolean output;
+		LogHandler target;
 
 		synchronized (this) {
-			if (enableOutput) {
+			target = replayTarget;
+
+			if (target != null) {
+				output = false;
+			} else if (enableOutput) {
 				output = true;
 			} else if (level.isLessThan(LogLevel.ERROR)) {
 				output = false;
@@ -64,22 +71,23 @@ final class BuiltinLogHandler extends ConsoleLogHandler {
 				output = true;
 			}
 
-			if (buffer != null) {
-				buffer.add(new ReplayEntry(time, level, category, msg, exc));
+			if (buffer != null && target == null) {
+				buffer.add(time, level, category, msg, exc);
 			}
 		}
 
-		if (output) super.log(time, level, category, msg, exc, fromReplay, wasSuppressed);
+		if (target != null) {
+			if (target.shouldLog(level, category)) target.log(time, level, category, msg, exc, fromReplay, wasSuppressed);
+		} else if (output) {
+			super.log(time, level, category, msg, exc, fromReplay, wasSuppressed);
+		}
 	}
 
 	private void startOutput() {
 		if (enableOutput) return;
 
 		if (buffer != null) {
-			for (int i = 0; i < buffer.size(); i++) { // index based loop to tolerate replay producing log output by itself
-				ReplayEntry entry = buffer.get(i);
-				super.log(entry.time, entry.level, entry.category, entry.msg, entry.exc, true, true);
-			}
+			buffer.forEach((time, level, category, msg, exc) -> super.log(time, level, category, msg, exc, true, true));
 		}
 
 		enableOutput = true;
@@ -108,8 +116,9 @@ final class BuiltinLogHandler extends ConsoleLogHandler {
 		}
 
 		if (buffer) {
-			if (this.buffer == null) this.buffer = new ArrayList<>();
-		} else {
+			if (this.buffer == null) this.buffer = new ReplayBuffer();
+		} else if (this.buffer != null) {
+			this.buffer.clear();
 			this.buffer = null;
 		}
 
@@ -121,30 +130,18 @@ final class BuiltinLogHandler extends ConsoleLogHandler {
 	}
 
 	synchronized boolean replay(LogHandler target) {
-		if (buffer == null || buffer.isEmpty()) return false;
+		// forward messages logged while replaying, e.g. by the target itself, instead of growing the buffer
+		replayTarget = target;
 
-		for (int i = 0; i < buffer.size(); i++) { // index based loop to tolerate replay producing log output by itself
-			ReplayEntry entry = buffer.get(i);
-			target.log(entry.time, entry.level, entry.category, entry.msg, entry.exc, true, !enableOutput);
-		}
+		if (buffer == null) return false;
 
-		return true;
-	}
-
-	private static final class ReplayEntry {
-		ReplayEntry(long time, LogLevel level, LogCategory category, String msg, Throwable exc) {
-			this.time = time;
-			this.level = level;
-			this.category = category;
-			this.msg = msg;
-			this.exc = exc;
-		}
+		boolean ret = !buffer.isEmpty();
+		boolean wasSuppressed = !enableOutput;
+		buffer.forEach((time, level, category, msg, exc) -> target.log(time, level, category, msg, exc, true, wasSuppressed));
+		buffer.clear();
+		buffer = null;
 
-		final long time;
-		final LogLevel level;
-		final LogCategory category;
-		final String msg;
-		final Throwable exc;
+		return ret;
 	}
 
 	private final class ShutdownHook extends Thread {
@@ -154,16 +151,14 @@ final class BuiltinLogHandler extends ConsoleLogHandler {
 
 		@Override
 		public void run() {
+			Log.flush(); // outside the lock, the writer thread may need it to pass messages on
+
 			synchronized (BuiltinLogHandler.this) {
 				if (buffer == null || buffer.isEmpty()) return;
 
 				if (!enableOutput) {
 					enableOutput = true;
-
-					for (int i = 0; i < buffer.size(); i++) { // index based loop to tolerate replay producing log output by itself
-						ReplayEntry entry = buffer.get(i);
-						BuiltinLogHandler.super.log(entry.time, entry.level, entry.category, entry.msg, entry.exc, true, true);
-					}
+					buffer.forEach((time, level, category, msg, exc) -> BuiltinLogHandler.super.log(time, level, category, msg, exc, true, true));
 				}
 
 				String fileName = System.getProperty(SystemProperties.LOG_FILE, DEFAULT_LOG_FILE);
@@ -174,12 +169,15 @@ final class BuiltinLogHandler extends ConsoleLogHandler {
 					Files.createDirectories(file.getParent());
 
 					try (Writer writer = Files.newBufferedWriter(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.CREATE)) {
-						for (int i = 0; i < buffer.size(); i++) { // index based loop to tolerate replay producing log output by itself
-							ReplayEntry entry = buffer.get(i);
-							writer.write(formatLog(entry.time, entry.level, entry.category, entry.msg, entry.exc));
-						}
+						buffer.forEach((time, level, category, msg, exc) -> {
+							try {
+								writer.write(formatLog(time, level, category, msg, exc));
+							} catch (IOException e) {
+								throw new UncheckedIOException(e);
+							}
+						});
 					}
-				} catch (IOException e) {
+				} catch (IOException | UncheckedIOException e) {
 					System.err.printf("Error saving log: %s", e);
 				}
 			}
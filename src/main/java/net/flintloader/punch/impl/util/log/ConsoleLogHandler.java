@@ -18,11 +18,16 @@ package net.flintloader.punch.impl.util.log;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
 
 public class ConsoleLogHandler implements LogHandler {
 	private static final LogLevel MIN_STDERR_LEVEL = LogLevel.ERROR;
 	private static final LogLevel MIN_STDOUT_LEVEL = LogLevel.getDefault();
 
+	private static volatile Timestamp lastTimestamp = new Timestamp(Long.MIN_VALUE, "");
+
 	@Override
 	public void log(long time, LogLevel level, LogCategory category, String msg, Throwable exc, boolean fromReplay, boolean wasSuppressed) {
 		String formatted = formatLog(time, level, category, msg, exc);
@@ -35,7 +40,12 @@ public class ConsoleLogHandler implements LogHandler {
 	}
 
 	protected static String formatLog(long time, LogLevel level, LogCategory category, String msg, Throwable exc) {
-		String ret = String.format("[%tT] [%s] [%s/%s]: %s%n", time, level.name(), category.context, category.name, msg);
+		String ret = new StringBuilder(msg.length() + 48)
+				.append('[').append(formatTime(time)).append("] [")
+				.append(level.name()).append("] [")
+				.append(category.context).append('/').append(category.name).append("]: ")
+				.append(msg).append(System.lineSeparator())
+				.toString();
 
 		if (exc != null) {
 			StringWriter writer = new StringWriter(ret.length() + 500);
@@ -51,6 +61,21 @@ public class ConsoleLogHandler implements LogHandler {
 		return ret;
 	}
 
+	/**
+	 * Format the time as HH:mm:ss like %tT, reusing the result for messages within the same second.
+	 */
+	private static String formatTime(long time) {
+		long second = Math.floorDiv(time, 1000);
+		Timestamp timestamp = lastTimestamp;
+		if (timestamp.second == second) return timestamp.formatted;
+
+		LocalTime localTime = Instant.ofEpochSecond(second).atZone(ZoneId.systemDefault()).toLocalTime();
+		String formatted = String.format("%02d:%02d:%02d", localTime.getHour(), localTime.getMinute(), localTime.getSecond());
+		lastTimestamp = new Timestamp(second, formatted);
+
+		return formatted;
+	}
+
 	@Override
 	public boolean shouldLog(LogLevel level, LogCategory category) {
 		return !level.isLessThan(MIN_STDOUT_LEVEL);
@@ -58,4 +83,14 @@ public class ConsoleLogHandler implements LogHandler {
 
 	@Override
 	public void close() { }
+
+	private static final class Timestamp {
+		final long second;
+		final String formatted;
+
+		Timestamp(long second, String formatted) {
+			this.second = second;
+			this.formatted = formatted;
+		}
+	}
 }
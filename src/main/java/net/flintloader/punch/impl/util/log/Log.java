@@ -23,21 +23,41 @@ public final class Log {
 	public static final String NAME = "PunchLoader";
 	private static final boolean CHECK_FOR_BRACKETS = true;
 
-	private static LogHandler handler = new BuiltinLogHandler();
+	// only the builtin handler is made asynchronous, handlers passed to init may rely on the logging thread
+	private static volatile LogHandler handler = AsyncLogHandler.wrap(new BuiltinLogHandler());
 
-	public static void init(LogHandler handler) {
+	public static synchronized void init(LogHandler handler) {
 		if (handler == null) throw new NullPointerException("null log handler");
 
 		LogHandler oldHandler = Log.handler;
+		flush(); // replay has to see all messages logged so far
+		BuiltinLogHandler builtin = getBuiltin(oldHandler);
 
-		if (oldHandler instanceof BuiltinLogHandler) {
-			((BuiltinLogHandler) oldHandler).replay(handler);
+		if (builtin != null) {
+			builtin.replay(handler);
 		}
 
 		Log.handler = handler;
 		oldHandler.close();
 	}
 
+	private static BuiltinLogHandler getBuiltin(LogHandler handler) {
+		if (handler instanceof AsyncLogHandler) handler = ((AsyncLogHandler) handler).getDelegate();
+
+		return handler instanceof BuiltinLogHandler ? (BuiltinLogHandler) handler : null;
+	}
+
+	/**
+	 * Wait until all messages logged so far have been written if the log handler is asynchronous.
+	 */
+	static void flush() {
+		LogHandler handler = Log.handler;
+
+		if (handler instanceof AsyncLogHandler) {
+			((AsyncLogHandler) handler).flush();
+		}
+	}
+
 	/**
 	 * Configure builtin log handler.
 	 *
@@ -45,10 +65,10 @@ public final class Log {
 	 * @param output whether to output log messages directly
 	 */
 	public static void configureBuiltin(boolean buffer, boolean output) {
-		LogHandler handler = Log.handler;
+		BuiltinLogHandler builtin = getBuiltin(Log.handler);
 
-		if (handler instanceof BuiltinLogHandler) {
-			((BuiltinLogHandler) handler).configure(buffer, output);
+		if (builtin != null) {
+			builtin.configure(buffer, output);
 		}
 	}
 
@@ -56,10 +76,10 @@ public final class Log {
 	 * Finish configuring builtin log handler, using defaults if unconfigured.
 	 */
 	public static void finishBuiltinConfig() {
-		LogHandler handler = Log.handler;
+		BuiltinLogHandler builtin = getBuiltin(Log.handler);
 
-		if (handler instanceof BuiltinLogHandler) {
-			((BuiltinLogHandler) handler).finishConfig();
+		if (builtin != null) {
+			builtin.finishConfig();
 		}
 	}
 
@@ -0,0 +1,287 @@
+/**
+* Copyright 2016 FabricMC
+* Copyright 2024 Flint Loader Contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package net.flintloader.punch.impl.util.log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import net.flintloader.punch.impl.util.SystemProperties;
+
+/**
+ * Bounded message store for the builtin log handler's replay.
+ *
+ * <p>Messages are kept in parallel arrays used as a ring buffer, holding at most
+ * {@link SystemProperties#LOG_REPLAY_LIMIT} entries. Once full, the oldest entry is either dropped or spilled to a
+ * temporary file, see {@link SystemProperties#LOG_REPLAY_OVERFLOW}. Spilled entries reference their category through
+ * an in-memory table and carry exceptions as stack trace text appended to the message.
+ *
+ * <p>Not thread safe, the builtin log handler guards it with its monitor.
+ */
+final class ReplayBuffer {
+	private static final int DEFAULT_LIMIT = 16384;
+	private static final int INITIAL_CAPACITY = 256;
+	private static final LogLevel[] LEVELS = LogLevel.values();
+
+	private final int limit;
+	private final boolean spill;
+
+	private long[] times = new long[0];
+	private byte[] levels = new byte[0];
+	private LogCategory[] categories = new LogCategory[0];
+	private String[] messages = new String[0];
+	private Throwable[] exceptions = new Throwable[0];
+	private int start;
+	private int size;
+
+	private final List<LogCategory> categoryTable = new ArrayList<>();
+	private final Map<LogCategory, Integer> categoryIds = new IdentityHashMap<>();
+	private Path spillFile;
+	private DataOutputStream spillOut;
+	private boolean spillFailed;
+	private int spilled;
+	private long dropped;
+
+	ReplayBuffer() {
+		this(getLimit(), isSpill());
+	}
+
+	ReplayBuffer(int limit, boolean spill) {
+		this.limit = limit;
+		this.spill = spill;
+	}
+
+	// Log isn't usable while the builtin handler is being created, so invalid values are reported directly
+
+	private static int getLimit() {
+		String value = System.getProperty(SystemProperties.LOG_REPLAY_LIMIT);
+		if (value == null) return DEFAULT_LIMIT;
+
+		try {
+			return Math.max(1, Integer.parseInt(value));
+		} catch (NumberFormatException e) {
+			System.err.printf("Invalid log replay limit %s%n", value);
+			return DEFAULT_LIMIT;
+		}
+	}
+
+	private static boolean isSpill() {
+		String value = System.getProperty(SystemProperties.LOG_REPLAY_OVERFLOW);
+		if (value == null) return false;
+
+		switch (value.toLowerCase(Locale.ENGLISH)) {
+		case "drop":
+			return false;
+		case "spill":
+			return true;
+		default:
+			System.err.printf("Invalid log replay overflow policy %s, expected drop or spill%n", value);
+			return false;
+		}
+	}
+
+	boolean isEmpty() {
+		return size == 0 && spilled == 0 && dropped == 0;
+	}
+
+	void add(long time, LogLevel level, LogCategory category, String msg, Throwable exc) {
+		if (size == limit) {
+			evictOldest();
+		} else if (size == times.length) {
+			grow();
+		}
+
+		int pos = (start + size) % times.length;
+		times[pos] = time;
+		levels[pos] = (byte) level.ordinal();
+		categories[pos] = category;
+		messages[pos] = msg;
+		exceptions[pos] = exc;
+		size++;
+	}
+
+	private void grow() {
+		// entries only get evicted once the arrays reached the limit, so the ring never wraps while growing
+		int capacity = Math.min(limit, Math.max(INITIAL_CAPACITY, times.length * 2));
+		times = Arrays.copyOf(times, capacity);
+		levels = Arrays.copyOf(levels, capacity);
+		categories = Arrays.copyOf(categories, capacity);
+		messages = Arrays.copyOf(messages, capacity);
+		exceptions = Arrays.copyOf(exceptions, capacity);
+	}
+
+	private void evictOldest() {
+		if (spill && writeSpilled(start)) {
+			spilled++;
+		} else {
+			dropped++;
+		}
+
+		categories[start] = null;
+		messages[start] = null;
+		exceptions[start] = null;
+		start = (start + 1) % times.length;
+		size--;
+	}
+
+	private boolean writeSpilled(int pos) {
+		try {
+			if (spillFailed) return false;
+
+			if (spillOut == null) {
+				spillFile = Files.createTempFile("flintloader-log", ".bin");
+				spillFile.toFile().deleteOnExit();
+				spillOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(spillFile)));
+			}
+
+			LogCategory category = categories[pos];
+			Integer categoryId = categoryIds.get(category);
+
+			if (categoryId == null) {
+				categoryId = categoryTable.size();
+				categoryTable.add(category);
+				categoryIds.put(category, categoryId);
+			}
+
+			String msg = messages[pos];
+			Throwable exc = exceptions[pos];
+
+			if (exc != null) {
+				StringWriter writer = new StringWriter(msg.length() + 500);
+
+				try (PrintWriter pw = new PrintWriter(writer, false)) {
+					pw.println(msg);
+					exc.printStackTrace(pw);
+				}
+
+				msg = writer.toString().trim();
+			}
+
+			byte[] msgBytes = msg.getBytes(StandardCharsets.UTF_8);
+
+			spillOut.writeLong(times[pos]);
+			spillOut.writeByte(levels[pos]);
+			spillOut.writeInt(categoryId);
+			spillOut.writeInt(msgBytes.length);
+			spillOut.write(msgBytes);
+
+			return true;
+		} catch (IOException e) {
+			System.err.printf("Error spilling log messages to %s: %s%n", spillFile, e);
+			spillFailed = true; // keep the entries spilled so far, drop from now on
+
+			return false;
+		}
+	}
+
+	/**
+	 * Pass all entries to the consumer, oldest first.
+	 *
+	 * <p>Dropped entries are reported with a warning in their place. The buffer must not be modified while iterating.
+	 */
+	void forEach(EntryConsumer consumer) {
+		if (dropped > 0) {
+			long time = spilled == 0 && size > 0 ? times[start] : System.currentTimeMillis();
+			consumer.accept(time, LogLevel.WARN, LogCategory.LOG, String.format("%d earlier log messages were dropped from the replay buffer", dropped), null);
+		}
+
+		if (spilled > 0) readSpilled(consumer);
+
+		for (int i = 0; i < size; i++) {
+			int pos = (start + i) % times.length;
+			consumer.accept(times[pos], LEVELS[levels[pos]], categories[pos], messages[pos], exceptions[pos]);
+		}
+	}
+
+	private void readSpilled(EntryConsumer consumer) {
+		if (spillOut != null) {
+			try {
+				spillOut.flush();
+			} catch (IOException e) {
+				// reported by the read below
+			}
+		}
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(spillFile)))) {
+			for (int i = 0, max = spilled; i < max; i++) {
+				long time = in.readLong();
+				LogLevel level = LEVELS[in.readByte()];
+				LogCategory category = categoryTable.get(in.readInt());
+				byte[] msg = new byte[in.readInt()];
+				in.readFully(msg);
+
+				consumer.accept(time, level, category, new String(msg, StandardCharsets.UTF_8), null);
+			}
+		} catch (IOException e) {
+			consumer.accept(System.currentTimeMillis(), LogLevel.WARN, LogCategory.LOG, "Error reading spilled log messages: "+e, null);
+		}
+	}
+
+	/**
+	 * Release all entries and the spill file.
+	 */
+	void clear() {
+		times = new long[0];
+		levels = new byte[0];
+		categories = new LogCategory[0];
+		messages = new String[0];
+		exceptions = new Throwable[0];
+		start = size = spilled = 0;
+		dropped = 0;
+		categoryTable.clear();
+		categoryIds.clear();
+
+		if (spillOut != null) {
+			try {
+				spillOut.close();
+			} catch (IOException e) {
+				// ignore
+			}
+
+			spillOut = null;
+		}
+
+		if (spillFile != null) {
+			try {
+				Files.deleteIfExists(spillFile);
+			} catch (IOException e) {
+				// ignore, deleted on exit
+			}
+
+			spillFile = null;
+		}
+
+		spillFailed = false;
+	}
+
+	interface EntryConsumer {
+		void accept(long time, LogLevel level, LogCategory category, String msg, Throwable exc);
+	}
+}
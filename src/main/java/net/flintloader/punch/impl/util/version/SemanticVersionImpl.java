@@ -19,7 +19,6 @@ package net.flintloader.punch.impl.util.version;
 import java.util.Arrays;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.StringTokenizer;
 import java.util.regex.Pattern;
 
 import net.flintloader.punch.api.SemanticVersion;
@@ -38,7 +37,6 @@ import net.flintloader.punch.api.VersionParsingException;
 @SuppressWarnings("deprecation")
 public class SemanticVersionImpl extends net.flintloader.punch.util.version.SemanticVersionImpl implements SemanticVersion {
 	private static final Pattern DOT_SEPARATED_ID = Pattern.compile("|[-0-9A-Za-z]+(\\.[-0-9A-Za-z]+)*");
-	private static final Pattern UNSIGNED_INTEGER = Pattern.compile("0|[1-9][0-9]*");
 	private final int[] components;
 	private final String prerelease;
 	private final String build;
@@ -269,47 +267,97 @@ public class SemanticVersionImpl extends net.flintloader.punch.util.version.Sema
 			if (compare != 0) return compare;
 		}
 
-		Optional<String> prereleaseA = getPrereleaseKey();
-		Optional<String> prereleaseB = o.getPrereleaseKey();
-
-		if (prereleaseA.isPresent() || prereleaseB.isPresent()) {
-			if (prereleaseA.isPresent() && prereleaseB.isPresent()) {
-				StringTokenizer prereleaseATokenizer = new StringTokenizer(prereleaseA.get(), ".");
-				StringTokenizer prereleaseBTokenizer = new StringTokenizer(prereleaseB.get(), ".");
-
-				while (prereleaseATokenizer.hasMoreElements()) {
-					if (prereleaseBTokenizer.hasMoreElements()) {
-						String partA = prereleaseATokenizer.nextToken();
-						String partB = prereleaseBTokenizer.nextToken();
-
-						if (UNSIGNED_INTEGER.matcher(partA).matches()) {
-							if (UNSIGNED_INTEGER.matcher(partB).matches()) {
-								int compare = Integer.compare(partA.length(), partB.length());
-								if (compare != 0) return compare;
-							} else {
-								return -1;
-							}
-						} else {
-							if (UNSIGNED_INTEGER.matcher(partB).matches()) {
-								return 1;
-							}
-						}
-
-						int compare = partA.compareTo(partB);
-						if (compare != 0) return compare;
-					} else {
-						return 1;
-					}
-				}
+		// read the prerelease keys directly where possible, comparisons are frequent and shouldn't allocate
+		String prereleaseA = prerelease;
+		String prereleaseB = o instanceof SemanticVersionImpl ? ((SemanticVersionImpl) o).prerelease : o.getPrereleaseKey().orElse(null);
 
-				return prereleaseBTokenizer.hasMoreElements() ? -1 : 0;
-			} else if (prereleaseA.isPresent()) {
+		if (prereleaseA != null || prereleaseB != null) {
+			if (prereleaseA != null && prereleaseB != null) {
+				return comparePrerelease(prereleaseA, prereleaseB);
+			} else if (prereleaseA != null) {
 				return o.hasWildcard() ? 0 : -1;
-			} else { // prereleaseB.isPresent()
+			} else { // prereleaseB != null
 				return hasWildcard() ? 0 : 1;
 			}
 		} else {
 			return 0;
 		}
 	}
+
+	/**
+	 * Compare dot separated prerelease identifiers in place, numeric identifiers are lower than alphanumeric ones.
+	 *
+	 * <p>Empty identifiers are skipped.
+	 */
+	private static int comparePrerelease(String a, String b) {
+		int posA = skipDots(a, 0);
+		int posB = skipDots(b, 0);
+
+		while (posA < a.length()) {
+			if (posB >= b.length()) return 1;
+
+			int endA = findDot(a, posA);
+			int endB = findDot(b, posB);
+
+			if (isUnsignedInteger(a, posA, endA)) {
+				if (isUnsignedInteger(b, posB, endB)) {
+					int compare = Integer.compare(endA - posA, endB - posB);
+					if (compare != 0) return compare;
+				} else {
+					return -1;
+				}
+			} else if (isUnsignedInteger(b, posB, endB)) {
+				return 1;
+			}
+
+			int compare = compareRange(a, posA, endA, b, posB, endB);
+			if (compare != 0) return compare;
+
+			posA = skipDots(a, endA);
+			posB = skipDots(b, endB);
+		}
+
+		return posB < b.length() ? -1 : 0;
+	}
+
+	private static int skipDots(String s, int pos) {
+		while (pos < s.length() && s.charAt(pos) == '.') pos++;
+
+		return pos;
+	}
+
+	private static int findDot(String s, int pos) {
+		int ret = s.indexOf('.', pos);
+
+		return ret >= 0 ? ret : s.length();
+	}
+
+	/**
+	 * Whether the range matches {@code 0|[1-9][0-9]*}.
+	 */
+	private static boolean isUnsignedInteger(String s, int start, int end) {
+		if (start >= end || end - start > 1 && s.charAt(start) == '0') return false;
+
+		for (int i = start; i < end; i++) {
+			char c = s.charAt(i);
+			if (c < '0' || c > '9') return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Compare two ranges like {@link String#compareTo}.
+	 */
+	private static int compareRange(String a, int startA, int endA, String b, int startB, int endB) {
+		int len = Math.min(endA - startA, endB - startB);
+
+		for (int i = 0; i < len; i++) {
+			char ca = a.charAt(startA + i);
+			char cb = b.charAt(startB + i);
+			if (ca != cb) return ca - cb;
+		}
+
+		return (endA - startA) - (endB - startB);
+	}
 }
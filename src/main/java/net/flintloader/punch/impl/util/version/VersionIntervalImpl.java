@@ -196,6 +196,10 @@ public final class VersionIntervalImpl implements VersionInterval {
 			return merged != null ? Collections.singletonList(merged) : Collections.emptyList();
 		}
 
+		if (isNormalized(a) && isNormalized(b)) {
+			return andNormalized(toList(a), toList(b));
+		}
+
 		// (a0 || a1 || a2) && (b0 || b1 || b2) == a0 && b0 && b1 && b2 || a1 && b0 && b1 && b2 || a2 && b0 && b1 && b2
 
 		List<VersionInterval> allMerged = new ArrayList<>();
@@ -219,6 +223,34 @@ public final class VersionIntervalImpl implements VersionInterval {
 		return ret;
 	}
 
+	/**
+	 * Intersect two normalized interval lists by sweeping over both in order.
+	 *
+	 * <p>The intersections of disjoint sorted intervals are disjoint and sorted as well, so the result doesn't need
+	 * merging.
+	 */
+	private static List<VersionInterval> andNormalized(List<VersionInterval> a, List<VersionInterval> b) {
+		List<VersionInterval> ret = new ArrayList<>(Math.max(a.size(), b.size()));
+		int i = 0;
+		int j = 0;
+
+		while (i < a.size() && j < b.size()) {
+			VersionInterval intervalA = a.get(i);
+			VersionInterval intervalB = b.get(j);
+			VersionInterval merged = andSemantic(intervalA, intervalB);
+			if (merged != null) ret.add(merged);
+
+			// the interval ending first can't intersect any later interval of the other list
+			if (compareMax(intervalA, intervalB) < 0) {
+				i++;
+			} else {
+				j++;
+			}
+		}
+
+		return ret;
+	}
+
 	public static List<VersionInterval> or(Collection<VersionInterval> a, VersionInterval b) {
 		if (a.isEmpty()) {
 			if (b == null) {
@@ -230,8 +262,12 @@ public final class VersionIntervalImpl implements VersionInterval {
 
 		List<VersionInterval> ret = new ArrayList<>(a.size() + 1);
 
-		for (VersionInterval v : a) {
-			merge(v, ret);
+		if (isNormalized(a)) { // already merged, only b needs merging
+			ret.addAll(a);
+		} else {
+			for (VersionInterval v : a) {
+				merge(v, ret);
+			}
 		}
 
 		merge(b, ret);
@@ -395,6 +431,33 @@ public final class VersionIntervalImpl implements VersionInterval {
 		out.add(a);
 	}
 
+	/**
+	 * Whether the intervals are all semantic, sorted and separated by gaps, which is the form the merging operations
+	 * produce.
+	 */
+	private static boolean isNormalized(Collection<VersionInterval> intervals) {
+		VersionInterval prev = null;
+
+		for (VersionInterval v : intervals) {
+			if (v == null || !v.isSemantic()) return false;
+
+			if (prev != null) {
+				if (prev.getMax() == null || v.getMin() == null) return false;
+
+				int cmp = ((SemanticVersion) prev.getMax()).compareTo((Version) v.getMin());
+				if (cmp > 0 || cmp == 0 && (prev.isMaxInclusive() || v.isMinInclusive())) return false;
+			}
+
+			prev = v;
+		}
+
+		return true;
+	}
+
+	private static List<VersionInterval> toList(Collection<VersionInterval> intervals) {
+		return intervals instanceof List ? (List<VersionInterval>) intervals : new ArrayList<>(intervals);
+	}
+
 	private static int compareMin(VersionInterval a, VersionInterval b) {
 		SemanticVersion aMin = (SemanticVersion) a.getMin();
 		SemanticVersion bMin = (SemanticVersion) b.getMin();
@@ -16,16 +16,31 @@
 **/
 package net.flintloader.punch.impl.util.version;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import net.flintloader.punch.api.SemanticVersion;
 import net.flintloader.punch.api.Version;
 import net.flintloader.punch.api.VersionParsingException;
 
 public final class VersionParser {
+	/**
+	 * Maximum number of cached versions, beyond that new versions are parsed on every call.
+	 */
+	static final int CACHE_SIZE = 1024;
+
+	private static final Map<String, Version> cache = new ConcurrentHashMap<>();
+
 	public static Version parse(String s, boolean storeX) throws VersionParsingException {
 		if (s == null || s.isEmpty()) {
 			throw new VersionParsingException("Version must be a non-empty string!");
 		}
 
+		if (!storeX) {
+			Version ret = cache.get(s);
+			if (ret != null) return ret;
+		}
+
 		Version version;
 
 		try {
@@ -34,6 +49,8 @@ public final class VersionParser {
 			version = new StringVersion(s);
 		}
 
+		if (!storeX) cache(s, version);
+
 		return version;
 	}
 
@@ -42,6 +59,16 @@ public final class VersionParser {
 			throw new VersionParsingException("Version must be a non-empty string!");
 		}
 
-		return new SemanticVersionImpl(s, false);
+		Version ret = cache.get(s);
+		if (ret instanceof SemanticVersion) return (SemanticVersion) ret;
+
+		SemanticVersion version = new SemanticVersionImpl(s, false);
+		cache(s, version);
+
+		return version;
+	}
+
+	private static void cache(String s, Version version) {
+		if (cache.size() < CACHE_SIZE) cache.putIfAbsent(s, version);
 	}
 }
@@ -21,8 +21,10 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import net.flintloader.punch.api.SemanticVersion;
 import net.flintloader.punch.api.Version;
@@ -34,8 +36,22 @@ import net.flintloader.punch.api.metadata.version.VersionPredicate.PredicateTerm
 
 public final class VersionPredicateParser {
 	private static final VersionComparisonOperator[] OPERATORS = VersionComparisonOperator.values();
+	private static final Map<String, VersionPredicate> cache = new ConcurrentHashMap<>();
 
+	/**
+	 * Parse a predicate, reusing the result of earlier calls with the same string.
+	 */
 	public static VersionPredicate parse(String predicate) throws VersionParsingException {
+		VersionPredicate ret = cache.get(predicate);
+		if (ret != null) return ret;
+
+		ret = parse0(predicate);
+		if (cache.size() < VersionParser.CACHE_SIZE) cache.putIfAbsent(predicate, ret);
+
+		return ret;
+	}
+
+	private static VersionPredicate parse0(String predicate) throws VersionParsingException {
 		List<SingleVersionPredicate> predicateList = new ArrayList<>();
 
 		for (String s : predicate.split(" ")) {
@@ -141,16 +157,23 @@ public final class VersionPredicateParser {
 	static class SingleVersionPredicate implements VersionPredicate, PredicateTerm {
 		private final VersionComparisonOperator operator;
 		private final Version refVersion;
+		private final SemanticVersion semanticRefVersion;
+		private VersionInterval interval; // lazily computed, immutable
 
 		SingleVersionPredicate(VersionComparisonOperator operator, Version refVersion) {
 			this.operator = operator;
 			this.refVersion = refVersion;
+			this.semanticRefVersion = refVersion instanceof SemanticVersion ? (SemanticVersion) refVersion : null;
 		}
 
 		@Override
 		public boolean test(Version version) {
 			Objects.requireNonNull(version, "null version");
 
+			if (semanticRefVersion != null && version instanceof SemanticVersion) {
+				return operator.test((SemanticVersion) version, semanticRefVersion);
+			}
+
 			return operator.test(version, refVersion);
 		}
 
@@ -161,14 +184,19 @@ public final class VersionPredicateParser {
 
 		@Override
 		public VersionInterval getInterval() {
-			if (refVersion instanceof SemanticVersion) {
-				SemanticVersion version = (SemanticVersion) refVersion;
+			VersionInterval ret = interval;
+			if (ret != null) return ret;
 
-				return new VersionIntervalImpl(operator.minVersion(version), operator.isMinInclusive(),
-						operator.maxVersion(version), operator.isMaxInclusive());
+			if (semanticRefVersion != null) {
+				ret = new VersionIntervalImpl(operator.minVersion(semanticRefVersion), operator.isMinInclusive(),
+						operator.maxVersion(semanticRefVersion), operator.isMaxInclusive());
 			} else {
-				return new VersionIntervalImpl(refVersion, true, refVersion, true);
+				ret = new VersionIntervalImpl(refVersion, true, refVersion, true);
 			}
+
+			interval = ret;
+
+			return ret;
 		}
 
 		@Override
@@ -205,16 +233,20 @@ public final class VersionPredicateParser {
 
 	static class MultiVersionPredicate implements VersionPredicate {
 		private final List<SingleVersionPredicate> predicates;
+		private final SingleVersionPredicate[] predicateArray;
+		private final VersionInterval interval;
 
 		MultiVersionPredicate(List<SingleVersionPredicate> predicates) {
 			this.predicates = predicates;
+			this.predicateArray = predicates.toArray(new SingleVersionPredicate[0]);
+			this.interval = computeInterval(predicates);
 		}
 
 		@Override
 		public boolean test(Version version) {
 			Objects.requireNonNull(version, "null version");
 
-			for (SingleVersionPredicate predicate : predicates) {
+			for (SingleVersionPredicate predicate : predicateArray) {
 				if (!predicate.test(version)) return false;
 			}
 
@@ -228,6 +260,10 @@ public final class VersionPredicateParser {
 
 		@Override
 		public VersionInterval getInterval() {
+			return interval;
+		}
+
+		private static VersionInterval computeInterval(List<SingleVersionPredicate> predicates) {
 			if (predicates.isEmpty()) return AnyVersionPredicate.INSTANCE.getInterval();
 
 			VersionInterval ret = predicates.get(0).getInterval();
@@ -0,0 +1,238 @@
+/**
+* Copyright 2016 FabricMC
+* Copyright 2024 Flint Loader Contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package net.flintloader.punch.impl.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import net.flintloader.punch.impl.metrics.LoaderEvents;
+
+/**
+ * Java Flight Recorder backed {@link LoaderEvents}, instantiated reflectively on Java 11+.
+ *
+ * <p>Event types are checked through their {@link EventType} first, so no event is allocated while it isn't recorded.
+ */
+public final class JfrLoaderEvents extends LoaderEvents {
+	private static final String CATEGORY = "Flint Loader";
+
+	private static final EventType CLASS_DEFINE = EventType.getEventType(ClassDefineEvent.class);
+	private static final EventType REMAP = EventType.getEventType(RemapEvent.class);
+	private static final EventType MODULE_DISCOVERY = EventType.getEventType(ModuleDiscoveryEvent.class);
+	private static final EventType MIXIN_CONFIG = EventType.getEventType(MixinConfigEvent.class);
+	private static final EventType ACCESS_WIDENER = EventType.getEventType(AccessWidenerEvent.class);
+	private static final EventType ENTRYPOINT = EventType.getEventType(EntryPointEvent.class);
+
+	public JfrLoaderEvents() { }
+
+	@Override
+	public ClassDefineScope classDefine(String className) {
+		if (!CLASS_DEFINE.isEnabled()) return ClassDefineScope.NONE;
+
+		ClassDefineEvent event = new ClassDefineEvent();
+		event.className = className;
+		event.begin();
+
+		return new ClassDefineScopeImpl(event);
+	}
+
+	@Override
+	public Scope remap(String stage, String subject) {
+		if (!REMAP.isEnabled()) return Scope.NONE;
+
+		RemapEvent event = new RemapEvent();
+		event.stage = stage;
+		event.subject = subject;
+
+		return new ScopeImpl(event);
+	}
+
+	@Override
+	public Scope moduleDiscovery(String source) {
+		if (!MODULE_DISCOVERY.isEnabled()) return Scope.NONE;
+
+		ModuleDiscoveryEvent event = new ModuleDiscoveryEvent();
+		event.source = source;
+
+		return new ScopeImpl(event);
+	}
+
+	@Override
+	public Scope mixinConfig(String moduleId, String config) {
+		if (!MIXIN_CONFIG.isEnabled()) return Scope.NONE;
+
+		MixinConfigEvent event = new MixinConfigEvent();
+		event.moduleId = moduleId;
+		event.config = config;
+
+		return new ScopeImpl(event);
+	}
+
+	@Override
+	public Scope accessWidener(String moduleId, String stage) {
+		if (!ACCESS_WIDENER.isEnabled()) return Scope.NONE;
+
+		AccessWidenerEvent event = new AccessWidenerEvent();
+		event.moduleId = moduleId;
+		event.stage = stage;
+
+		return new ScopeImpl(event);
+	}
+
+	@Override
+	public Scope entryPoint(String key, String moduleId) {
+		if (!ENTRYPOINT.isEnabled()) return Scope.NONE;
+
+		EntryPointEvent event = new EntryPointEvent();
+		event.key = key;
+		event.moduleId = moduleId;
+
+		return new ScopeImpl(event);
+	}
+
+	private static class ScopeImpl implements Scope {
+		private final Event event;
+
+		ScopeImpl(Event event) {
+			this.event = event;
+			event.begin();
+		}
+
+		@Override
+		public boolean isEnabled() {
+			return true;
+		}
+
+		@Override
+		public void close() {
+			event.commit();
+		}
+	}
+
+	private static final class ClassDefineScopeImpl extends ScopeImpl implements ClassDefineScope {
+		private final ClassDefineEvent event;
+		private boolean discarded;
+
+		ClassDefineScopeImpl(ClassDefineEvent event) {
+			super(event);
+			this.event = event;
+		}
+
+		@Override
+		public void setTransformNanos(long nanos) {
+			event.transformNanos = nanos;
+		}
+
+		@Override
+		public void setMixinNanos(long nanos) {
+			event.mixinNanos = nanos;
+		}
+
+		@Override
+		public void discard() {
+			discarded = true;
+		}
+
+		@Override
+		public void close() {
+			if (!discarded) super.close();
+		}
+	}
+
+	@Name("net.flintloader.ClassDefine")
+	@Label("Class Define")
+	@Description("Loading, transforming and defining a class through the loader's class loader")
+	@Category({CATEGORY, "Class Loading"})
+	@StackTrace(false)
+	static final class ClassDefineEvent extends Event {
+		@Label("Class Name")
+		String className;
+
+		@Label("Transform Time")
+		@Description("Reading the class and running the transformers except Mixin")
+		@Timespan(Timespan.NANOSECONDS)
+		long transformNanos;
+
+		@Label("Mixin Time")
+		@Timespan(Timespan.NANOSECONDS)
+		long mixinNanos;
+	}
+
+	@Name("net.flintloader.Remap")
+	@Label("Game Remap")
+	@Category(CATEGORY)
+	@StackTrace(false)
+	static final class RemapEvent extends Event {
+		@Label("Stage")
+		String stage;
+
+		@Label("Subject")
+		String subject;
+	}
+
+	@Name("net.flintloader.ModuleDiscovery")
+	@Label("Module Discovery")
+	@Category(CATEGORY)
+	@StackTrace(false)
+	static final class ModuleDiscoveryEvent extends Event {
+		@Label("Source")
+		String source;
+	}
+
+	@Name("net.flintloader.MixinConfig")
+	@Label("Mixin Config")
+	@Description("Parsing and registering a Mixin config")
+	@Category(CATEGORY)
+	@StackTrace(false)
+	static final class MixinConfigEvent extends Event {
+		@Label("Module Id")
+		String moduleId;
+
+		@Label("Config")
+		String config;
+	}
+
+	@Name("net.flintloader.AccessWidener")
+	@Label("Access Widener")
+	@Category(CATEGORY)
+	@StackTrace(false)
+	static final class AccessWidenerEvent extends Event {
+		@Label("Module Id")
+		String moduleId;
+
+		@Label("Stage")
+		String stage;
+	}
+
+	@Name("net.flintloader.EntryPoint")
+	@Label("Entrypoint")
+	@Description("Constructing and invoking a module's entrypoint")
+	@Category(CATEGORY)
+	@StackTrace(false)
+	static final class EntryPointEvent extends Event {
+		@Label("Key")
+		String key;
+
+		@Label("Module Id")
+		String moduleId;
+	}
+}